@@ -0,0 +1,776 @@
+/* AuthorIndex imports */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.xml.sax.XMLReader;
+/* IndexSegment imports */
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An index of the authors of the articles of a corpus of XML files in JATS format,
+ * to look up the articles of a surname without parsing the files again.
+ * The index is a directory of immutable segments, each one a sorted dictionary of surnames
+ * with the posting list of their articles, read through a memory mapping,
+ * and a manifest with the segment of each file indexed.
+ * Adding files only parses the new or modified ones into a new segment,
+ * the articles of the previous version of a file being ignored from then on,
+ * as are the ones of the files that no longer exist,
+ * and the segments are compacted into one once there are too many of them.
+ */
+public class AuthorIndex {
+
+    /**
+     * The magic number of the manifest.
+     */
+    private static final int MAGIC = 0x50524c49;
+
+    /**
+     * The version of the format of the manifest and the segments.
+     */
+    static final int FORMAT = 1;
+
+    /**
+     * The name of the manifest in the directory.
+     */
+    private static final String MANIFEST_FILE = "manifest";
+
+    /**
+     * The maximum amount of articles of a segment, so building one takes bounded memory.
+     */
+    private static final int SEGMENT_ARTICLES = 1 << 20;
+
+    /**
+     * The amount of segments over which they are compacted into one.
+     */
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * The directory of the index.
+     */
+    private final Path directory;
+
+    /**
+     * The size, modification time and segment of each file indexed, by absolute path.
+     */
+    private final Map<String, IndexedFile> files = new HashMap<>();
+
+    /**
+     * The segments, in the order they were written.
+     */
+    private final List<IndexSegment> segments = new ArrayList<>();
+
+    /**
+     * The id of the next segment.
+     */
+    private int nextSegment = 0;
+
+    /**
+     * The constructor of an index, loads its manifest and maps its segments.
+     *
+     * @param directory the directory of the index, created if it doesn't exist.
+     */
+    public AuthorIndex(String directory) throws IOException {
+        this.directory = Files.createDirectories(Paths.get(directory));
+        final Path manifest = this.directory.resolve(MANIFEST_FILE);
+        if (!Files.isRegularFile(manifest)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Unknown format of " + manifest);
+            }
+            this.nextSegment = in.readInt();
+            for (int segments = in.readInt(); segments > 0; segments--) {
+                final int id = in.readInt();
+                this.segments.add(new IndexSegment(id, this.segment(id)));
+            }
+            for (int files = in.readInt(); files > 0; files--) {
+                final String path = in.readUTF();
+                this.files.put(path, new IndexedFile(in.readLong(), in.readLong(), in.readInt()));
+            }
+        }
+    }
+
+    /**
+     * Returns the key of a surname, without case nor accents, e.g. garcia-osorio
+     *
+     * @param surname the surname.
+     * @return the key of the surname.
+     */
+    static String key(String surname) {
+        return Normalizer.normalize(surname.trim(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexes the new or modified files of some sources, the other ones are skipped.
+     * The files indexed under the sources that no longer exist are removed from the index.
+     * Files that can't be parsed are reported and skipped, so they are tried again next time.
+     *
+     * @param sources the files, directories, globs or lists of sources (@LIST), see BatchParser.expand.
+     * @param parser the parser of the files.
+     * @param threads the amount of files to be parsed at the same time.
+     * @return the amount of articles indexed.
+     */
+    public long add(List<String> sources, XMLParser parser, int threads) throws IOException {
+        this.removeVanished(sources);
+        final List<Path> changed = new ArrayList<>();
+        for (Path path : BatchParser.expand(sources)) {
+            if (!Files.exists(path)) {
+                continue;
+            }
+            final IndexedFile indexed = this.files.get(path.toAbsolutePath().normalize().toString());
+            if (indexed == null || indexed.size != Files.size(path) || indexed.modified != Files.getLastModifiedTime(path).toMillis()) {
+                changed.add(path);
+            }
+        }
+
+        /* Keep a bounded window of pending files, adding them in order */
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final ThreadLocal<XMLReader> readers = ThreadLocal.withInitial(() -> parser.createReader(false));
+        final Deque<Future<JATSReport>> pending = new ArrayDeque<>();
+        final Deque<Path> pendingFiles = new ArrayDeque<>();
+        final SegmentBuilder builder = new SegmentBuilder();
+        long articles = 0;
+        try {
+            for (Path path : changed) {
+                if (pending.size() == threads * 4) {
+                    articles += this.add(builder, pending.poll(), pendingFiles.poll());
+                }
+                pending.add(pool.submit(() -> parser.parse(readers.get(), path.toString(), new JATSReport())));
+                pendingFiles.add(path);
+            }
+            while (!pending.isEmpty()) {
+                articles += this.add(builder, pending.poll(), pendingFiles.poll());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        this.write(builder);
+        this.saveManifest();
+        if (this.segments.size() > MAX_SEGMENTS) {
+            this.compact();
+        }
+        return articles;
+    }
+
+    /**
+     * Waits for the results of a file and adds its articles to the segment being built,
+     * writing it once it's full.
+     *
+     * @param builder the segment being built.
+     * @param result the pending results of the file.
+     * @param path the file.
+     * @return the amount of articles of the file.
+     */
+    private int add(SegmentBuilder builder, Future<JATSReport> result, Path path) throws IOException {
+        final List<Article> articles;
+        try {
+            articles = result.get().getArticles();
+        } catch (ExecutionException ex) {
+            System.err.println("Skipping " + path + ": " + ex.getCause().getMessage());
+            return 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + path, ex);
+        }
+        final String source = path.toAbsolutePath().normalize().toString();
+        for (Article article : articles) {
+            builder.add(source, article.getFullTitle(), article.getPublicationYear(), article.getAuthors());
+        }
+        builder.addFile(source, new IndexedFile(Files.size(path), Files.getLastModifiedTime(path).toMillis(), -1));
+        if (builder.size() >= SEGMENT_ARTICLES) {
+            this.flush(builder);
+        }
+        return articles.size();
+    }
+
+    /**
+     * Removes the files indexed under some sources that no longer exist, their articles being ignored from then on.
+     * The manifest is saved along with the files indexed next.
+     *
+     * @param sources the files, directories, globs or lists of sources (@LIST).
+     */
+    private void removeVanished(List<String> sources) throws IOException {
+        for (String source : sources) {
+            if (source.startsWith("@")) {
+                final Path list = Paths.get(source.substring(1));
+                if (Files.isRegularFile(list)) {
+                    final List<String> listed = new ArrayList<>();
+                    for (String line : Files.readAllLines(list)) {
+                        if (!line.trim().isEmpty()) {
+                            listed.add(line.trim());
+                        }
+                    }
+                    this.removeVanished(listed);
+                }
+                continue;
+            }
+            final Path root = Paths.get(source).toAbsolutePath().normalize();
+            final PathMatcher matcher = BatchParser.isGlob(source) ? root.getFileSystem().getPathMatcher("glob:" + root) : null;
+            this.files.keySet().removeIf(file -> {
+                final Path path = Paths.get(file);
+                return (matcher == null ? path.startsWith(root) : matcher.matches(path)) && !Files.exists(path);
+            });
+        }
+    }
+
+    /**
+     * Writes the segment being built, if it has any file, and saves the manifest.
+     *
+     * @param builder the segment being built, cleared afterwards.
+     */
+    private void flush(SegmentBuilder builder) throws IOException {
+        if (this.write(builder)) {
+            this.saveManifest();
+        }
+    }
+
+    /**
+     * Writes the segment being built, if it has any file, without saving the manifest.
+     *
+     * @param builder the segment being built, cleared afterwards.
+     * @return whether a segment was written.
+     */
+    private Boolean write(SegmentBuilder builder) throws IOException {
+        if (builder.getFiles().isEmpty()) {
+            return false;
+        }
+        final int id = this.nextSegment++;
+        builder.write(this.segment(id));
+        this.segments.add(new IndexSegment(id, this.segment(id)));
+        for (Map.Entry<String, IndexedFile> file : builder.getFiles().entrySet()) {
+            this.files.put(file.getKey(), new IndexedFile(file.getValue().size, file.getValue().modified, id));
+        }
+        builder.clear();
+        return true;
+    }
+
+    /**
+     * Rewrites the live articles of every segment into as few segments as possible,
+     * deleting the previous ones. The manifest is saved once every new segment has been written,
+     * and only then the previous segments are deleted, so an interrupted compaction leaves the index as it was.
+     */
+    public void compact() throws IOException {
+        final List<IndexSegment> previous = new ArrayList<>(this.segments);
+        final SegmentBuilder builder = new SegmentBuilder();
+        this.segments.clear();
+        for (IndexSegment segment : previous) {
+            for (int id = 0; id < segment.getArticles(); id++) {
+                final IndexedArticle article = segment.article(id);
+                final IndexedFile file = this.files.get(article.getSource());
+                if (file != null && file.segment == segment.getId()) {
+                    builder.add(article.getSource(), article.getTitle(), article.getYear(), article.getAuthors());
+                }
+            }
+            for (Map.Entry<String, IndexedFile> file : this.files.entrySet()) {
+                if (file.getValue().segment == segment.getId()) {
+                    builder.addFile(file.getKey(), file.getValue());
+                }
+            }
+            if (builder.size() >= SEGMENT_ARTICLES) {
+                this.write(builder);
+            }
+        }
+        this.write(builder);
+        this.saveManifest();
+        for (IndexSegment segment : previous) {
+            Files.deleteIfExists(this.segment(segment.getId()));
+        }
+    }
+
+    /**
+     * Returns the articles of an author.
+     *
+     * @param surname the surname of the author, ending with * to match every surname starting with it.
+     * @param from the first year of the articles.
+     * @param to the last year of the articles.
+     * @return the articles, by year and in the order they were indexed.
+     */
+    public List<IndexedArticle> query(String surname, int from, int to) {
+        final Boolean prefix = surname.endsWith("*");
+        final String key = key(prefix ? surname.substring(0, surname.length() - 1) : surname);
+        final List<IndexedArticle> articles = new ArrayList<>();
+        for (IndexSegment segment : this.segments) {
+            /* An article may be in several posting lists of a prefix */
+            final TreeSet<Integer> ids = new TreeSet<>();
+            for (int term = segment.find(key); term < segment.getTerms(); term++) {
+                final String current = segment.term(term);
+                if (prefix ? !current.startsWith(key) : !current.equals(key)) {
+                    break;
+                }
+                for (int id : segment.postings(term)) {
+                    ids.add(id);
+                }
+            }
+            for (int id : ids) {
+                final IndexedArticle article = segment.article(id);
+                final IndexedFile file = this.files.get(article.getSource());
+                if (file != null && file.segment == segment.getId() && article.getYear() >= from && article.getYear() <= to) {
+                    articles.add(article);
+                }
+            }
+        }
+        articles.sort(Comparator.comparingInt(IndexedArticle::getYear));
+        return articles;
+    }
+
+    /**
+     * Returns the path of a segment.
+     *
+     * @param id the id of the segment.
+     */
+    private Path segment(int id) {
+        return this.directory.resolve("segment-" + id + ".idx");
+    }
+
+    /**
+     * Saves the manifest atomically, after the segments it refers to have been written.
+     */
+    private void saveManifest() throws IOException {
+        final Path temporary = Files.createTempFile(this.directory, MANIFEST_FILE, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(this.nextSegment);
+            out.writeInt(this.segments.size());
+            for (IndexSegment segment : this.segments) {
+                out.writeInt(segment.getId());
+            }
+            out.writeInt(this.files.size());
+            for (Map.Entry<String, IndexedFile> file : this.files.entrySet()) {
+                out.writeUTF(file.getKey());
+                out.writeLong(file.getValue().size);
+                out.writeLong(file.getValue().modified);
+                out.writeInt(file.getValue().segment);
+            }
+        }
+        Files.move(temporary, this.directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The main method of the index.
+     * Adds files to an index, looks up the articles of an author, or compacts an index.
+     *
+     * @param args the command, add, query or compact, the directory of the index, and the options of the command.
+     */
+    public static void main(String[] args) {
+        final String command = args.length > 0 ? args[0] : "";
+        final List<String> sources = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int from = Integer.MIN_VALUE;
+        int to = Integer.MAX_VALUE;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--year":
+                        from = Integer.parseInt(args[++i]);
+                        to = from;
+                        break;
+                    case "--from":
+                        from = Integer.parseInt(args[++i]);
+                        break;
+                    case "--to":
+                        to = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        sources.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            sources.clear();
+        }
+        final Boolean valid = args.length > 1 && threads > 0 && (command.equals("add") && !sources.isEmpty()
+            || command.equals("query") && sources.size() == 1 || command.equals("compact") && sources.isEmpty());
+        if (!valid) {
+            System.err.println("Invalid arguments, usage: java AuthorIndex add [INDEX] ([--threads N]) [FILE | DIRECTORY | GLOB | @LIST]...\n" +
+                "       java AuthorIndex query [INDEX] [SURNAME | PREFIX*] ([--year YEAR]) ([--from YEAR]) ([--to YEAR])\n" +
+                "       java AuthorIndex compact [INDEX]");
+            System.exit(0);
+        }
+
+        try {
+            final AuthorIndex index = new AuthorIndex(args[1]);
+            switch (command) {
+                case "add":
+                    final long articles = index.add(sources, new XMLParser(), threads);
+                    System.out.println("- Artículos indexados: " + articles);
+                    break;
+                case "query":
+                    final List<IndexedArticle> found = index.query(sources.get(0), from, to);
+                    final StringBuilder results = new StringBuilder("- Artículos que aparecen: " + found.size() + "\n");
+                    for (IndexedArticle article : found) {
+                        results.append("  - ").append(article).append('\n');
+                    }
+                    System.out.print(results);
+                    System.out.flush();
+                    break;
+                default:
+                    index.compact();
+            }
+        } catch (IOException ex) {
+            System.err.println("Error accessing the index: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the index", ex);
+        }
+    }
+
+    /**
+     * The size, modification time and segment of a file when it was indexed.
+     */
+    private static class IndexedFile {
+
+        final long size;
+        final long modified;
+        final int segment;
+
+        IndexedFile(long size, long modified, int segment) {
+            this.size = size;
+            this.modified = modified;
+            this.segment = segment;
+        }
+    }
+
+    /**
+     * The articles of a segment being built, kept in memory until it's written.
+     */
+    private static class SegmentBuilder {
+
+        /**
+         * The articles, in the order they were added.
+         */
+        private final List<IndexedArticle> articles = new ArrayList<>();
+
+        /**
+         * The ids of the articles of each surname key, sorted by key.
+         */
+        private final TreeMap<String, List<Integer>> postings = new TreeMap<>();
+
+        /**
+         * The files of the articles, by absolute path.
+         */
+        private final Map<String, IndexedFile> files = new HashMap<>();
+
+        void add(String source, String title, int year, List<String> authors) {
+            final int id = this.articles.size();
+            this.articles.add(new IndexedArticle(source, title, year, authors));
+            for (String author : authors) {
+                final List<Integer> ids = this.postings.computeIfAbsent(key(author), key -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        void addFile(String source, IndexedFile file) {
+            this.files.put(source, file);
+        }
+
+        int size() {
+            return this.articles.size();
+        }
+
+        Map<String, IndexedFile> getFiles() {
+            return this.files;
+        }
+
+        void clear() {
+            this.articles.clear();
+            this.postings.clear();
+            this.files.clear();
+        }
+
+        /**
+         * Writes the segment, see IndexSegment for its layout.
+         *
+         * @param path the file of the segment.
+         */
+        void write(Path path) throws IOException {
+            final Path temporary = Files.createTempFile(path.getParent(), "segment", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                final long[] articleOffsets = new long[this.articles.size()];
+                for (int i = 0; i < articleOffsets.length; i++) {
+                    final IndexedArticle article = this.articles.get(i);
+                    articleOffsets[i] = out.size();
+                    out.writeInt(article.getYear());
+                    IndexSegment.writeString(out, article.getTitle());
+                    IndexSegment.writeString(out, article.getSource());
+                    out.writeInt(article.getAuthors().size());
+                    for (String author : article.getAuthors()) {
+                        IndexSegment.writeString(out, author);
+                    }
+                }
+                final long[] keyOffsets = new long[this.postings.size()];
+                final long[] postingOffsets = new long[this.postings.size()];
+                int term = 0;
+                for (Map.Entry<String, List<Integer>> posting : this.postings.entrySet()) {
+                    keyOffsets[term] = out.size();
+                    IndexSegment.writeString(out, posting.getKey());
+                    postingOffsets[term++] = out.size();
+                    out.writeInt(posting.getValue().size());
+                    for (int id : posting.getValue()) {
+                        out.writeInt(id);
+                    }
+                }
+                final long articlesOffset = out.size();
+                for (long offset : articleOffsets) {
+                    out.writeLong(offset);
+                }
+                final long termsOffset = out.size();
+                for (int i = 0; i < keyOffsets.length; i++) {
+                    out.writeLong(keyOffsets[i]);
+                    out.writeLong(postingOffsets[i]);
+                }
+                if (out.size() == Integer.MAX_VALUE) {
+                    throw new IOException("The segment is too large");
+                }
+                out.writeLong(articlesOffset);
+                out.writeLong(termsOffset);
+                out.writeInt(articleOffsets.length);
+                out.writeInt(keyOffsets.length);
+                out.writeInt(FORMAT);
+                out.writeInt(IndexSegment.MAGIC);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
+
+/**
+ * An immutable segment of an AuthorIndex, read through a memory mapping.
+ * Its layout is, in order: the articles (year, title, file and authors), the surname keys sorted
+ * each one followed by the posting list of the ids of its articles, the offsets of the articles,
+ * the offsets of the keys and their posting lists, and a trailer with the offsets of both tables.
+ * Looking up a surname is a binary search of the keys, only touching the pages it reads.
+ */
+class IndexSegment {
+
+    /**
+     * The magic number of the segments, at their end.
+     */
+    static final int MAGIC = 0x50524c53;
+
+    /**
+     * The size of the trailer.
+     */
+    private static final int TRAILER_SIZE = 32;
+
+    /**
+     * The id of the segment.
+     */
+    private final int id;
+
+    /**
+     * The contents of the segment.
+     */
+    private final MappedByteBuffer buffer;
+
+    private final int articlesOffset;
+    private final int termsOffset;
+    private final int articles;
+    private final int terms;
+
+    /**
+     * The constructor of a segment, maps its file.
+     *
+     * @param id the id of the segment.
+     * @param path the file of the segment.
+     */
+    public IndexSegment(int id, Path path) throws IOException {
+        this.id = id;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final int trailer = this.buffer.capacity() - TRAILER_SIZE;
+        if (trailer < 0 || this.buffer.getInt(trailer + 28) != MAGIC || this.buffer.getInt(trailer + 24) != AuthorIndex.FORMAT) {
+            throw new IOException("Unknown format of " + path);
+        }
+        this.articlesOffset = (int) this.buffer.getLong(trailer);
+        this.termsOffset = (int) this.buffer.getLong(trailer + 8);
+        this.articles = this.buffer.getInt(trailer + 16);
+        this.terms = this.buffer.getInt(trailer + 20);
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public int getArticles() {
+        return this.articles;
+    }
+
+    public int getTerms() {
+        return this.terms;
+    }
+
+    /**
+     * Returns the first term whose key isn't lower than a key.
+     *
+     * @param key the key.
+     * @return the term, or the amount of terms if every key is lower.
+     */
+    public int find(String key) {
+        int low = 0;
+        int high = this.terms;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (this.term(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the key of a term.
+     *
+     * @param term the term.
+     */
+    public String term(int term) {
+        return this.string((int) this.buffer.getLong(this.termsOffset + term * 16));
+    }
+
+    /**
+     * Returns the ids of the articles of a term, in ascending order.
+     *
+     * @param term the term.
+     */
+    public int[] postings(int term) {
+        final int offset = (int) this.buffer.getLong(this.termsOffset + term * 16 + 8);
+        final int[] ids = new int[this.buffer.getInt(offset)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = this.buffer.getInt(offset + 4 + i * 4);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns an article.
+     *
+     * @param id the id of the article.
+     */
+    public IndexedArticle article(int id) {
+        int offset = (int) this.buffer.getLong(this.articlesOffset + id * 8);
+        final int year = this.buffer.getInt(offset);
+        final String title = this.string(offset + 4);
+        offset += 8 + this.buffer.getInt(offset + 4);
+        final String source = this.string(offset);
+        offset += 4 + this.buffer.getInt(offset);
+        final List<String> authors = new ArrayList<>();
+        final int count = this.buffer.getInt(offset);
+        offset += 4;
+        for (int i = 0; i < count; i++) {
+            authors.add(this.string(offset));
+            offset += 4 + this.buffer.getInt(offset);
+        }
+        return new IndexedArticle(source, title, year, authors);
+    }
+
+    /**
+     * Reads a string, its length in bytes followed by its bytes in UTF-8.
+     *
+     * @param offset the offset of the string.
+     */
+    private String string(int offset) {
+        final byte[] bytes = new byte[this.buffer.getInt(offset)];
+        final java.nio.ByteBuffer view = this.buffer.duplicate();
+        view.position(offset + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string, its length in bytes followed by its bytes in UTF-8.
+     *
+     * @param out the stream the string is written to.
+     * @param string the string.
+     */
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
+
+/**
+ * An article of an AuthorIndex.
+ */
+class IndexedArticle {
+
+    private final String source;
+    private final String title;
+    private final int year;
+    private final List<String> authors;
+
+    /**
+     * The constructor of an article.
+     *
+     * @param source the absolute path of its file.
+     * @param title its full title.
+     * @param year its publication year.
+     * @param authors the surnames of its authors.
+     */
+    public IndexedArticle(String source, String title, int year, List<String> authors) {
+        this.source = source;
+        this.title = title;
+        this.year = year;
+        this.authors = authors;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public int getYear() {
+        return this.year;
+    }
+
+    public List<String> getAuthors() {
+        return this.authors;
+    }
+
+    /**
+     * Returns a summary of the article, as the one of the reports followed by its file.
+     *
+     * @return a summary of the article.
+     */
+    @Override
+    public String toString() {
+        return "\"" + this.title + "\" escrito por " + String.join(", ", this.authors) +
+            ". Se publicó en el " + this.year + ". (" + this.source + ")";
+    }
+}
@@ -0,0 +1,188 @@
+/* BatchParser imports */
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.xml.sax.XMLReader;
+
+/**
+ * Parses many XML files in JATS format concurrently,
+ * each worker reusing its own parser.
+ * The results of every file are merged into a single report,
+ * identical to the one of parsing the files one after another.
+ */
+public class BatchParser {
+
+    /**
+     * The parser used to create the readers and parse the files.
+     */
+    private final XMLParser parser;
+
+    /**
+     * Whether XML validation and DTD grammar are enabled.
+     */
+    private final Boolean validation;
+
+    /**
+     * The amount of workers.
+     */
+    private final int threads;
+
+    /**
+     * Whether the articles are output as soon as they are merged.
+     */
+    private final Boolean streaming;
+
+    /**
+     * The constructor of a batch parser.
+     *
+     * @param parser the parser of the files, its engine and fields.
+     * @param validation enable XML validation and DTD grammar.
+     * @param threads the amount of files to be parsed at the same time.
+     * @param streaming output the articles as soon as they are merged instead of keeping them all.
+     */
+    public BatchParser(XMLParser parser, Boolean validation, int threads, Boolean streaming) {
+        this.parser = parser;
+        this.validation = validation;
+        this.threads = threads;
+        this.streaming = streaming;
+    }
+
+    /**
+     * Parse every file of the given sources and output the merged results.
+     * Files that can't be parsed are reported and skipped.
+     *
+     * @param sources the files, directories, globs or lists of sources (@LIST) to be parsed.
+     */
+    public void parse(List<String> sources) {
+        final List<Path> files = expand(sources);
+        final JATSReport report = this.parser.createReport(this.streaming);
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        final ThreadLocal<XMLReader> readers = ThreadLocal.withInitial(() -> this.parser.createReader(this.validation));
+
+        /* Keep a bounded window of pending files, merging them in order */
+        final Deque<Future<JATSReport>> pending = new ArrayDeque<>();
+        final Deque<Path> pendingFiles = new ArrayDeque<>();
+        try {
+            for (Path file : files) {
+                if (pending.size() == this.threads * 4) {
+                    merge(report, pending.poll(), pendingFiles.poll());
+                }
+                pending.add(pool.submit(() -> this.parser.parse(readers.get(), file.toString(), new JATSReport())));
+                pendingFiles.add(file);
+            }
+            while (!pending.isEmpty()) {
+                merge(report, pending.poll(), pendingFiles.poll());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report.print();
+    }
+
+    /**
+     * Waits for the results of a file and merges them.
+     *
+     * @param report the report the results will be merged into.
+     * @param result the pending results of the file.
+     * @param file the file being parsed.
+     */
+    private static void merge(JATSReport report, Future<JATSReport> result, Path file) {
+        try {
+            report.merge(result.get());
+        } catch (ExecutionException ex) {
+            System.err.println("Skipping " + file + ": " + ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + file, ex);
+        }
+    }
+
+    /**
+     * Returns every file of the given sources, in the order they would be parsed sequentially.
+     * Directories are walked recursively looking for XML files, compressed or not, and both directories
+     * and globs are sorted by path.
+     *
+     * @param sources the files, directories, globs or lists of sources (@LIST).
+     * @return the files of the sources.
+     */
+    public static List<Path> expand(List<String> sources) {
+        final List<Path> files = new ArrayList<>();
+        try {
+            for (String source : sources) {
+                if (source.startsWith("@")) {
+                    final List<String> listed = Files.readAllLines(Paths.get(source.substring(1))).stream()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .collect(Collectors.toList());
+                    files.addAll(expand(listed));
+                } else if (isGlob(source)) {
+                    files.addAll(glob(source));
+                } else if (Files.isDirectory(Paths.get(source))) {
+                    try (Stream<Path> walk = Files.walk(Paths.get(source))) {
+                        walk.filter(Files::isRegularFile)
+                            .filter(DocumentInput::isSupported)
+                            .sorted()
+                            .forEach(files::add);
+                    }
+                } else {
+                    files.add(Paths.get(source));
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Error accessing the sources: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the sources", ex);
+        }
+        return files;
+    }
+
+    /**
+     * Returns every file matching a glob, e.g. corpus/2010-*.xml
+     *
+     * @param glob the glob, relative to the working directory unless it's absolute.
+     * @return the sorted files matching the glob.
+     */
+    private static List<Path> glob(String glob) throws IOException {
+        /* Walk from the deepest directory without wildcards */
+        final Path pattern = Paths.get(glob).normalize();
+        Path base = pattern.isAbsolute() ? pattern.getRoot() : Paths.get("");
+        for (Path element : pattern) {
+            if (isGlob(element.toString())) {
+                break;
+            }
+            base = base.resolve(element);
+        }
+        if (!Files.isDirectory(base)) {
+            return new ArrayList<>();
+        }
+        final PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + pattern);
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(Files::isRegularFile)
+                .filter(path -> matcher.matches(path.normalize()))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns whether a source contains glob wildcards.
+     *
+     * @param source the source.
+     * @return whether the source contains glob wildcards.
+     */
+    static Boolean isGlob(String source) {
+        return source.indexOf('*') >= 0 || source.indexOf('?') >= 0
+            || source.indexOf('[') >= 0 || source.indexOf('{') >= 0;
+    }
+}
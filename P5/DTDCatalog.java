@@ -0,0 +1,164 @@
+/* DTDCatalog imports */
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.EntityResolver2;
+
+/**
+ * The local catalog of the DTDs, so validation never fetches them from the network.
+ * It's a directory with the DTDs and their modules, and optionally a catalog file mapping
+ * public or system identifiers to files of the directory, one ID = FILE per line.
+ * An entity is resolved by its identifiers in the catalog file, then as a local file,
+ * then by the name of its file in the directory, otherwise it's an error.
+ * Each file is read once and kept in memory, the catalog being shared by every parser of the process.
+ */
+class DTDCatalog implements EntityResolver2 {
+
+    /**
+     * The directory of the catalog if none is given, where the documents expect the JATS DTD.
+     */
+    static final String DEFAULT_DIRECTORY = "assets/validation";
+
+    /**
+     * The name of the catalog file in the directory.
+     */
+    private static final String CATALOG_FILE = "catalog";
+
+    /**
+     * The directory of the catalog.
+     */
+    private final Path directory;
+
+    /**
+     * The files of the public and system identifiers of the catalog file.
+     */
+    private final Map<String, Path> entries = new HashMap<>();
+
+    /**
+     * The contents of the files read.
+     */
+    private final Map<Path, byte[]> contents = new ConcurrentHashMap<>();
+
+    /**
+     * The constructor of a catalog.
+     *
+     * @param directory the directory of the catalog, it may not exist.
+     * @throws IllegalArgumentException if a line of the catalog file isn't ID = FILE.
+     */
+    public DTDCatalog(String directory) throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        final Path catalog = this.directory.resolve(CATALOG_FILE);
+        if (!Files.isRegularFile(catalog)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(catalog, StandardCharsets.UTF_8)) {
+            String line;
+            for (int number = 1; (line = reader.readLine()) != null; number++) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final int equals = line.lastIndexOf('=');
+                final String id = equals < 0 ? "" : line.substring(0, equals).trim();
+                final String file = equals < 0 ? "" : line.substring(equals + 1).trim();
+                if (id.isEmpty() || file.isEmpty()) {
+                    throw new IllegalArgumentException("line " + number + " of " + catalog + " isn't ID = FILE");
+                }
+                this.entries.put(id, this.directory.resolve(file).normalize());
+            }
+        }
+    }
+
+    /**
+     * Returns the directory of the catalog.
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * No external subset is provided for documents without DOCTYPE.
+     */
+    public InputSource getExternalSubset(String name, String baseURI) {
+        return null;
+    }
+
+    /**
+     * Resolves an entity without base URI, relative to the working directory.
+     */
+    public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+        return this.resolveEntity(null, publicId, null, systemId);
+    }
+
+    /**
+     * Resolves an entity to a file of the catalog, or a local file.
+     *
+     * @param name the name of the entity, [dtd] for the external subset.
+     * @param publicId the public identifier, or null if none.
+     * @param baseURI the URI the system identifier is relative to, or null for the working directory.
+     * @param systemId the system identifier, or null if none.
+     * @return the contents of the file.
+     * @throws SAXException if the entity isn't in the catalog nor a local file.
+     */
+    public InputSource resolveEntity(String name, String publicId, String baseURI, String systemId)
+        throws SAXException, IOException {
+        Path file = publicId == null ? null : this.entries.get(publicId);
+        if (file == null && systemId != null) {
+            file = this.entries.get(systemId);
+        }
+        if (file == null && systemId != null) {
+            file = this.local(baseURI, systemId);
+        }
+        if (file == null && systemId != null) {
+            final Path named = this.directory.resolve(systemId.substring(systemId.lastIndexOf('/') + 1));
+            file = Files.isRegularFile(named) ? named : null;
+        }
+        if (file == null) {
+            throw new SAXException("The entity " + (systemId != null ? systemId : publicId) +
+                " isn't in the catalog " + this.directory + ", it won't be fetched");
+        }
+
+        byte[] bytes = this.contents.get(file);
+        if (bytes == null) {
+            bytes = Files.readAllBytes(file);
+            this.contents.putIfAbsent(file, bytes);
+        }
+        final InputSource source = new InputSource(file.toUri().toString());
+        source.setPublicId(publicId);
+        source.setByteStream(new ByteArrayInputStream(bytes));
+        return source;
+    }
+
+    /**
+     * Returns the local file of a system identifier.
+     *
+     * @param baseURI the URI the system identifier is relative to, or null for the working directory.
+     * @param systemId the system identifier.
+     * @return the file, or null if it isn't a local file or it doesn't exist.
+     */
+    private Path local(String baseURI, String systemId) {
+        try {
+            final URI base = baseURI != null ? new URI(baseURI) : Paths.get("").toAbsolutePath().toUri();
+            final URI uri = base.resolve(new URI(systemId));
+            if (!"file".equals(uri.getScheme())) {
+                return null;
+            }
+            final Path file = Paths.get(uri).normalize();
+            return Files.isRegularFile(file) ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            /* Not a valid URI, nor then a local file */
+            return null;
+        }
+    }
+}
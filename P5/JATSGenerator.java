@@ -0,0 +1,351 @@
+/* JATSGenerator imports */
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates articles documents in JATS format of any size, e.g. for load tests.
+ * The documents are deterministic, the same options and seed always generate the same document,
+ * and they are written as they are generated, so their size doesn't affect the memory used.
+ */
+public class JATSGenerator {
+
+    /**
+     * The size of the buffer of the output.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The words of the titles, abstracts and sections.
+     */
+    private static final String[] WORDS = {
+        "classifier", "ensemble", "rotation", "forest", "feature", "extraction", "training", "data", "base",
+        "subset", "principal", "component", "analysis", "variability", "accuracy", "diversity", "decision",
+        "tree", "boosting", "bagging", "kernel", "margin", "regression", "model", "method", "algorithm",
+        "sample", "error", "landscape", "benchmark", "repository", "learning", "instance", "selection",
+        "network", "neural", "graph", "cluster", "distance", "metric", "sparse", "dense", "matrix", "vector",
+        "the", "of", "and", "a", "to", "in", "is", "for", "with", "on", "by", "we", "are", "as", "from"
+    };
+
+    /**
+     * The surnames of the authors.
+     */
+    private static final String[] SURNAMES = {
+        "Rodríguez", "Kuncheva", "Alonso", "García", "Díez-Pastor", "Pardo", "Maudes", "Santos", "Smith",
+        "Müller", "Nguyen", "Kowalski", "O'Brien", "Núñez", "Björk", "Zhang", "Ito", "Silva", "Dubois"
+    };
+
+    /**
+     * The amount of articles.
+     */
+    private final int articles;
+
+    /**
+     * The average amount of words of an abstract.
+     */
+    private final int abstractWords;
+
+    /**
+     * The average amount of sections of an article.
+     */
+    private final int sections;
+
+    /**
+     * The probability of a comment before each element.
+     */
+    private final double comments;
+
+    /**
+     * The probability of each text being written as a CDATA section.
+     */
+    private final double cdata;
+
+    /**
+     * The amount of namespaces declared by each article.
+     */
+    private final int namespaces;
+
+    /**
+     * The random generator, the source of every choice.
+     */
+    private final Random random;
+
+    /**
+     * The output of the document.
+     */
+    private Writer out;
+
+    /**
+     * The constructor of a generator.
+     *
+     * @param articles the amount of articles.
+     * @param abstractWords the average amount of words of an abstract, from half to one and a half times it.
+     * @param sections the average amount of sections of an article, from half to one and a half times it.
+     * @param comments the probability of a comment before each element.
+     * @param cdata the probability of each text being written as a CDATA section.
+     * @param namespaces the amount of namespaces declared by each article.
+     * @param seed the seed of the random generator.
+     */
+    public JATSGenerator(int articles, int abstractWords, int sections, double comments, double cdata,
+                         int namespaces, long seed) {
+        this.articles = articles;
+        this.abstractWords = abstractWords;
+        this.sections = sections;
+        this.comments = comments;
+        this.cdata = cdata;
+        this.namespaces = namespaces;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the document.
+     *
+     * @param out the output of the document, it isn't closed.
+     */
+    public void generate(Writer out) throws IOException {
+        this.out = out;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<!DOCTYPE articles SYSTEM \"assets/validation/JATS.dtd\" [\n");
+        out.write("  <!ELEMENT articles (article*)>\n");
+        out.write("]>\n");
+        out.write("<articles>\n");
+        for (int i = 0; i < this.articles; i++) {
+            this.article(i);
+        }
+        out.write("</articles>\n");
+        out.flush();
+    }
+
+    /**
+     * Generates an article, with its metadata, abstract and sections.
+     *
+     * @param index the index of the article.
+     */
+    private void article(int index) throws IOException {
+        this.comment("Aquí empieza el artículo " + (index + 1));
+        this.out.write("<article");
+        for (int i = 0; i < this.namespaces; i++) {
+            this.out.write(" xmlns:ns" + i + "=\"http://example.org/" + this.words(1 + this.random.nextInt(2 * i + 1), '/') + "\"");
+        }
+        this.out.write(" article-type=\"research-article\">\n");
+        this.open("front", 1);
+        this.open("article-meta", 2);
+        this.open("title-group", 3);
+        this.element("article-title", this.words(2 + this.random.nextInt(8), ' '), 4);
+        if (this.random.nextBoolean()) {
+            this.element("subtitle", this.words(2 + this.random.nextInt(6), ' '), 4);
+        }
+        this.close("title-group", 3);
+        this.open("contrib-group", 3);
+        for (int authors = 1 + this.random.nextInt(5); authors > 0; authors--) {
+            this.open("contrib contrib-type=\"author\"", 4);
+            this.open("name name-style=\"western\"", 5);
+            this.element("surname", SURNAMES[this.random.nextInt(SURNAMES.length)], 6);
+            this.element("given-names", (char) ('A' + this.random.nextInt(26)) + ".", 6);
+            this.close("name", 5);
+            this.close("contrib", 4);
+        }
+        this.close("contrib-group", 3);
+        final int year = 1980 + this.random.nextInt(40);
+        for (int dates = 1 + this.random.nextInt(2); dates > 0; dates--) {
+            this.open("pub-date pub-type=\"" + (dates == 1 ? "ppub" : "epub") + "\"", 3);
+            this.element("month", String.format("%02d", 1 + this.random.nextInt(12)), 4);
+            this.element("year", Integer.toString(year + dates - 1), 4);
+            this.close("pub-date", 3);
+        }
+        this.open("abstract", 3);
+        this.element("p", this.words(this.around(this.abstractWords), ' '), 4);
+        this.close("abstract", 3);
+        this.close("article-meta", 2);
+        this.close("front", 1);
+        this.open("body", 1);
+        for (int sections = this.around(this.sections), i = 1; i <= sections; i++) {
+            this.open("sec id=\"s" + i + "\"", 2);
+            this.element("title", this.words(1 + this.random.nextInt(4), ' '), 3);
+            this.element("p", this.words(this.around(this.abstractWords), ' '), 3);
+            this.close("sec", 2);
+        }
+        this.close("body", 1);
+        this.out.write("</article>\n\n");
+    }
+
+    /**
+     * Writes a start tag, preceded by a comment depending on the comment probability.
+     *
+     * @param tag the name of the element, with its attributes if any.
+     * @param level the indentation level.
+     */
+    private void open(String tag, int level) throws IOException {
+        this.indent(level);
+        if (this.random.nextDouble() < this.comments) {
+            this.out.write("<!-- " + this.words(1 + this.random.nextInt(6), ' ') + " -->");
+        }
+        this.out.write("<" + tag + ">\n");
+    }
+
+    /**
+     * Writes an end tag.
+     *
+     * @param name the name of the element.
+     * @param level the indentation level.
+     */
+    private void close(String name, int level) throws IOException {
+        this.indent(level);
+        this.out.write("</" + name + ">\n");
+    }
+
+    /**
+     * Writes an element with text, as a CDATA section depending on the CDATA probability.
+     *
+     * @param name the name of the element.
+     * @param text the text, which is escaped.
+     * @param level the indentation level.
+     */
+    private void element(String name, String text, int level) throws IOException {
+        this.indent(level);
+        if (this.random.nextDouble() < this.comments) {
+            this.out.write("<!-- " + this.words(1 + this.random.nextInt(6), ' ') + " -->");
+        }
+        this.out.write("<" + name + ">");
+        if (this.random.nextDouble() < this.cdata) {
+            this.out.write("<![CDATA[" + text + "]]>");
+        } else {
+            this.out.write(text.replace("&", "&amp;").replace("<", "&lt;"));
+        }
+        this.out.write("</" + name + ">\n");
+    }
+
+    /**
+     * Writes a comment on its own line, depending on the comment probability.
+     *
+     * @param text the text of the comment.
+     */
+    private void comment(String text) throws IOException {
+        if (this.random.nextDouble() < this.comments) {
+            this.out.write("<!-- " + text + " -->\n");
+        }
+    }
+
+    /**
+     * Writes the indentation of a level.
+     *
+     * @param level the indentation level.
+     */
+    private void indent(int level) throws IOException {
+        for (int i = 0; i < level; i++) {
+            this.out.write("  ");
+        }
+    }
+
+    /**
+     * Returns random words.
+     *
+     * @param count the amount of words.
+     * @param separator the separator of the words.
+     * @return the words.
+     */
+    private String words(int count, char separator) {
+        final StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(separator);
+            }
+            words.append(WORDS[this.random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+
+    /**
+     * Returns a random amount around an average, from half to one and a half times it.
+     *
+     * @param average the average.
+     * @return the amount.
+     */
+    private int around(int average) {
+        return average / 2 + this.random.nextInt(average + 1);
+    }
+
+    /**
+     * Opens the output of a document, a file or the standard output.
+     * Files ending in .gz are compressed with gzip.
+     *
+     * @param uri the URI of the file, or - for the standard output.
+     * @return the output.
+     */
+    static Writer output(String uri) throws IOException {
+        OutputStream stream = uri.equals("-") ? System.out : new FileOutputStream(uri);
+        if (uri.endsWith(".gz")) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Generates a document.
+     *
+     * @param args the options of the document, followed by the URI of the output file,
+     *             the standard output if there's none or it's -.
+     */
+    public static void main(String[] args) {
+        String uri = null;
+        int articles = 1000;
+        int abstractWords = 200;
+        int sections = 4;
+        double comments = 0.05;
+        double cdata = 0.05;
+        int namespaces = 2;
+        long seed = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--articles":
+                        articles = Integer.parseInt(args[++i]);
+                        break;
+                    case "--abstract-words":
+                        abstractWords = Integer.parseInt(args[++i]);
+                        break;
+                    case "--sections":
+                        sections = Integer.parseInt(args[++i]);
+                        break;
+                    case "--comments":
+                        comments = Double.parseDouble(args[++i]);
+                        break;
+                    case "--cdata":
+                        cdata = Double.parseDouble(args[++i]);
+                        break;
+                    case "--namespaces":
+                        namespaces = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        if (uri != null) {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                        uri = args[i];
+                }
+            }
+            if (articles < 0 || abstractWords < 0 || sections < 0 || namespaces < 0) {
+                throw new IllegalArgumentException("negative amount");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println("Invalid arguments, usage: java JATSGenerator ([--articles N]) ([--abstract-words N]) " +
+                "([--sections N]) ([--comments PROBABILITY]) ([--cdata PROBABILITY]) ([--namespaces N]) ([--seed N]) " +
+                "([OUTPUT URI])");
+            System.exit(0);
+        }
+        try (Writer out = output(uri == null ? "-" : uri)) {
+            new JATSGenerator(articles, abstractWords, sections, comments, cdata, namespaces, seed).generate(out);
+        } catch (IOException ex) {
+            System.err.println("Error writing the file: " + ex.getMessage());
+            throw new RuntimeException("Error writing the file", ex);
+        }
+    }
+}
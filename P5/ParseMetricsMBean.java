@@ -0,0 +1,66 @@
+/**
+ * The metrics of the parsing, as exposed through JMX.
+ * Times are in milliseconds, summed over every thread.
+ */
+public interface ParseMetricsMBean {
+
+    /**
+     * Returns the amount of documents parsed, each chunk of a split file counting as one.
+     */
+    long getDocuments();
+
+    /**
+     * Returns the amount of bytes given to the parser, after decompression.
+     */
+    long getBytesRead();
+
+    /**
+     * Returns the amount of elements parsed.
+     */
+    long getElements();
+
+    /**
+     * Returns the amount of articles found.
+     */
+    long getArticles();
+
+    /**
+     * Returns the average amount of megabytes parsed per second since the metrics were enabled.
+     */
+    double getMegabytesPerSecond();
+
+    /**
+     * Returns the average amount of elements parsed per second since the metrics were enabled.
+     */
+    double getElementsPerSecond();
+
+    /**
+     * Returns the time spent reading and decompressing the files.
+     */
+    long getReadTime();
+
+    /**
+     * Returns the time spent by the parser, Xerces or StAX, parsing time which isn't reading nor handling events.
+     */
+    long getParserTime();
+
+    /**
+     * Returns the time spent by the handler, on its SAX events.
+     */
+    long getHandlerTime();
+
+    /**
+     * Returns the time spent outputting the reports.
+     */
+    long getReportTime();
+
+    /**
+     * Returns the amount of strings looked up in the symbol tables of the handlers.
+     */
+    long getSymbolLookups();
+
+    /**
+     * Returns the percentage of the strings looked up that were already in the symbol tables, so no new string was kept.
+     */
+    double getSymbolHitRate();
+}
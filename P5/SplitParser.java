@@ -0,0 +1,964 @@
+/* SplitParser imports */
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+/* CheckpointLog imports */
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+/* ArticleSplitter imports */
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Parses a single huge XML file in JATS format using several cores.
+ * The file is split at article boundaries into chunks, each one being parsed
+ * as a document of its own with the prolog and the root element of the file.
+ * The results of every chunk are merged into a single report,
+ * identical to the one of parsing the whole file at once.
+ * Compressed files are parsed as a whole.
+ * <p>
+ * The parse may be checkpointed, periodically logging the boundary of the chunks merged so far along with
+ * the articles merged since the previous checkpoint, see CheckpointLog,
+ * so a parse that was stopped resumes from there instead of the start of the file.
+ */
+public class SplitParser {
+
+    /**
+     * The minimum size of a chunk, in bytes.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The maximum size of a chunk when checkpointing, so the chunks merged are saved often enough.
+     */
+    private static final long MAX_CHECKPOINT_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * The parser used to create the readers and parse the chunks.
+     */
+    private final XMLParser parser;
+
+    /**
+     * Whether XML validation and DTD grammar are enabled.
+     */
+    private final Boolean validation;
+
+    /**
+     * The amount of workers.
+     */
+    private final int threads;
+
+    /**
+     * Whether the articles are output as soon as they are merged.
+     */
+    private final Boolean streaming;
+
+    /**
+     * The file of the checkpoints, null if the parse isn't checkpointed.
+     */
+    private final Path checkpoint;
+
+    /**
+     * The minimum time between two checkpoints, in milliseconds.
+     */
+    private final long interval;
+
+    /**
+     * The constructor of a split parser.
+     *
+     * @param parser the parser of the files, its engine and fields.
+     * @param validation enable XML validation and DTD grammar.
+     * @param threads the amount of chunks to be parsed at the same time.
+     * @param streaming output the articles as soon as they are merged instead of keeping them all.
+     */
+    public SplitParser(XMLParser parser, Boolean validation, int threads, Boolean streaming) {
+        this(parser, validation, threads, streaming, null, 0);
+    }
+
+    /**
+     * The constructor of a checkpointed split parser.
+     * If the file of the checkpoints has a checkpoint of the same file, unchanged, the parse resumes from it,
+     * and it's deleted once the parse ends. A streaming parse can't be checkpointed, as the articles
+     * merged after the last checkpoint would have been output by the parse that was stopped.
+     *
+     * @param parser the parser of the files, its engine and fields.
+     * @param validation enable XML validation and DTD grammar.
+     * @param threads the amount of chunks to be parsed at the same time.
+     * @param streaming output the articles as soon as they are merged instead of keeping them all.
+     * @param checkpoint the file of the checkpoints, or null to not checkpoint the parse.
+     * @param interval the minimum time between two checkpoints, in seconds.
+     * @throws IllegalArgumentException if the parse is both streaming and checkpointed.
+     */
+    public SplitParser(XMLParser parser, Boolean validation, int threads, Boolean streaming, String checkpoint, int interval) {
+        if (streaming && checkpoint != null) {
+            throw new IllegalArgumentException("A streaming parse can't be checkpointed");
+        }
+        this.parser = parser;
+        this.validation = validation;
+        this.threads = threads;
+        this.streaming = streaming;
+        this.checkpoint = checkpoint == null ? null : Paths.get(checkpoint);
+        this.interval = interval * 1000L;
+    }
+
+    /**
+     * Parse a given file and output the results.
+     *
+     * @param uri the URI of the file to be parsed.
+     */
+    public void parse(String uri) {
+        final Path file = Paths.get(uri);
+        final JATSReport report = this.parser.createReport(this.streaming);
+
+        /* Compressed files can't be split at byte positions */
+        try {
+            if (DocumentInput.isCompressed(file)) {
+                this.parser.parse(this.parser.createReader(this.validation), uri, report).print();
+                return;
+            }
+        } catch (IOException ex) {
+            System.err.println("Error accessing the file: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the file", ex);
+        }
+
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        final ThreadLocal<XMLReader> readers = ThreadLocal.withInitial(() -> this.parser.createReader(this.validation));
+        final Deque<Future<JATSReport>> pending = new ArrayDeque<>();
+        final Deque<Long> pendingEnds = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             CheckpointLog log = this.checkpoint == null ? null : CheckpointLog.open(this.checkpoint, file, report)) {
+            final long size = channel.size();
+            long chunkSize = Math.max(size / (this.threads * 4), MIN_CHUNK_SIZE);
+            if (this.checkpoint != null) {
+                chunkSize = Math.min(chunkSize, MAX_CHECKPOINT_CHUNK_SIZE);
+            }
+            final ArticleSplitter splitter = new ArticleSplitter(channel, chunkSize);
+
+            /* Resume from the last checkpoint, if any */
+            long start = log == null ? 0 : log.getBoundary();
+            if (start > 0) {
+                splitter.seek(start);
+            }
+
+            /* Chunks are submitted as soon as their end is found, and merged in order */
+            long saved = System.currentTimeMillis();
+            long end;
+            while ((end = splitter.nextBoundary()) >= 0) {
+                final InputSource chunk = this.chunk(channel, splitter, start, end);
+                pending.add(pool.submit(() -> this.parser.parse(readers.get(), chunk, new JATSReport())));
+                pendingEnds.add(end);
+                start = end;
+                if (pending.size() == this.threads * 4) {
+                    saved = this.mergeNext(file, report, log, pending, pendingEnds, saved);
+                }
+            }
+            final InputSource last = this.chunk(channel, splitter, start, size);
+            pending.add(pool.submit(() -> this.parser.parse(readers.get(), last, new JATSReport())));
+            pendingEnds.add(size);
+            while (!pending.isEmpty()) {
+                saved = this.mergeNext(file, report, log, pending, pendingEnds, saved);
+            }
+        } catch (IOException ex) {
+            System.err.println("Error accessing the file: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the file", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+        report.print();
+
+        /* The parse is complete, it won't be resumed */
+        if (this.checkpoint != null) {
+            try {
+                Files.deleteIfExists(this.checkpoint);
+            } catch (IOException ex) {
+                System.err.println("Error deleting the checkpoint: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Merges the next chunk, saving a checkpoint if it's time to.
+     *
+     * @param file the file being parsed.
+     * @param report the report the results will be merged into.
+     * @param log the log of the checkpoints, null if the parse isn't checkpointed.
+     * @param pending the pending results of the chunks.
+     * @param pendingEnds the ends of the chunks.
+     * @param saved when the last checkpoint was saved, or the parse started.
+     * @return when the last checkpoint was saved.
+     */
+    private long mergeNext(Path file, JATSReport report, CheckpointLog log, Deque<Future<JATSReport>> pending,
+                           Deque<Long> pendingEnds, long saved) throws IOException {
+        merge(report, pending.poll());
+        final long end = pendingEnds.poll();
+        if (log == null || end == Files.size(file) || System.currentTimeMillis() - saved < this.interval) {
+            return saved;
+        }
+        log.append(end, report);
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the input of a chunk, a document made of the region of the file,
+     * preceded by the prolog and root start tag unless it's the first chunk,
+     * and followed by the root end tag unless it's the last chunk.
+     *
+     * @param channel the file.
+     * @param splitter the splitter of the file.
+     * @param start the position of the first byte of the chunk.
+     * @param end the position after the last byte of the chunk.
+     * @return the input of the chunk, its stream metered, see MeteredInputStream.
+     */
+    private InputSource chunk(FileChannel channel, ArticleSplitter splitter, long start, long end) throws IOException {
+        final List<InputStream> parts = new ArrayList<>();
+        if (start > 0) {
+            parts.add(new ByteArrayInputStream(splitter.getHeader()));
+        }
+        parts.add(new BufferedInputStream(new RegionInputStream(channel, start, end), 1 << 16));
+        if (end < channel.size()) {
+            parts.add(new ByteArrayInputStream(splitter.getEndTag()));
+        }
+        return new InputSource(new MeteredInputStream(new SequenceInputStream(Collections.enumeration(parts)), ParseMetrics.get()));
+    }
+
+    /**
+     * Waits for the results of a chunk and merges them.
+     *
+     * @param report the report the results will be merged into.
+     * @param result the pending results of the chunk.
+     */
+    private static void merge(JATSReport report, Future<JATSReport> result) {
+        try {
+            report.merge(result.get());
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Parsing error", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a chunk", ex);
+        }
+    }
+}
+
+/**
+ * The log of the checkpoints of a split parse, appended to so each checkpoint only writes what was merged
+ * since the previous one, instead of every article kept so far.
+ * The log is a header with the file parsed and the options of the report, followed by a record per checkpoint
+ * with the boundary of the chunks merged, the aggregates of the report and the articles added since
+ * the previous record, each one checked by a CRC-32, so a record that was being written when the parse
+ * was stopped is discarded. The log is compacted into a single record when the parse resumes.
+ */
+class CheckpointLog implements Closeable {
+
+    /**
+     * The magic number of the logs.
+     */
+    private static final int MAGIC = 0x5052434b;
+
+    /**
+     * The version of the format of the logs.
+     */
+    private static final int FORMAT = 2;
+
+    /**
+     * The log, open for appending.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The boundary the parse resumes from, 0 if it starts from the beginning of the file.
+     */
+    private final long boundary;
+
+    /**
+     * The amount of articles of the report already in the log.
+     */
+    private int logged;
+
+    /**
+     * The constructor of a log, opens it for appending.
+     *
+     * @param path the file of the log.
+     * @param boundary the boundary the parse resumes from.
+     * @param logged the amount of articles of the report already in the log.
+     */
+    private CheckpointLog(Path path, long boundary, int logged) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.boundary = boundary;
+        this.logged = logged;
+    }
+
+    /**
+     * Opens the log of the checkpoints of a file, restoring the state of the report from its records
+     * if there are any, and compacting them into one, otherwise the log is created.
+     * A log of another file, of a file that has changed since, or of a report created with other options
+     * is an error, so it's never overwritten by mistake.
+     *
+     * @param path the file of the log.
+     * @param file the file being parsed.
+     * @param report the empty report the state is restored into.
+     * @return the log, see getBoundary.
+     */
+    public static CheckpointLog open(Path path, Path file, JATSReport report) throws IOException {
+        long boundary = 0;
+        if (Files.isRegularFile(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                    throw new IOException("Invalid checkpoint " + path + ", unknown format");
+                }
+                if (!in.readUTF().equals(file.toAbsolutePath().normalize().toString()) || in.readLong() != Files.size(file)
+                        || in.readLong() != Files.getLastModifiedTime(file).toMillis()) {
+                    throw new IOException("Invalid checkpoint " + path + ", it's of another file or the file has changed");
+                }
+                report.checkOptions(in);
+                for (byte[] record = readRecord(in); record != null; record = readRecord(in)) {
+                    final DataInputStream state = new DataInputStream(new ByteArrayInputStream(record));
+                    boundary = state.readLong();
+                    report.readState(state);
+                }
+            }
+            if (boundary > 0) {
+                System.err.println("Resuming from byte " + boundary + " of " + file);
+            }
+        }
+
+        /* A new log, or the records of the previous one compacted into a single record */
+        final Path directory = path.toAbsolutePath().getParent();
+        final Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeUTF(file.toAbsolutePath().normalize().toString());
+            out.writeLong(Files.size(file));
+            out.writeLong(Files.getLastModifiedTime(file).toMillis());
+            report.writeOptions(out);
+            if (boundary > 0) {
+                out.write(record(boundary, report, 0));
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new CheckpointLog(path, boundary, articles(report));
+    }
+
+    /**
+     * Returns the boundary the parse resumes from.
+     *
+     * @return the boundary of the chunks merged into the report restored, 0 if the log is new.
+     */
+    public long getBoundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Appends a checkpoint, with the articles added to the report since the previous one.
+     *
+     * @param boundary the boundary of the chunks merged into the report.
+     * @param report the report of the chunks before the boundary.
+     */
+    public void append(long boundary, JATSReport report) throws IOException {
+        final ByteBuffer record = ByteBuffer.wrap(record(boundary, report, this.logged));
+        while (record.hasRemaining()) {
+            this.channel.write(record);
+        }
+        this.channel.force(false);
+        this.logged = articles(report);
+    }
+
+    /**
+     * Closes the log, which is kept until it's deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Returns a record of the log: its length, the boundary and the state of the report, and its CRC-32.
+     *
+     * @param boundary the boundary of the chunks merged into the report.
+     * @param report the report of the chunks before the boundary.
+     * @param from the index of the first article of the record.
+     * @return the bytes of the record.
+     */
+    private static byte[] record(long boundary, JATSReport report, int from) throws IOException {
+        final ByteArrayOutputStream state = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(state)) {
+            out.writeLong(boundary);
+            report.writeState(out, from);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(state.toByteArray());
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(state.size() + 12);
+        try (DataOutputStream out = new DataOutputStream(record)) {
+            out.writeInt(state.size());
+            state.writeTo(out);
+            out.writeLong(crc.getValue());
+        }
+        return record.toByteArray();
+    }
+
+    /**
+     * Reads the next record of the log.
+     *
+     * @param in the log, after the previous record.
+     * @return the boundary and the state of the record, or null if the log ends or the record is incomplete.
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            final int length = in.readInt();
+            if (length < Long.BYTES || length > in.available()) {
+                return null;
+            }
+            final byte[] state = new byte[length];
+            in.readFully(state);
+            final CRC32 crc = new CRC32();
+            crc.update(state);
+            return in.readLong() == crc.getValue() ? state : null;
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the amount of articles kept by a report.
+     *
+     * @param report the report.
+     * @return the amount of articles, 0 if it doesn't keep them.
+     */
+    private static int articles(JATSReport report) {
+        return report.getArticles() == null ? 0 : report.getArticles().size();
+    }
+}
+
+/**
+ * Finds the article boundaries of an XML file in JATS format at the byte level,
+ * skipping comments, CDATA sections and processing instructions.
+ * Only encodings where markup is ASCII, such as UTF-8 or ISO-8859-1, can be split,
+ * otherwise the whole file is a single chunk.
+ */
+class ArticleSplitter {
+
+    /* The markup that may contain a false article start tag */
+    private static final byte[] COMMENT_START = ascii("<!--");
+    private static final byte[] COMMENT_END = ascii("-->");
+    private static final byte[] CDATA_START = ascii("<![CDATA[");
+    private static final byte[] CDATA_END = ascii("]]>");
+    private static final byte[] PI_START = ascii("<?");
+    private static final byte[] PI_END = ascii("?>");
+    private static final byte[] DOCTYPE_START = ascii("<!DOCTYPE");
+
+    /**
+     * The scanner of the file.
+     */
+    private final ByteScanner scanner;
+
+    /**
+     * The minimum distance between two boundaries.
+     */
+    private final long chunkSize;
+
+    /**
+     * The prolog without comments followed by the root start tag.
+     */
+    private byte[] header;
+
+    /**
+     * The root end tag.
+     */
+    private byte[] endTag;
+
+    /**
+     * The start tag of the articles, without the closing bracket.
+     */
+    private byte[] articleTag;
+
+    /**
+     * Whether there may be more boundaries.
+     */
+    private Boolean splittable = false;
+
+    /**
+     * The last boundary found.
+     */
+    private long lastBoundary = 0;
+
+    /**
+     * The constructor of a splitter, reads the prolog and the root start tag.
+     *
+     * @param channel the file to be split.
+     * @param chunkSize the minimum distance between two boundaries.
+     */
+    public ArticleSplitter(FileChannel channel, long chunkSize) throws IOException {
+        this.scanner = new ByteScanner(channel);
+        this.chunkSize = chunkSize;
+
+        /* UTF-16 and UTF-32 documents aren't split */
+        final int first = this.scanner.peek(0);
+        if (first != '<' && first != 0xEF && first != ' ' && first != '\t' && first != '\r' && first != '\n') {
+            return;
+        }
+        if (first == 0xEF) {
+            this.scanner.skip(3);
+        }
+
+        /* Skip the prolog, keeping the position of its comments so they are counted only once */
+        final List<long[]> comments = new ArrayList<>();
+        while (true) {
+            this.scanner.skipWhitespace();
+            if (this.scanner.startsWith(COMMENT_START)) {
+                final long commentStart = this.scanner.position();
+                this.scanner.skipPast(COMMENT_END);
+                comments.add(new long[] {commentStart, this.scanner.position()});
+            } else if (this.scanner.startsWith(PI_START)) {
+                this.scanner.skipPast(PI_END);
+            } else if (this.scanner.startsWith(DOCTYPE_START)) {
+                this.skipDoctype();
+            } else if (this.scanner.peek(0) == '<') {
+                break;
+            } else {
+                return;
+            }
+        }
+
+        /* Read the root start tag */
+        this.scanner.skip(1);
+        final ByteArrayOutputStream name = new ByteArrayOutputStream();
+        for (int c = this.scanner.peek(0); c > ' ' && c != '>' && c != '/'; c = this.scanner.peek(0)) {
+            name.write(c);
+            this.scanner.skip(1);
+        }
+        if (!this.skipTag()) {
+            return;
+        }
+        final byte[] prolog = new byte[(int) this.scanner.position()];
+        channel.read(ByteBuffer.wrap(prolog), 0);
+        final ByteArrayOutputStream header = new ByteArrayOutputStream(prolog.length);
+        int copied = 0;
+        for (long[] comment : comments) {
+            header.write(prolog, copied, (int) comment[0] - copied);
+            copied = (int) comment[1];
+        }
+        header.write(prolog, copied, prolog.length - copied);
+        this.header = header.toByteArray();
+
+        /* The articles have the same prefix as the root, e.g. <x:articles> contains <x:article> */
+        final String rootName = new String(name.toByteArray(), StandardCharsets.ISO_8859_1);
+        final int colon = rootName.indexOf(':');
+        final String articleName = (colon < 0 ? "" : rootName.substring(0, colon + 1)) + "article";
+        this.endTag = ascii("</" + rootName + ">");
+        this.articleTag = ascii("<" + articleName);
+        this.splittable = !rootName.equals(articleName);
+    }
+
+    /**
+     * Returns the prolog without comments followed by the root start tag,
+     * to be placed before every chunk but the first one.
+     *
+     * @return the header of the chunks.
+     */
+    public byte[] getHeader() {
+        return this.header;
+    }
+
+    /**
+     * Returns the root end tag, to be placed after every chunk but the last one.
+     *
+     * @return the root end tag.
+     */
+    public byte[] getEndTag() {
+        return this.endTag;
+    }
+
+    /**
+     * Continues splitting the file from a boundary found by a previous splitter of the same file.
+     *
+     * @param boundary the position of the article start tag.
+     */
+    public void seek(long boundary) {
+        this.scanner.seek(boundary);
+        this.lastBoundary = boundary;
+    }
+
+    /**
+     * Finds the next article start tag at least chunkSize bytes after the last one found.
+     *
+     * @return the position of the article start tag, or -1 if there are no more boundaries.
+     */
+    public long nextBoundary() throws IOException {
+        final long target = this.lastBoundary + this.chunkSize;
+        while (this.splittable && this.scanner.skipTo('<')) {
+            if (this.scanner.startsWith(COMMENT_START)) {
+                this.scanner.skipPast(COMMENT_END);
+            } else if (this.scanner.startsWith(CDATA_START)) {
+                this.scanner.skipPast(CDATA_END);
+            } else if (this.scanner.startsWith(PI_START)) {
+                this.scanner.skipPast(PI_END);
+            } else if (this.scanner.startsWith(this.articleTag) && isDelimiter(this.scanner.peek(this.articleTag.length))) {
+                final long position = this.scanner.position();
+                this.scanner.skip(this.articleTag.length);
+                if (position >= target) {
+                    this.lastBoundary = position;
+                    return position;
+                }
+            } else if (this.scanner.peek(1) == '/' && this.scanner.startsWith(this.endTag, 0, this.endTag.length - 1)
+                    && isDelimiter(this.scanner.peek(this.endTag.length - 1))) {
+                break;
+            } else {
+                this.scanner.skip(1);
+            }
+        }
+        this.splittable = false;
+        return -1;
+    }
+
+    /**
+     * Skips a document type declaration, along with its internal subset.
+     */
+    private void skipDoctype() throws IOException {
+        this.scanner.skip(DOCTYPE_START.length);
+        for (int c = this.scanner.peek(0); c >= 0; c = this.scanner.peek(0)) {
+            this.scanner.skip(1);
+            if (c == '"' || c == '\'') {
+                this.scanner.skipTo(c);
+                this.scanner.skip(1);
+            } else if (c == '[') {
+                this.skipInternalSubset();
+            } else if (c == '>') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips the internal subset of a document type declaration, up to its closing bracket.
+     */
+    private void skipInternalSubset() throws IOException {
+        for (int c = this.scanner.peek(0); c >= 0; c = this.scanner.peek(0)) {
+            if (this.scanner.startsWith(COMMENT_START)) {
+                this.scanner.skipPast(COMMENT_END);
+            } else if (this.scanner.startsWith(PI_START)) {
+                this.scanner.skipPast(PI_END);
+            } else {
+                this.scanner.skip(1);
+                if (c == '"' || c == '\'') {
+                    this.scanner.skipTo(c);
+                    this.scanner.skip(1);
+                } else if (c == ']') {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a start tag, quoted attribute values included.
+     *
+     * @return whether the tag has content, false if it's an empty element tag or the file ended.
+     */
+    private Boolean skipTag() throws IOException {
+        int previous = 0;
+        for (int c = this.scanner.peek(0); c >= 0; c = this.scanner.peek(0)) {
+            this.scanner.skip(1);
+            if (c == '"' || c == '\'') {
+                this.scanner.skipTo(c);
+                this.scanner.skip(1);
+            } else if (c == '>') {
+                return previous != '/';
+            }
+            previous = c;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a byte ends the name of a tag.
+     *
+     * @param c the byte, -1 if the file ended.
+     * @return whether the byte ends the name of a tag.
+     */
+    private static Boolean isDelimiter(int c) {
+        return c == '>' || c == '/' || c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * Returns the bytes of a string, one per character.
+     *
+     * @param text the string.
+     * @return the bytes of the string.
+     */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
+
+/**
+ * A forward cursor over the bytes of a file, reading them in large blocks.
+ */
+class ByteScanner {
+
+    /**
+     * The file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The bytes read and not yet discarded.
+     */
+    private final byte[] buffer = new byte[1 << 20];
+
+    /**
+     * The position in the file of the first byte of the buffer.
+     */
+    private long offset = 0;
+
+    /**
+     * The position in the buffer of the cursor.
+     */
+    private int position = 0;
+
+    /**
+     * The amount of valid bytes in the buffer.
+     */
+    private int limit = 0;
+
+    /**
+     * The constructor of a scanner at the start of a file.
+     *
+     * @param channel the file.
+     */
+    public ByteScanner(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the position of the cursor in the file.
+     *
+     * @return the position of the cursor in the file.
+     */
+    public long position() {
+        return this.offset + this.position;
+    }
+
+    /**
+     * Moves the cursor to a position of the file, discarding the bytes read.
+     *
+     * @param position the new position of the cursor.
+     */
+    public void seek(long position) {
+        this.offset = position;
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Returns a byte after the cursor without moving it.
+     *
+     * @param ahead the distance from the cursor.
+     * @return the byte, or -1 if the file ends before it.
+     */
+    public int peek(int ahead) throws IOException {
+        while (this.position + ahead >= this.limit) {
+            if (!this.fill()) {
+                return -1;
+            }
+        }
+        return this.buffer[this.position + ahead] & 0xFF;
+    }
+
+    /**
+     * Returns whether the bytes after the cursor are the given ones.
+     *
+     * @param pattern the bytes.
+     * @return whether the bytes after the cursor are the given ones.
+     */
+    public Boolean startsWith(byte[] pattern) throws IOException {
+        return this.startsWith(pattern, 0, pattern.length);
+    }
+
+    /**
+     * Returns whether the bytes after the cursor are part of the given ones.
+     *
+     * @param pattern the bytes.
+     * @param from the first byte of the pattern to be compared.
+     * @param to the byte after the last one of the pattern to be compared.
+     * @return whether the bytes after the cursor are the given ones.
+     */
+    public Boolean startsWith(byte[] pattern, int from, int to) throws IOException {
+        if (this.peek(to - from - 1) < 0) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (this.buffer[this.position + i - from] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the cursor forward.
+     *
+     * @param count the amount of bytes to be skipped.
+     */
+    public void skip(int count) throws IOException {
+        this.peek(count - 1);
+        this.position = Math.min(this.position + count, this.limit);
+    }
+
+    /**
+     * Moves the cursor to the next occurrence of a byte.
+     *
+     * @param b the byte.
+     * @return whether the byte was found before the end of the file.
+     */
+    public Boolean skipTo(int b) throws IOException {
+        do {
+            for (; this.position < this.limit; this.position++) {
+                if ((this.buffer[this.position] & 0xFF) == b) {
+                    return true;
+                }
+            }
+        } while (this.fill());
+        return false;
+    }
+
+    /**
+     * Moves the cursor after the next occurrence of the given bytes.
+     *
+     * @param pattern the bytes.
+     * @return whether the bytes were found before the end of the file.
+     */
+    public Boolean skipPast(byte[] pattern) throws IOException {
+        while (this.skipTo(pattern[0] & 0xFF)) {
+            if (this.startsWith(pattern)) {
+                this.skip(pattern.length);
+                return true;
+            }
+            this.skip(1);
+        }
+        return false;
+    }
+
+    /**
+     * Moves the cursor to the next byte that isn't XML whitespace.
+     */
+    public void skipWhitespace() throws IOException {
+        for (int c = this.peek(0); c == ' ' || c == '\t' || c == '\r' || c == '\n'; c = this.peek(0)) {
+            this.skip(1);
+        }
+    }
+
+    /**
+     * Discards the bytes before the cursor and reads more bytes.
+     *
+     * @return whether any byte was read.
+     */
+    private Boolean fill() throws IOException {
+        if (this.position > 0) {
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+            this.offset += this.position;
+            this.limit -= this.position;
+            this.position = 0;
+        }
+        final int read = this.channel.read(ByteBuffer.wrap(this.buffer, this.limit, this.buffer.length - this.limit),
+            this.offset + this.limit);
+        if (read <= 0) {
+            return false;
+        }
+        this.limit += read;
+        return true;
+    }
+}
+
+/**
+ * An input stream over a region of a file, several of them may read the same file at once.
+ */
+class RegionInputStream extends InputStream {
+
+    /**
+     * The file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The position of the next byte to be read.
+     */
+    private long position;
+
+    /**
+     * The position after the last byte of the region.
+     */
+    private final long end;
+
+    /**
+     * The constructor of a stream over a region.
+     *
+     * @param channel the file.
+     * @param start the position of the first byte of the region.
+     * @param end the position after the last byte of the region.
+     */
+    public RegionInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Reads a single byte.
+     *
+     * @return the byte, or -1 if the region ended.
+     */
+    @Override
+    public int read() throws IOException {
+        final byte[] single = new byte[1];
+        return this.read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    /**
+     * Reads several bytes.
+     *
+     * @param bytes the array the bytes will be read into.
+     * @param offset the position in the array of the first byte.
+     * @param length the maximum amount of bytes to be read.
+     * @return the amount of bytes read, or -1 if the region ended.
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (this.position >= this.end) {
+            return -1;
+        }
+        final int count = (int) Math.min(length, this.end - this.position);
+        final int read = this.channel.read(ByteBuffer.wrap(bytes, offset, count), this.position);
+        if (read > 0) {
+            this.position += read;
+        }
+        return read;
+    }
+}
@@ -0,0 +1,390 @@
+/* StAXReader imports */
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A SAX parser built on a StAX pull parser, an alternative to Xerces.
+ * When its content handler isn't interested in the contents of an element, see SkippingHandler,
+ * they are read without being dispatched, only their namespaces and comments are.
+ * It neither validates nor reads external DTDs, as Xerces without validation.
+ */
+class StAXReader implements XMLReader, Locator {
+
+    private static final String NAMESPACES = "http://xml.org/sax/features/namespaces";
+    private static final String NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
+    private static final String VALIDATION = "http://xml.org/sax/features/validation";
+    private static final String LOAD_DTD_GRAMMAR = "http://apache.org/xml/features/nonvalidating/load-dtd-grammar";
+    private static final String LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * The factory of the pull parsers, one per reader as they aren't meant to be shared between threads.
+     */
+    private final XMLInputFactory factory = XMLInputFactory.newFactory();
+
+    /**
+     * The attributes of the current element, reused by every element.
+     */
+    private final AttributesImpl attributes = new AttributesImpl();
+
+    private ContentHandler contentHandler;
+    private LexicalHandler lexicalHandler;
+    private ErrorHandler errorHandler;
+    private EntityResolver entityResolver;
+    private DTDHandler dtdHandler;
+
+    /**
+     * The pull parser of the document being parsed, null if none is.
+     */
+    private XMLStreamReader reader;
+
+    /**
+     * The system id of the document being parsed.
+     */
+    private String systemId;
+
+    /**
+     * The default constructor, external DTDs are replaced by empty ones.
+     */
+    public StAXReader() {
+        this.factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        this.factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        this.factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        this.factory.setXMLResolver((publicId, systemId, baseURI, namespace) -> new ByteArrayInputStream(new byte[0]));
+    }
+
+    /**
+     * Returns a feature, only the ones of a non-validating namespace-aware parser are supported.
+     */
+    public boolean getFeature(String name) throws SAXNotRecognizedException {
+        switch (name) {
+            case NAMESPACES:
+                return true;
+            case NAMESPACE_PREFIXES:
+            case VALIDATION:
+            case LOAD_DTD_GRAMMAR:
+            case LOAD_EXTERNAL_DTD:
+                return false;
+            default:
+                throw new SAXNotRecognizedException(name);
+        }
+    }
+
+    /**
+     * Sets a feature, only the ones of a non-validating namespace-aware parser are supported.
+     */
+    public void setFeature(String name, boolean value) throws SAXNotRecognizedException, SAXNotSupportedException {
+        if (this.getFeature(name) != value) {
+            throw new SAXNotSupportedException(name + " can't be " + value + " without Xerces");
+        }
+    }
+
+    /**
+     * Returns a property, only the lexical handler is supported.
+     */
+    public Object getProperty(String name) throws SAXNotRecognizedException {
+        if (!name.equals(LEXICAL_HANDLER)) {
+            throw new SAXNotRecognizedException(name);
+        }
+        return this.lexicalHandler;
+    }
+
+    /**
+     * Sets a property, only the lexical handler is supported.
+     */
+    public void setProperty(String name, Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
+        if (!name.equals(LEXICAL_HANDLER)) {
+            throw new SAXNotRecognizedException(name);
+        } else if (value != null && !(value instanceof LexicalHandler)) {
+            throw new SAXNotSupportedException(name + " must be a LexicalHandler");
+        }
+        this.lexicalHandler = (LexicalHandler) value;
+    }
+
+    public void setEntityResolver(EntityResolver resolver) {
+        this.entityResolver = resolver;
+    }
+
+    public EntityResolver getEntityResolver() {
+        return this.entityResolver;
+    }
+
+    public void setDTDHandler(DTDHandler handler) {
+        this.dtdHandler = handler;
+    }
+
+    public DTDHandler getDTDHandler() {
+        return this.dtdHandler;
+    }
+
+    public void setContentHandler(ContentHandler handler) {
+        this.contentHandler = handler;
+    }
+
+    public ContentHandler getContentHandler() {
+        return this.contentHandler;
+    }
+
+    public void setErrorHandler(ErrorHandler handler) {
+        this.errorHandler = handler;
+    }
+
+    public ErrorHandler getErrorHandler() {
+        return this.errorHandler;
+    }
+
+    /**
+     * Parses a document given by its system id, either a URL or a file.
+     *
+     * @param systemId the system id of the document.
+     */
+    public void parse(String systemId) throws IOException, SAXException {
+        this.parse(new InputSource(systemId));
+    }
+
+    /**
+     * Parses a document, from its character stream, its byte stream or its system id, in that order.
+     *
+     * @param input the document.
+     */
+    public void parse(InputSource input) throws IOException, SAXException {
+        this.systemId = input.getSystemId();
+        InputStream opened = null;
+        try {
+            if (input.getCharacterStream() != null) {
+                this.reader = this.factory.createXMLStreamReader(this.systemId, input.getCharacterStream());
+            } else if (input.getByteStream() != null) {
+                this.reader = input.getEncoding() == null
+                    ? this.factory.createXMLStreamReader(this.systemId, input.getByteStream())
+                    : this.factory.createXMLStreamReader(input.getByteStream(), input.getEncoding());
+            } else {
+                opened = open(this.systemId);
+                this.reader = this.factory.createXMLStreamReader(this.systemId, opened);
+            }
+            this.parse();
+        } catch (XMLStreamException ex) {
+            final Location location = ex.getLocation();
+            final SAXParseException parseException = location == null
+                ? new SAXParseException(ex.getMessage(), this.getPublicId(), this.systemId, -1, -1, ex)
+                : new SAXParseException(ex.getMessage(), location.getPublicId(), this.systemId,
+                    location.getLineNumber(), location.getColumnNumber(), ex);
+            if (this.errorHandler != null) {
+                this.errorHandler.fatalError(parseException);
+            }
+            throw parseException;
+        } finally {
+            try {
+                if (this.reader != null) {
+                    this.reader.close();
+                }
+            } catch (XMLStreamException ex) {
+                /* Nothing else to release */
+            }
+            this.reader = null;
+            if (opened != null) {
+                opened.close();
+            }
+        }
+    }
+
+    /**
+     * Dispatches the events of the document being parsed.
+     */
+    private void parse() throws XMLStreamException, SAXException {
+        final ContentHandler handler = this.contentHandler;
+        final LexicalHandler lexical = this.lexicalHandler;
+        final SkippingHandler skipping = handler instanceof SkippingHandler ? (SkippingHandler) handler : null;
+        final XMLStreamReader reader = this.reader;
+
+        handler.setDocumentLocator(this);
+        handler.startDocument();
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    this.startElement(handler);
+                    if (skipping != null && skipping.isSkippable()) {
+                        this.skip(handler, lexical);
+                        this.endElement(handler);
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    this.endElement(handler);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                    handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.SPACE:
+                    handler.ignorableWhitespace(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    if (lexical != null) {
+                        lexical.startCDATA();
+                    }
+                    handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    if (lexical != null) {
+                        lexical.endCDATA();
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    if (lexical != null) {
+                        lexical.comment(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    handler.processingInstruction(reader.getPITarget(), reader.getPIData());
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    handler.endDocument();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reads the contents of the current element up to its end tag, dispatching only their namespaces and comments.
+     */
+    private void skip(ContentHandler handler, LexicalHandler lexical) throws XMLStreamException, SAXException {
+        final XMLStreamReader reader = this.reader;
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    this.startPrefixMappings(handler);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (--depth > 0) {
+                        this.endPrefixMappings(handler);
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    if (lexical != null) {
+                        lexical.comment(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Dispatches the start of the current element, preceded by its namespace mappings.
+     */
+    private void startElement(ContentHandler handler) throws SAXException {
+        final XMLStreamReader reader = this.reader;
+        this.startPrefixMappings(handler);
+        this.attributes.clear();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String uri = reader.getAttributeNamespace(i);
+            final String localName = reader.getAttributeLocalName(i);
+            this.attributes.addAttribute(uri == null ? "" : uri, localName,
+                qualify(reader.getAttributePrefix(i), localName), reader.getAttributeType(i), reader.getAttributeValue(i));
+        }
+        final String uri = reader.getNamespaceURI();
+        final String localName = reader.getLocalName();
+        handler.startElement(uri == null ? "" : uri, localName, qualify(reader.getPrefix(), localName), this.attributes);
+    }
+
+    /**
+     * Dispatches the end of the current element, followed by the end of its namespace mappings.
+     */
+    private void endElement(ContentHandler handler) throws SAXException {
+        final XMLStreamReader reader = this.reader;
+        final String uri = reader.getNamespaceURI();
+        final String localName = reader.getLocalName();
+        handler.endElement(uri == null ? "" : uri, localName, qualify(reader.getPrefix(), localName));
+        this.endPrefixMappings(handler);
+    }
+
+    private void startPrefixMappings(ContentHandler handler) throws SAXException {
+        for (int i = 0; i < this.reader.getNamespaceCount(); i++) {
+            final String prefix = this.reader.getNamespacePrefix(i);
+            final String uri = this.reader.getNamespaceURI(i);
+            handler.startPrefixMapping(prefix == null ? "" : prefix, uri == null ? "" : uri);
+        }
+    }
+
+    private void endPrefixMappings(ContentHandler handler) throws SAXException {
+        for (int i = 0; i < this.reader.getNamespaceCount(); i++) {
+            final String prefix = this.reader.getNamespacePrefix(i);
+            handler.endPrefixMapping(prefix == null ? "" : prefix);
+        }
+    }
+
+    /**
+     * Returns the qualified name of an element or attribute.
+     */
+    private static String qualify(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    /**
+     * Opens a document given by its system id, either a URL or a file.
+     */
+    private static InputStream open(String systemId) throws IOException {
+        if (systemId == null) {
+            throw new IOException("The input has neither a stream nor a system id");
+        }
+        try {
+            return new URL(systemId).openStream();
+        } catch (MalformedURLException ex) {
+            return new FileInputStream(systemId);
+        }
+    }
+
+    /* Locator methods, the position of the current event */
+
+    public String getPublicId() {
+        return this.reader == null ? null : this.reader.getLocation().getPublicId();
+    }
+
+    public String getSystemId() {
+        return this.systemId;
+    }
+
+    public int getLineNumber() {
+        return this.reader == null ? -1 : this.reader.getLocation().getLineNumber();
+    }
+
+    public int getColumnNumber() {
+        return this.reader == null ? -1 : this.reader.getLocation().getColumnNumber();
+    }
+}
+
+/**
+ * A content handler that may not be interested in the contents of some elements,
+ * which StAXReader then reads without dispatching them.
+ * Even so, the namespace mappings and comments of those contents are dispatched.
+ */
+interface SkippingHandler extends ContentHandler {
+
+    /**
+     * Returns whether the contents of the element that has just started may be skipped.
+     *
+     * @return whether the contents of the current element may be skipped.
+     */
+    Boolean isSkippable();
+}
@@ -0,0 +1,118 @@
+/* WatchParser imports */
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.xml.sax.XMLReader;
+
+/**
+ * Keeps the results of a directory of XML files in JATS format up to date while files arrive,
+ * change or are deleted, only parsing those files.
+ * The results of each file are folded into the running aggregates, replacing the previous ones of the file,
+ * and the updated summary is output at once, as text followed by an empty line or as a JSONL summary record.
+ * The summary is the same as the one of parsing the files of the directory in a batch.
+ */
+public class WatchParser extends DirectoryWatcher {
+
+    /**
+     * The parser used to create the reader and parse the files.
+     */
+    private final XMLParser parser;
+
+    /**
+     * The warm reader, reused for every file.
+     */
+    private final XMLReader reader;
+
+    /**
+     * The amount of comments and articles of each file.
+     */
+    private final Map<Path, int[]> totals = new HashMap<>();
+
+    /**
+     * The longest namespace of each file.
+     */
+    private final FileRanking namespaces = new FileRanking();
+
+    /**
+     * The articles with the longest abstracts of each file.
+     */
+    private final FileRanking longestAbstracts = new FileRanking();
+
+    /* The totals of every file */
+    private int comments = 0;
+    private int articles = 0;
+
+    /**
+     * The constructor of a watch parser.
+     *
+     * @param parser the parser of the files, its engine, fields, cache and format.
+     * @param validation enable XML validation and DTD grammar.
+     * @param directory the directory to be watched.
+     */
+    public WatchParser(XMLParser parser, Boolean validation, String directory) {
+        super(directory);
+        this.parser = parser;
+        this.reader = parser.createReader(validation);
+    }
+
+    /**
+     * Parses a file, replacing its previous results.
+     * A file that can't be parsed is skipped, keeping its previous results.
+     *
+     * @param file the file.
+     * @return whether the file was parsed.
+     */
+    @Override
+    protected Boolean update(Path file) {
+        final JATSReport report;
+        try {
+            report = this.parser.parse(this.reader, file.toString(),
+                new JATSReport(new JATSReport.Options().top(this.parser.getTop())));
+        } catch (RuntimeException ex) {
+            System.err.println("Skipping " + file + ": " + ex.getMessage());
+            return false;
+        }
+        this.remove(file);
+        final List<TopK.Ranked<String>> namespace = new ArrayList<>();
+        namespace.add(new TopK.Ranked<>(report.getLongestNamespace(), report.getLongestNamespace().length(), 0));
+        this.namespaces.put(file, namespace);
+        this.longestAbstracts.put(file, report.getLongestAbstracts().getEntries());
+        this.totals.put(file, new int[] {report.getComments(), report.getArticleCount()});
+        this.comments += report.getComments();
+        this.articles += report.getArticleCount();
+        return true;
+    }
+
+    /**
+     * Removes the results of a file.
+     *
+     * @param file the file.
+     */
+    @Override
+    protected void remove(Path file) {
+        final int[] previous = this.totals.remove(file);
+        if (previous != null) {
+            this.namespaces.remove(file);
+            this.longestAbstracts.remove(file);
+            this.comments -= previous[0];
+            this.articles -= previous[1];
+        }
+    }
+
+    /**
+     * Outputs the summary of every file.
+     */
+    @Override
+    protected void publish() {
+        final JATSReport summary = this.parser.createReport(true);
+        summary.addTotals(this.namespaces.top(1).getFirst(""), this.comments, this.articles,
+            this.longestAbstracts.top(this.parser.getTop()));
+        summary.print();
+        if (this.parser.getFormat() == OutputFormat.TEXT) {
+            System.out.println();
+        }
+        System.out.flush();
+    }
+}
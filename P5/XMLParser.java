@@ -1,8 +1,6 @@
 /* XMLParser imports */
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.io.IOException;
+import java.util.Collections;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
@@ -10,6 +8,8 @@ import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.ext.LexicalHandler;
 import org.xml.sax.helpers.XMLReaderFactory;
+import org.apache.xerces.util.XMLGrammarPoolImpl;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
 /* JATSValidatorErrorHandler imports */
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXParseException;
@@ -17,18 +17,134 @@ import org.xml.sax.SAXParseException;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
-/* XMLLocator imports */
-import java.util.Stack;
-/* Article imports */
+/* JATSReport imports */
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+/* Article imports */
+import java.util.LinkedHashMap;
+import java.util.Map;
+/* FieldQuery imports */
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * The main class of the program,
  * parses XML files in JATS format.
  */
 public class XMLParser {
+
+    /**
+     * Whether the readers are StAXReaders instead of Xerces parsers.
+     */
+    private final Boolean stax;
+
+    /**
+     * The fields extracted from each article besides the usual ones.
+     */
+    private final List<FieldQuery> fields;
+
+    /**
+     * The catalog of the DTDs when validating, shared by every reader.
+     */
+    private final DTDCatalog catalog;
+
+    /**
+     * The grammars compiled when validating, shared by every reader so each DTD is compiled once.
+     */
+    private final XMLGrammarPool grammars = new XMLGrammarPoolImpl();
+
+    /**
+     * The cache of the results of the files, null if they are always parsed.
+     */
+    private final ResultCache<JATSReport> cache;
+
+    /**
+     * The format of the results.
+     */
+    private final OutputFormat format;
+
+    /**
+     * The amount of articles with the longest abstracts shown by the reports.
+     */
+    private final int top;
+
+    /**
+     * The default constructor, for a parser whose readers are Xerces parsers.
+     */
+    public XMLParser() {
+        this(new Options());
+    }
+
+    /**
+     * The constructor of a parser.
+     *
+     * @param options the engine, fields, catalog, cache, format and ranking of the parser, see Options.
+     */
+    public XMLParser(Options options) {
+        this.stax = options.stax;
+        this.fields = options.fields;
+        this.catalog = options.catalog == null ? defaultCatalog() : options.catalog;
+        this.cache = options.cache;
+        this.format = options.format;
+        this.top = options.top;
+    }
+
+    /**
+     * Returns the amount of articles with the longest abstracts shown by the reports.
+     */
+    public int getTop() {
+        return this.top;
+    }
+
+    /**
+     * Returns the format of the results.
+     */
+    public OutputFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Opens a cache of the results of the files, the entries depending on the extra fields.
+     *
+     * @param directory the directory of the cache.
+     * @param limit the maximum size of the entries, in bytes.
+     * @param fields the fields extracted from each article besides the usual ones, see FieldQuery.
+     * @return the cache.
+     */
+    public static ResultCache<JATSReport> openCache(String directory, long limit, List<FieldQuery> fields) throws IOException {
+        final StringBuilder version = new StringBuilder("JATSReport 1");
+        for (FieldQuery field : fields) {
+            version.append('\n').append(field.getName()).append(" = ").append(field.getPath());
+        }
+        return new ResultCache<>(directory, limit, version.toString(), new ResultCodec<JATSReport>() {
+            public void write(DataOutputStream out, JATSReport report) throws IOException {
+                report.write(out);
+            }
+
+            public JATSReport read(DataInputStream in) throws IOException {
+                return JATSReport.read(in);
+            }
+        });
+    }
+
+    /**
+     * Returns the catalog of the DTDs in the default directory.
+     */
+    private static DTDCatalog defaultCatalog() {
+        try {
+            return new DTDCatalog(DTDCatalog.DEFAULT_DIRECTORY);
+        } catch (IOException ex) {
+            System.err.println("Error accessing the file: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the file", ex);
+        }
+    }
+
     /**
      * Parse a given file and output the results.
      *
@@ -36,26 +152,70 @@ public class XMLParser {
      * @param validation enable XML validation and DTD grammar.
      */
     public void parse(String uri, Boolean validation) {
+        this.parse(uri, validation, false);
+    }
+
+    /**
+     * Parse a given file and output the results.
+     *
+     * @param uri the URI of the file to be parsed.
+     * @param validation enable XML validation and DTD grammar.
+     * @param streaming output each article as soon as it ends instead of keeping them all,
+     *        see JATSReport.
+     */
+    public void parse(String uri, Boolean validation, Boolean streaming) {
+        this.parse(this.createReader(validation), uri, this.createReport(streaming)).print();
+    }
+
+    /**
+     * Creates a report output to the standard output in the format of the parser.
+     *
+     * @param streaming output each article as soon as it's added instead of keeping them all.
+     * @return the new report.
+     */
+    public JATSReport createReport(Boolean streaming) {
+        return this.createReport(streaming, System.out);
+    }
+
+    /**
+     * Creates a report in the format of the parser.
+     *
+     * @param streaming output each article as soon as it's added instead of keeping them all.
+     * @param out the stream the results are output to.
+     * @return the new report.
+     */
+    public JATSReport createReport(Boolean streaming, PrintStream out) {
+        final List<String> names = new ArrayList<>();
+        for (FieldQuery field : this.fields) {
+            names.add(field.getName());
+        }
+        return new JATSReport(new JATSReport.Options().streaming(streaming).out(out).format(this.format).fields(names).top(this.top));
+    }
+
+    /**
+     * Creates a parser, it may be reused to parse several files one after another.
+     * When validating, the DTDs are resolved by the catalog and compiled once for every parser.
+     *
+     * @param validation enable XML validation and DTD grammar.
+     * @return the new parser.
+     */
+    public XMLReader createReader(Boolean validation) {
         final XMLReader parser;
-        final JATSHandler handler = new JATSHandler();
 
         /* Create the parser */
         try {
-            parser = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
+            parser = this.stax ? new StAXReader() : XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
         } catch (SAXException e) {
             System.err.println("Unexpected exception while creating XML Reader, " + e.getMessage());
             throw new RuntimeException(e);
         }
 
-        /* Set the lexical and content handler and the validator */
+        /* Set the validator if enabled */
         try {
-            /* Set the lexical and content handler */
-            parser.setProperty("http://xml.org/sax/properties/lexical-handler", handler);
-            parser.setContentHandler(handler);
-
-            /* Set the validator if enabled */
             if (validation) {
                 parser.setFeature("http://xml.org/sax/features/validation", true);
+                parser.setProperty("http://apache.org/xml/properties/internal/grammar-pool", this.grammars);
+                parser.setEntityResolver(this.catalog);
                 parser.setErrorHandler(new JATSValidatorErrorHandler());
             } else {
                 parser.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
@@ -68,12 +228,112 @@ public class XMLParser {
             System.err.println("SAX couldn't perform the requested operation, " + ex.getMessage());
             throw new RuntimeException("SAX couldn't perform the requested operation", ex);
         }
+        return parser;
+    }
 
-        /* Starts parsing the given file */
+    /**
+     * Parse a given file with an already created parser, or take its results from the cache if it's unchanged.
+     * A validating parser always parses the file, as the cache doesn't keep the validation errors.
+     * If it's a zip bundle, each XML entry is parsed as a document of its own.
+     *
+     * @param parser the parser, as returned by createReader.
+     * @param uri the URI of the file to be parsed.
+     * @param report the report the results of the file will be added to.
+     * @return the given report.
+     */
+    public JATSReport parse(XMLReader parser, String uri, JATSReport report) {
+        if (this.cache == null || isValidating(parser)) {
+            return this.parseFile(parser, uri, report);
+        }
+        report.merge(this.cache.get(Paths.get(uri), () -> this.parseFile(parser, uri, new JATSReport())));
+        return report;
+    }
+
+    /**
+     * Returns whether a parser validates the files.
+     *
+     * @param parser the parser, as returned by createReader.
+     * @return whether validation is enabled.
+     */
+    private static Boolean isValidating(XMLReader parser) {
         try {
-            InputSource inputSource = new InputSource();
-            inputSource.setCharacterStream(new InputStreamReader(new FileInputStream(new File(uri))));
+            return parser.getFeature("http://xml.org/sax/features/validation");
+        } catch (SAXNotRecognizedException | SAXNotSupportedException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a given file with an already created parser.
+     * If it's a zip bundle, each XML entry is parsed as a document of its own.
+     *
+     * @param parser the parser, as returned by createReader.
+     * @param uri the URI of the file to be parsed.
+     * @param report the report the results of the file will be added to.
+     * @return the given report.
+     */
+    private JATSReport parseFile(XMLReader parser, String uri, JATSReport report) {
+        try (DocumentInput input = new DocumentInput(uri, ParseMetrics.get())) {
+            for (InputSource inputSource = input.next(); inputSource != null; inputSource = input.next()) {
+                final DocumentEvent event = new DocumentEvent();
+                event.begin();
+                this.parse(parser, inputSource, report);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.uri = uri;
+                    event.bytes = input.getBytesRead();
+                    event.commit();
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Error accessing the file: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the file", ex);
+        }
+        return report;
+    }
+
+    /**
+     * Parse a given input with an already created parser.
+     * The handler of the parser is reused, so parsers may be kept to parse many inputs.
+     *
+     * @param parser the parser, as returned by createReader.
+     * @param inputSource the input to be parsed.
+     * @param report the report the results of the input will be added to.
+     * @return the given report.
+     */
+    public JATSReport parse(XMLReader parser, InputSource inputSource, JATSReport report) {
+        final ParseMetrics metrics = ParseMetrics.get();
+
+        /* Reuse the handler of the parser if it already has one, otherwise set the lexical and content handler,
+         * measured if the metrics are enabled */
+        try {
+            ContentHandler current = parser.getContentHandler();
+            if (current instanceof MeteredHandler) {
+                current = ((MeteredHandler) current).getHandler();
+            }
+            if (current instanceof JATSHandler) {
+                ((JATSHandler) current).reset(report);
+            } else {
+                final JATSHandler handler = new JATSHandler(report, this.fields);
+                final ContentHandler installed = metrics == null ? handler : new MeteredHandler(handler, metrics);
+                parser.setProperty("http://xml.org/sax/properties/lexical-handler", installed);
+                parser.setContentHandler(installed);
+            }
+        } catch (SAXNotRecognizedException ex) {
+            System.err.println("Unrecognized feature or property identifier found by SAX, " + ex.getMessage());
+            throw new RuntimeException("Unrecognized feature or property identifier found by SAX", ex);
+        } catch (SAXNotSupportedException ex) {
+            System.err.println("SAX couldn't perform the requested operation, " + ex.getMessage());
+            throw new RuntimeException("SAX couldn't perform the requested operation", ex);
+        }
+
+        /* Starts parsing the given input */
+        try {
+            final long start = metrics == null ? 0 : System.nanoTime();
             parser.parse(inputSource);
+            if (metrics != null) {
+                metrics.addDocument(System.nanoTime() - start);
+            }
         } catch (IOException ex) {
             System.err.println("Error accessing the file: " + ex.getMessage());
             throw new RuntimeException("Error accessing the file", ex);
@@ -81,23 +341,318 @@ public class XMLParser {
             System.err.println("Parsing error: " + ex.getMessage());
             throw new RuntimeException("Parsing error", ex);
         }
+        return report;
     }
 
     /**
      * The main method of the program.
-     * Initializes and starts a XMLParser.
+     * Initializes and starts a XMLParser, a BatchParser if the batch mode is enabled,
+     * a SplitParser if the split mode is enabled, or a DaemonParser if the daemon mode is enabled.
      *
      * @param args the arguments of the program, the first one being the URI of the XML file,
      *              and the second one the validation activator
      *              (if any second parameter is present, validation will be active).
+     *              In batch mode, every argument that isn't an option is a source,
+     *              either a file, a directory, a glob or a list of sources (@LIST).
+     *              The values of --port, --threads, --cache-size, --checkpoint-interval and --top are integers,
+     *              any other value shows the usage, as the options that don't belong to the mode do,
+     *              and more than one mode.
      */
     public static void main(String[] args) {
-        if (args.length == 0 || args.length > 2) {
-            System.err.println("XML file expected, usage: java XMLParser [XML URI] ([VALIDATION FLAG (ANY)])");
+        final List<String> sources = new ArrayList<>();
+        final List<String> options = new ArrayList<>();
+        Boolean batch = false;
+        Boolean split = false;
+        Boolean daemon = false;
+        Boolean watch = false;
+        int port = 0;
+        Boolean streaming = false;
+        Boolean validation = false;
+        Boolean metrics = false;
+        String engine = "sax";
+        String fieldsUri = null;
+        String catalogDirectory = DTDCatalog.DEFAULT_DIRECTORY;
+        String cacheDirectory = null;
+        String format = "text";
+        String checkpoint = null;
+        long cacheSize = 256;
+        int top = 1;
+        int checkpointInterval = 60;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                options.add(args[i]);
+                switch (args[i]) {
+                    case "--batch":
+                        batch = true;
+                        break;
+                    case "--split":
+                        split = true;
+                        break;
+                    case "--daemon":
+                        daemon = true;
+                        break;
+                    case "--watch":
+                        watch = true;
+                        break;
+                    case "--port":
+                        port = i + 1 < args.length ? Integer.parseInt(args[++i]) : -1;
+                        break;
+                    case "--stream":
+                        streaming = true;
+                        break;
+                    case "--validate":
+                        validation = true;
+                        break;
+                    case "--metrics":
+                        metrics = true;
+                        break;
+                    case "--engine":
+                        engine = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--fields":
+                        fieldsUri = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--catalog":
+                        catalogDirectory = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--cache":
+                        cacheDirectory = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--cache-size":
+                        cacheSize = i + 1 < args.length ? Long.parseLong(args[++i]) : 0;
+                        break;
+                    case "--format":
+                        format = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--threads":
+                        threads = i + 1 < args.length ? Integer.parseInt(args[++i]) : 0;
+                        break;
+                    case "--checkpoint":
+                        checkpoint = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--checkpoint-interval":
+                        checkpointInterval = i + 1 < args.length ? Integer.parseInt(args[++i]) : -1;
+                        break;
+                    case "--top":
+                        top = i + 1 < args.length ? Integer.parseInt(args[++i]) : 0;
+                        break;
+                    default:
+                        sources.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid number, usage: --port PORT, --threads N, --cache-size MB, --checkpoint-interval SECONDS and --top K are integers");
+            System.exit(0);
+        }
+        /* A single mode at a time, rather than one of them winning over the others */
+        if ((batch ? 1 : 0) + (split ? 1 : 0) + (daemon ? 1 : 0) + (watch ? 1 : 0) > 1) {
+            System.err.println("Invalid mode, usage: only one of --batch, --split, --daemon and --watch");
+            System.exit(0);
+        }
+        /* The options of the other modes aren't silently ignored */
+        if (!split && (options.contains("--checkpoint") || options.contains("--checkpoint-interval"))) {
+            System.err.println("Invalid checkpoint, usage: java XMLParser --split ([--checkpoint FILE ([--checkpoint-interval SECONDS])]) [XML URI]");
+            System.exit(0);
+        }
+        if (!daemon && options.contains("--port")) {
+            System.err.println("Invalid port, usage: java XMLParser --daemon ([--port PORT])");
+            System.exit(0);
+        }
+        if (!batch && !daemon && !split && options.contains("--threads")) {
+            System.err.println("Invalid threads, usage: --threads N, only with --batch, --daemon or --split");
+            System.exit(0);
+        }
+        final Boolean stax = engine.equals("stax");
+        if (!stax && !engine.equals("sax") || stax && validation) {
+            System.err.println("Invalid engine, usage: --engine [sax | stax], stax can't validate");
+            System.exit(0);
+        }
+        List<FieldQuery> fields = Collections.emptyList();
+        if (fieldsUri != null) {
+            try {
+                fields = FieldQuery.load(fieldsUri);
+                JATSHandler.validate(fields);
+            } catch (IOException ex) {
+                System.err.println("Error accessing the file: " + ex.getMessage());
+                throw new RuntimeException("Error accessing the file", ex);
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Invalid fields, " + ex.getMessage() + ", usage: --fields FILE, one NAME = PATH per line");
+                System.exit(0);
+            }
+        }
+        DTDCatalog catalog = null;
+        try {
+            catalog = new DTDCatalog(catalogDirectory);
+        } catch (IOException ex) {
+            System.err.println("Error accessing the file: " + ex.getMessage());
+            throw new RuntimeException("Error accessing the file", ex);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid catalog, " + ex.getMessage() + ", usage: --catalog DIRECTORY");
             System.exit(0);
         }
-        XMLParser parser = new XMLParser();
-        parser.parse(args[0], args.length == 2 && args[1] != null && !args[1].equals(""));
+        OutputFormat outputFormat = OutputFormat.TEXT;
+        try {
+            outputFormat = OutputFormat.of(format);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid format, usage: --format [text | jsonl | csv]");
+            System.exit(0);
+        }
+        if (top < 1) {
+            System.err.println("Invalid ranking, usage: --top K, at least 1");
+            System.exit(0);
+        }
+        ResultCache<JATSReport> cache = null;
+        if (cacheDirectory != null) {
+            if (cacheDirectory.isEmpty() || cacheSize < 1) {
+                System.err.println("Invalid cache, usage: --cache DIRECTORY ([--cache-size MB])");
+                System.exit(0);
+            }
+            try {
+                cache = openCache(cacheDirectory, cacheSize << 20, fields);
+            } catch (IOException ex) {
+                System.err.println("Error accessing the cache: " + ex.getMessage());
+                throw new RuntimeException("Error accessing the cache", ex);
+            }
+            /* Saved on exit, whatever the mode */
+            final ResultCache<JATSReport> openCache = cache;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    openCache.close();
+                } catch (IOException ex) {
+                    System.err.println("Error writing the cache: " + ex.getMessage());
+                }
+            }));
+        }
+        final XMLParser parser = new XMLParser(new XMLParser.Options()
+            .stax(stax).fields(fields).catalog(catalog).cache(cache).format(outputFormat).top(top));
+        if (metrics) {
+            /* Shown on exit, whatever the mode, while running they are available through JMX */
+            final ParseMetrics parseMetrics = ParseMetrics.enable("XMLParser");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> parseMetrics.print(System.err)));
+        }
+        if (watch) {
+            if (sources.size() != 1 || !Files.isDirectory(Paths.get(sources.get(0))) || outputFormat == OutputFormat.CSV) {
+                System.err.println("Directory expected, usage: java XMLParser --watch ([--validate]) ([--metrics]) " +
+                    "([--engine ENGINE]) ([--format [text | jsonl]]) ([--top K]) ([--fields FILE]) ([--catalog DIRECTORY]) " +
+                    "([--cache DIRECTORY ([--cache-size MB])]) [DIRECTORY]");
+                System.exit(0);
+            }
+            new WatchParser(parser, validation, sources.get(0)).watch();
+            return;
+        }
+        if (batch) {
+            if (sources.isEmpty() || threads < 1) {
+                System.err.println("XML files expected, usage: java XMLParser --batch ([--threads N]) ([--validate]) ([--stream]) ([--metrics]) " +
+                    "([--engine ENGINE]) ([--format FORMAT]) ([--top K]) ([--fields FILE]) ([--catalog DIRECTORY]) ([--cache DIRECTORY ([--cache-size MB])]) " +
+                    "[FILE | DIRECTORY | GLOB | @LIST]...");
+                System.exit(0);
+            }
+            new BatchParser(parser, validation, threads, streaming).parse(sources);
+            return;
+        }
+        if (daemon) {
+            if (!sources.isEmpty() || threads < 1 || port < 0) {
+                System.err.println("No XML file expected, usage: java XMLParser --daemon ([--port PORT]) ([--threads N]) " +
+                    "([--validate]) ([--stream]) ([--metrics]) ([--engine ENGINE]) ([--format FORMAT]) ([--top K]) ([--fields FILE]) ([--catalog DIRECTORY]) " +
+                    "([--cache DIRECTORY ([--cache-size MB])])");
+                System.exit(0);
+            }
+            final DaemonParser daemonParser = new DaemonParser(parser, validation, streaming);
+            if (port == 0) {
+                daemonParser.serve(System.in, System.out);
+            } else {
+                daemonParser.listen(port, threads);
+            }
+            return;
+        }
+        if (split) {
+            if (sources.size() != 1 || threads < 1 || "".equals(checkpoint) || checkpointInterval < 0) {
+                System.err.println("XML file expected, usage: java XMLParser --split ([--threads N]) ([--validate]) ([--stream]) ([--metrics]) " +
+                    "([--engine ENGINE]) ([--format FORMAT]) ([--top K]) ([--fields FILE]) ([--catalog DIRECTORY]) " +
+                    "([--checkpoint FILE ([--checkpoint-interval SECONDS])]) [XML URI]");
+                System.exit(0);
+            }
+            if (streaming && checkpoint != null) {
+                System.err.println("Invalid checkpoint, usage: --checkpoint FILE, a parse with --stream can't be checkpointed");
+                System.exit(0);
+            }
+            new SplitParser(parser, validation, threads, streaming, checkpoint, checkpointInterval).parse(sources.get(0));
+            return;
+        }
+        if (sources.isEmpty() || sources.size() > 2) {
+            System.err.println("XML file expected, usage: java XMLParser ([--stream]) ([--metrics]) ([--engine ENGINE]) ([--format FORMAT]) ([--top K]) ([--fields FILE]) " +
+                "([--catalog DIRECTORY]) ([--cache DIRECTORY ([--cache-size MB])]) [XML URI] ([VALIDATION FLAG (ANY)])");
+            System.exit(0);
+        }
+        final Boolean validationFlag = validation || sources.size() == 2 && !sources.get(1).equals("");
+        if (stax && validationFlag) {
+            System.err.println("Invalid engine, usage: --engine [sax | stax], stax can't validate");
+            System.exit(0);
+        }
+        parser.parse(sources.get(0), validationFlag, streaming);
+    }
+
+    /**
+     * The options of a parser, each one defaulting to the one of the default constructor.
+     */
+    public static class Options {
+
+        private Boolean stax = false;
+        private List<FieldQuery> fields = Collections.emptyList();
+        private DTDCatalog catalog = null;
+        private ResultCache<JATSReport> cache = null;
+        private OutputFormat format = OutputFormat.TEXT;
+        private int top = 1;
+
+        /**
+         * Sets whether the readers are StAXReaders, which skip the elements of no interest,
+         * instead of Xerces parsers. They can't validate.
+         */
+        public Options stax(Boolean stax) {
+            this.stax = stax;
+            return this;
+        }
+
+        /**
+         * Sets the fields extracted from each article besides the usual ones, see FieldQuery.
+         */
+        public Options fields(List<FieldQuery> fields) {
+            this.fields = fields;
+            return this;
+        }
+
+        /**
+         * Sets the catalog of the DTDs when validating, see DTDCatalog, the one of the default directory if null.
+         */
+        public Options catalog(DTDCatalog catalog) {
+            this.catalog = catalog;
+            return this;
+        }
+
+        /**
+         * Sets the cache of the results of the files, as returned by openCache, or null to always parse them.
+         */
+        public Options cache(ResultCache<JATSReport> cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the format of the results of the reports created by createReport.
+         */
+        public Options format(OutputFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the amount of articles with the longest abstracts shown by the reports created by createReport.
+         */
+        public Options top(int top) {
+            this.top = top;
+            return this;
+        }
     }
 }
 
@@ -143,7 +698,7 @@ class JATSValidatorErrorHandler implements ErrorHandler {
 
 /**
  * The content handler and lexical handler of a XML file in JATS format.
- * It will obtain and output the following information:
+ * It will obtain the following information, see JATSReport:
  * <p>
  * <ul>
  *   <li>The longest namespace, if validation is active, DTD will be taken into account.</li>
@@ -152,286 +707,1027 @@ class JATSValidatorErrorHandler implements ErrorHandler {
  *   <li>A list with each article.</li>
  * </ul>
  */
-class JATSHandler implements ContentHandler, LexicalHandler {
+class JATSHandler implements SkippingHandler, LexicalHandler {
+
+    /**
+     * The file locator.
+     */
+    private Locator locator;
+
+    /* The values of the element paths, relative to the article level */
+    private static final int ARTICLE = 0;
+    private static final int SECTION = 1;
+    private static final int ABSTRACT = 2;
+    private static final int TITLE = 3;
+    private static final int SUBTITLE = 4;
+    private static final int SURNAME = 5;
+    private static final int PUBLICATION_YEAR = 6;
+    /* The value of the first extra field, the value of each field being FIELD plus its index */
+    private static final int FIELD = 7;
+
+    /**
+     * The element path automaton, keeps track of the current level.
+     */
+    private final PathAutomaton paths;
+
+    /**
+     * The report the results of the file are added to.
+     */
+    private JATSReport report;
+
+    /**
+     * The article that is currently being parsed.
+     */
+    private Article currentArticle;
+
+    /**
+     * The JFR event of the article that is currently being parsed.
+     */
+    private ArticleEvent articleEvent;
+
+    /**
+     * The metrics of the program, null if they aren't enabled.
+     */
+    private final ParseMetrics metrics = ParseMetrics.get();
+
+    /* The text of the current article, the buffers are reused by every article */
+    private final TextField title = new TextField(true);
+    private final TextField subtitle = new TextField(true);
+    private final TextField abstractText = new TextField(false);
+    private final TextField surname = new TextField(true);
+    private final TextField publicationYear = new TextField(true);
+
+    /**
+     * The surnames, years and extra fields found, shared by the articles of every file parsed by the handler.
+     */
+    private final SymbolTable symbols = new SymbolTable();
+
+    /**
+     * The extra fields extracted from each article.
+     */
+    private final List<FieldQuery> fields;
+
+    /**
+     * The text of the current value of each extra field.
+     */
+    private final TextField[] fieldText;
+
+    /**
+     * The level of the element of the current value of an extra field, -1 if not inside one.
+     */
+    private int fieldLevel = -1;
+
+    /**
+     * The value of the path of the current text node, NO_MATCH if it isn't inside a path of interest.
+     */
+    private int textValue = PathAutomaton.NO_MATCH;
+
+    /**
+     * Whether it's currenly parsing the DTD files.
+     */
+    private Boolean readingDTD = false;
+
+    /**
+     * The constructor of a handler, registers the paths of interest.
+     * The articles may either be the root element or be inside an articles element,
+     * e.g. both articles.article.body.sec and article.body.sec are sections.
+     *
+     * @param report the report the results of the file will be added to.
+     */
+    public JATSHandler(JATSReport report) {
+        this(report, Collections.emptyList());
+    }
+
+    /**
+     * The constructor of a handler that extracts extra fields from each article,
+     * their paths are relative to the article and they can't overlap the usual ones nor each other.
+     *
+     * @param report the report the results of the file will be added to.
+     * @param fields the extra fields, see FieldQuery.
+     * @throws IllegalArgumentException if the path of a field is invalid or overlaps another one.
+     */
+    public JATSHandler(JATSReport report, List<FieldQuery> fields) {
+        this.report = report;
+        this.fields = fields;
+        this.fieldText = new TextField[fields.size()];
+        for (int i = 0; i < this.fieldText.length; i++) {
+            this.fieldText[i] = new TextField(true);
+        }
+        this.paths = compile(fields);
+    }
+
+    /**
+     * Checks that the paths of some extra fields are valid and don't overlap the usual ones nor each other,
+     * as the constructor of a handler extracting them would.
+     *
+     * @param fields the extra fields, see FieldQuery.
+     * @throws IllegalArgumentException if the path of a field is invalid or overlaps another one.
+     */
+    public static void validate(List<FieldQuery> fields) {
+        compile(fields);
+    }
+
+    /**
+     * Compiles the paths of interest, the usual ones and the ones of the extra fields,
+     * either inside the root element or as the root element itself.
+     *
+     * @param fields the extra fields, see FieldQuery.
+     * @return the automaton of the paths.
+     * @throws IllegalArgumentException if the path of a field is invalid or overlaps another one.
+     */
+    private static PathAutomaton compile(List<FieldQuery> fields) {
+        final PathAutomaton paths = new PathAutomaton();
+        for (String root : new String[] {"", "articles."}) {
+            final String meta = root + "article.front.article-meta.";
+            paths.add(root + "article", ARTICLE);
+            paths.add(root + "article.body.sec", SECTION);
+            paths.addSubtree(meta + "abstract", ABSTRACT);
+            paths.addSubtree(meta + "title-group.article-title", TITLE);
+            paths.addSubtree(meta + "title-group.subtitle", SUBTITLE);
+            paths.addSubtree(meta + "contrib-group.contrib.name.surname", SURNAME);
+            paths.addSubtree(meta + "contrib.name.surname", SURNAME);
+            paths.add(meta + "pub-date.year", PUBLICATION_YEAR);
+            for (int i = 0; i < fields.size(); i++) {
+                try {
+                    paths.addSubtree(root + "article." + fields.get(i).getPath(), FIELD + i);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("field " + fields.get(i).getName() + ": " + ex.getMessage(), ex);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Sets the file locator.
+     *
+     * @param locator the document locator.
+     */
+    public void setDocumentLocator(Locator locator) {
+        this.locator = locator;
+    }
+
+    /**
+     * Prepares the handler to parse another file, discarding the state of the previous one.
+     *
+     * @param report the report the results of the next file will be added to.
+     */
+    public void reset(JATSReport report) {
+        this.report = report;
+        this.paths.reset();
+        this.currentArticle = null;
+        this.textValue = PathAutomaton.NO_MATCH;
+        this.readingDTD = false;
+        this.title.clear();
+        this.subtitle.clear();
+        this.abstractText.clear();
+        this.surname.clear();
+        this.publicationYear.clear();
+        for (TextField field : this.fieldText) {
+            field.clear();
+        }
+        this.fieldLevel = -1;
+    }
+
+    /**
+     * Returns the report the results of the file are added to.
+     *
+     * @return the report, complete once the document has been parsed.
+     */
+    public JATSReport getReport() {
+        return this.report;
+    }
+
+    /**
+     * Parsing a mapping of a prefix, e.g.:
+     * xmlns:mml="localhost/abc"
+     *
+     * @param prefix the prefix of the mapping (e.g. xmlns)
+     * @param uri the uri of the mapping (e.g. localhost/abc)
+     */
+    public void startPrefixMapping(String prefix, String uri) {
+        this.report.addNamespace(uri);
+    }
+
+    /**
+     * Parse the start tag of an element. If it's an article, creates a new currentArticle.
+     * If it's a section, increases the section count of the current article.
+     *
+     * @param uri the Namespace URI, or the empty string if the
+     *        element has no Namespace URI or if Namespace
+     *        processing is not being performed.
+     * @param localName the local name (without prefix), or the
+     *        empty string if Namespace processing is not being
+     *        performed.
+     * @param qName the qualified name (with prefix), or the
+     *        empty string if qualified names are not available.
+     * @param atts the attributes attached to the element.  If
+     *        there are no attributes, it shall be an empty
+     *        Attributes object.  The value of this object after
+     *        startElement returns is undefined.
+     */
+    public void startElement(String namespaceURI, String localName, String qName, Attributes atts) {
+        this.endText();
+        this.paths.push(localName, atts);
+        if (this.paths.getValue() >= FIELD && this.fieldLevel < 0) {
+            this.fieldLevel = this.paths.getLevel();
+        }
+        switch (this.paths.getValue()) {
+            case ARTICLE:
+                this.articleEvent = new ArticleEvent();
+                this.articleEvent.begin();
+                this.currentArticle = new Article();
+                this.title.clear();
+                this.subtitle.clear();
+                this.abstractText.clear();
+                break;
+            case SECTION:
+                this.currentArticle.addSection();
+                break;
+        }
+    }
+
+    /**
+     * Parse the end tag of an element. If it's an article,
+     * adds it to the report.
+     *
+     * @param uri the Namespace URI, or the empty string if the
+     *        element has no Namespace URI or if Namespace
+     *        processing is not being performed.
+     * @param localName the local name (without prefix), or the
+     *        empty string if Namespace processing is not being
+     *        performed.
+     * @param qName the qualified XML name (with prefix), or the
+     *        empty string if qualified names are not available.
+     */
+    public void endElement(String namespaceURI, String localName, String qName) {
+        this.endText();
+        if (this.paths.getLevel() == this.fieldLevel) {
+            final int field = this.paths.getValue() - FIELD;
+            if (this.fieldText[field].length() > 0) {
+                this.currentArticle.addField(this.fields.get(field).getName(), this.fieldText[field].toString(this.symbols));
+            }
+            this.fieldText[field].clear();
+            this.fieldLevel = -1;
+        }
+        if (this.paths.getValue() == ARTICLE) {
+            this.currentArticle.setTitle(this.title.toString());
+            this.currentArticle.setSubtitle(this.subtitle.toString());
+            this.currentArticle.setAbstractLength(this.abstractText.length());
+            this.report.addArticle(this.currentArticle);
+            if (this.metrics != null) {
+                this.metrics.addArticle();
+            }
+            this.articleEvent.end();
+            if (this.articleEvent.shouldCommit()) {
+                this.articleEvent.title = this.currentArticle.getFullTitle();
+                this.articleEvent.authors = this.currentArticle.getAuthors().size();
+                this.articleEvent.sections = this.currentArticle.getSections();
+                this.articleEvent.abstractLength = this.currentArticle.getAbstractLength();
+                this.articleEvent.commit();
+            }
+            this.currentArticle = null;
+            this.articleEvent = null;
+        }
+        this.paths.pop();
+    }
+
+    /**
+     * Returns whether the contents of the element that has just started are of no interest,
+     * as no path of interest goes below it and its text isn't needed, e.g. back or body.sec
+     *
+     * @return whether the contents of the current element may be skipped.
+     */
+    public Boolean isSkippable() {
+        return this.paths.isLeaf() && this.getField(this.paths.getValue()) == null;
+    }
+
+    /**
+     * Parses the characters inside a tag.
+     *
+     * @param ch the characters from the XML document.
+     * @param start the start position in the array.
+     * @param length the number of characters to read from the array.
+     */
+    public void characters(char[] ch, int start, int length) {
+        final int value = this.paths.getValue();
+        final TextField field = this.getField(value);
+        if (field != null) {
+            field.append(ch, start, length);
+            this.textValue = value;
+        }
+    }
+
+    /**
+     * Ends the text node that is being read, if it's inside a path of interest.
+     * The parser may deliver a text node in several pieces, depending on its buffers,
+     * so the text is only trimmed once the whole node has been read.
+     * Each surname and publication year node is added to the current article on its own.
+     */
+    private void endText() {
+        if (this.textValue == PathAutomaton.NO_MATCH) {
+            return;
+        }
+        final TextField field = this.getField(this.textValue);
+        field.endNode();
+        switch (this.textValue) {
+            case SURNAME:
+                this.currentArticle.addAuthor(field.toString(this.symbols));
+                field.clear();
+                break;
+            case PUBLICATION_YEAR:
+                this.currentArticle.setPublicationYear(field.toString(this.symbols));
+                field.clear();
+                break;
+        }
+        this.textValue = PathAutomaton.NO_MATCH;
+    }
+
+    /**
+     * Returns the text field of a path.
+     *
+     * @param value the value of the path.
+     * @return the text field of the path, null if its text isn't needed.
+     */
+    private TextField getField(int value) {
+        switch (value) {
+            case ABSTRACT:
+                return this.abstractText;
+            case TITLE:
+                return this.title;
+            case SUBTITLE:
+                return this.subtitle;
+            case SURNAME:
+                return this.surname;
+            case PUBLICATION_YEAR:
+                return this.publicationYear;
+            default:
+                return value >= FIELD ? this.fieldText[value - FIELD] : null;
+        }
+    }
+
+    /**
+     * Parses an XML comment.
+     *
+     * @param ch the characters from the XML document.
+     * @param start the start position in the array.
+     * @param length the number of characters to read from the array.
+     */
+    public void comment(char ch[], int start, int length) {
+        this.endText();
+        if (!this.readingDTD) {
+            this.report.addComment();
+        }
+    }
+
+    /**
+     * Start parsing a DTD file.
+     *
+     * @param name The document type name.
+     * @param publicId The declared public identifier for the
+     *        external DTD subset, or null if none was declared.
+     * @param systemId The declared system identifier for the
+     *        external DTD subset, or null if none was declared.
+     *        (Note that this is not resolved against the document
+     *        base URI).
+     */
+    public void startDTD(String name, String publicId, String systemId) {
+        this.readingDTD = true;
+    }
+
+    /**
+     * Ends the parsing of a DTD file.
+     */
+    public void endDTD() {
+        this.readingDTD = false;
+    }
+
+    /**
+     * Starts parsing a CDATA section, which is a text node of its own.
+     */
+    public void startCDATA() {
+        this.endText();
+    }
+
+    /**
+     * Ends parsing a CDATA section.
+     */
+    public void endCDATA() {
+        this.endText();
+    }
+
+    /**
+     * Adds the strings looked up in the symbol table to the metrics, if they are enabled.
+     */
+    public void endDocument() {
+        this.symbols.report(this.metrics);
+    }
+
+    /* Unused methods: */
+    public void startDocument() {}
+    public void endPrefixMapping(String prefix) {}
+    public void processingInstruction(String target, String data) {}
+    public void ignorableWhitespace(char[] ch, int start, int end) {}
+    public void skippedEntity(String name) {}
+    public void startEntity(String name) {}
+    public void endEntity(String name) {}
+}
+
+/**
+ * The results of one or more XML files in JATS format.
+ * Reports of different files can be merged, the result being the same
+ * as if the files had been parsed one after another.
+ * <p>
+ * A streaming report outputs each article as soon as it's added and only keeps
+ * running aggregates, so its memory doesn't grow with the amount of articles.
+ */
+class JATSReport {
+
+    /**
+     * Whether the articles are output as soon as they are added.
+     */
+    private final Boolean streaming;
+
+    /**
+     * The stream the results are output to.
+     */
+    private final PrintStream out;
+
+    /**
+     * The longest namespace found.
+     */
+    private String longestNamespace = "";
+
+    /**
+     * All the articles that have been found, null if streaming.
+     */
+    private final List<Article> articles;
+
+    /**
+     * The amount of articles found.
+     */
+    private int articleCount = 0;
+
+    /**
+     * The full titles of the articles with the longest abstracts, ranked by the length of their abstracts.
+     */
+    private final TopK<String> longestAbstracts;
+
+    /**
+     * The amount of XML comments found.
+     */
+    private int comments = 0;
+
+    /**
+     * The format of the results.
+     */
+    private final OutputFormat format;
+
+    /**
+     * The writer of the records if the format isn't the text one, null otherwise.
+     */
+    private final RecordWriter records;
+
+    /**
+     * The columns of the records of the articles, the usual ones followed by the extra fields.
+     */
+    private final String[] columns;
+
+    /**
+     * The default constructor, for a report that keeps every article and outputs text to the standard output.
+     */
+    public JATSReport() {
+        this(new Options());
+    }
+
+    /**
+     * The constructor of a report.
+     * In JSONL and CSV each article is a record, in JSONL followed by a summary record.
+     *
+     * @param options the streaming, stream, format, fields and ranking of the report, see Options.
+     */
+    public JATSReport(Options options) {
+        this.streaming = options.streaming;
+        this.longestAbstracts = new TopK<>(options.top);
+        this.out = options.out;
+        this.articles = options.streaming ? null : new ArrayList<>();
+        this.format = options.format;
+        this.records = options.format == OutputFormat.TEXT ? null : new RecordWriter(options.out, options.format, options.streaming);
+        final List<String> columns = new ArrayList<>(Arrays.asList(
+            "type", "title", "subtitle", "authors", "year", "sections", "abstract_length"));
+        columns.addAll(options.fields);
+        this.columns = columns.toArray(new String[0]);
+    }
+
+    /**
+     * Takes into account a namespace, keeping it if it's the longest one.
+     *
+     * @param uri the uri of the namespace.
+     */
+    public void addNamespace(String uri) {
+        if (this.longestNamespace.length() < uri.length()) {
+            this.longestNamespace = uri;
+        }
+    }
 
     /**
-     * The file locator.
+     * Increases the amount of XML comments by one.
      */
-    private Locator locator;
+    public void addComment() {
+        this.comments++;
+    }
 
     /**
-     * The XML file locator.
+     * Adds an article to the report, outputting it if streaming.
+     *
+     * @param article the article that has been found.
      */
-    private XMLLocator xmlLocator = new XMLLocator();
+    public void addArticle(Article article) {
+        this.longestAbstracts.add(article.getFullTitle(), article.getAbstractLength());
+        this.articleCount++;
+        if (this.streaming && this.records != null) {
+            this.writeArticle(article);
+        } else if (this.streaming) {
+            this.out.println("  - " + article.toString());
+        } else {
+            this.articles.add(article);
+        }
+    }
 
     /**
-     * The longest namespace found.
+     * Returns the longest namespace found.
      */
-    private String longestNamespace = "";
+    public String getLongestNamespace() {
+        return this.longestNamespace;
+    }
+
+    /**
+     * Returns the amount of XML comments found.
+     */
+    public int getComments() {
+        return this.comments;
+    }
 
     /**
-     * All the articles that have been found.
+     * Returns the amount of articles found.
      */
-    private final List<Article> articles = new ArrayList<>();
+    public int getArticleCount() {
+        return this.articleCount;
+    }
 
     /**
-     * The amount of XML comments found.
+     * Returns the full titles of the articles with the longest abstracts, ranked by the length of their abstracts.
      */
-    private int comments = 0;
+    public TopK<String> getLongestAbstracts() {
+        return this.longestAbstracts;
+    }
 
     /**
-     * The article that is currently being parsed.
+     * Adds the aggregates of articles that aren't in the report, e.g. the ones of a directory being watched,
+     * as if they had been added after the ones of the report.
+     *
+     * @param namespace the longest namespace of the articles.
+     * @param comments the amount of XML comments.
+     * @param articles the amount of articles.
+     * @param longestAbstracts the full titles of the articles with the longest abstracts.
      */
-    private Article currentArticle;
+    public void addTotals(String namespace, int comments, int articles, TopK<String> longestAbstracts) {
+        this.addNamespace(namespace);
+        this.comments += comments;
+        this.articleCount += articles;
+        this.longestAbstracts.addAll(longestAbstracts);
+    }
 
     /**
-     * Whether it's currenly parsing the DTD files.
+     * Returns the articles of the report.
+     *
+     * @return the articles, in the order they were found, or null if streaming.
      */
-    private Boolean readingDTD = false;
+    public List<Article> getArticles() {
+        return this.articles;
+    }
 
     /**
-     * Returns a path starting from the article level.
-     * e.g. if the current level is articles.article.front.name,
-     *      it will return "article.front.name".
+     * Writes the record of an article.
      *
-     * @return the the current level relative to the article root.
+     * @param article the article.
      */
-    private String getRelativePath() {
-        String articlePath = this.xmlLocator.getPath();
-        if (articlePath.startsWith("articles.")) {
-            return articlePath.substring(9);
-        } else if (articlePath.equals("articles")) {
-            return "..";
+    private void writeArticle(Article article) {
+        final Object[] values = new Object[this.columns.length];
+        values[0] = "article";
+        values[1] = article.getTitle();
+        values[2] = article.getSubtitle();
+        values[3] = article.getAuthors();
+        values[4] = article.getPublicationYear();
+        values[5] = article.getSections();
+        values[6] = article.getAbstractLength();
+        for (int i = 7; i < values.length; i++) {
+            values[i] = article.getFields().getOrDefault(this.columns[i], new ArrayList<>());
         }
-        return articlePath;
+        this.records.write(this.columns, values);
     }
 
     /**
-     * Sets the file locator.
+     * Adds the results of a file parsed after the ones of this report.
      *
-     * @param locator the document locator.
+     * @param report the results of the file.
      */
-    public void setDocumentLocator(Locator locator) {
-        this.locator = locator;
+    public void merge(JATSReport report) {
+        this.addNamespace(report.longestNamespace);
+        this.comments += report.comments;
+        if (report.streaming) {
+            this.longestAbstracts.addAll(report.longestAbstracts);
+            this.articleCount += report.articleCount;
+        } else {
+            for (Article article : report.articles) {
+                this.addArticle(article);
+            }
+        }
     }
 
     /**
-     * Ends the parsing of the file and shows the result.
+     * Writes the results of a file in binary form, to be stored in a ResultCache.
+     * Only reports that keep their articles can be written.
+     *
+     * @param out the stream the results are written to.
      */
-    public void endDocument() {
-        System.out.println("- El espacio de nombres más largo: " + longestNamespace);
-        String longestAbstract = this.articles.stream()
-            .max((a, b) -> a.getAbstract().length() - b.getAbstract().length())
-            .map(article -> article.getFullTitle())
-            .orElse("");
-        System.out.println("- El abstract más largo es el del artículo: \"" + longestAbstract + "\".");
-        System.out.println("- Número de comentarios: " + this.comments);
-        System.out.println("- Artículos que aparecen: " + this.articles.size());
+    public void write(DataOutputStream out) throws IOException {
+        ResultCache.writeString(out, this.longestNamespace);
+        out.writeInt(this.comments);
+        out.writeInt(this.articles.size());
         for (Article article : this.articles) {
-            System.out.println("  - " + article.toString());
+            article.write(out);
         }
     }
 
     /**
-     * Parsing a mapping of a prefix, e.g.:
-     * xmlns:mml="localhost/abc"
+     * Reads the results of a file written by write.
      *
-     * @param prefix the prefix of the mapping (e.g. xmlns)
-     * @param uri the uri of the mapping (e.g. localhost/abc)
+     * @param in the stream the results are read from.
+     * @return a report that keeps the articles of the file.
      */
-    public void startPrefixMapping(String prefix, String uri) {
-        if (this.longestNamespace.length() < uri.length()) {
-            this.longestNamespace = uri;
+    public static JATSReport read(DataInputStream in) throws IOException {
+        final JATSReport report = new JATSReport();
+        report.addNamespace(ResultCache.readString(in));
+        report.comments = in.readInt();
+        for (int articles = in.readInt(); articles > 0; articles--) {
+            report.addArticle(Article.read(in));
         }
+        return report;
     }
 
     /**
-     * Parse the start tag of an element. If it's an article, creates a new currentArticle.
-     * If it's a section, increases the section count of the current article.
+     * Writes the options of the report that its state depends on, to be checked by checkOptions
+     * before restoring a state written by writeState.
      *
-     * @param uri the Namespace URI, or the empty string if the
-     *        element has no Namespace URI or if Namespace
-     *        processing is not being performed.
-     * @param localName the local name (without prefix), or the
-     *        empty string if Namespace processing is not being
-     *        performed.
-     * @param qName the qualified name (with prefix), or the
-     *        empty string if qualified names are not available.
-     * @param atts the attributes attached to the element.  If
-     *        there are no attributes, it shall be an empty
-     *        Attributes object.  The value of this object after
-     *        startElement returns is undefined.
+     * @param out the stream the options are written to.
      */
-    public void startElement(String namespaceURI, String localName, String qName, Attributes atts) {
-        this.xmlLocator.push(localName);
-        switch (this.getRelativePath()) {
-            case "article":
-                this.currentArticle = new Article();
-                break;
-            case "article.body.sec":
-                this.currentArticle.addSection();
-                break;
+    public void writeOptions(DataOutputStream out) throws IOException {
+        out.writeBoolean(this.streaming);
+        out.writeInt(this.longestAbstracts.getK());
+        out.writeInt(this.columns.length);
+        for (String column : this.columns) {
+            ResultCache.writeString(out, column);
         }
     }
 
     /**
-     * Parse the end tag of an element. If it's an article,
-     * saves it in the articles list.
+     * Checks that the options written by writeOptions are the ones of this report,
+     * with the same streaming, fields and ranking, so resuming a parse gives the same results.
      *
-     * @param uri the Namespace URI, or the empty string if the
-     *        element has no Namespace URI or if Namespace
-     *        processing is not being performed.
-     * @param localName the local name (without prefix), or the
-     *        empty string if Namespace processing is not being
-     *        performed.
-     * @param qName the qualified XML name (with prefix), or the
-     *        empty string if qualified names are not available.
+     * @param in the stream the options are read from.
+     * @throws IOException if the options can't be read or the report was created with other ones.
      */
-    public void endElement(String namespaceURI, String localName, String qName) {
-        if (this.getRelativePath().equals("article")) {
-            this.articles.add(this.currentArticle);
-            this.currentArticle = null;
+    public void checkOptions(DataInputStream in) throws IOException {
+        final boolean streaming = in.readBoolean();
+        final int top = in.readInt();
+        final String[] columns = new String[in.readInt()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ResultCache.readString(in);
+        }
+        if (streaming != this.streaming || top != this.longestAbstracts.getK() || !Arrays.equals(columns, this.columns)) {
+            throw new IOException("Invalid state, the report was created with other options");
         }
-        this.xmlLocator.pop();
     }
 
     /**
-     * Parses the characters inside a tag.
+     * Writes the state of the report in binary form, to be restored by readState when resuming a parse:
+     * the aggregates, which include the ones of the articles already output if streaming,
+     * and the articles kept from a given one on, so a log of states holds each article once.
      *
-     * @param ch the characters from the XML document.
-     * @param start the start position in the array.
-     * @param length the number of characters to read from the array.
+     * @param out the stream the state is written to.
+     * @param from the index of the first article written, the previous ones being in an earlier state.
      */
-    public void characters(char[] ch, int start, int length) {
-        String relativePath = this.getRelativePath();
-        if (relativePath.startsWith("article.front.article-meta.")) {
-            String frontMeta = relativePath.substring(27);
-            if (frontMeta.startsWith("abstract")) {
-                this.currentArticle.appendAbstract(new String(ch, start, length).trim());
-            }
-            else if (frontMeta.startsWith("title-group.article-title")) {
-                this.currentArticle.appendTitle(new String(ch, start, length).trim());
-            }
-            else if (frontMeta.startsWith("title-group.subtitle")) {
-                this.currentArticle.appendSubtitle(new String(ch, start, length).trim());
-            }
-            else if (frontMeta.startsWith("contrib-group.contrib.name.surname")
-                    || frontMeta.startsWith("contrib.name.surname")) {
-                this.currentArticle.addAuthor(new String(ch, start, length).trim());
-            }
-            else if (frontMeta.equals("pub-date.year")) {
-                this.currentArticle.setPublicationYear(new String(ch, start, length).trim());
+    public void writeState(DataOutputStream out, int from) throws IOException {
+        ResultCache.writeString(out, this.longestNamespace);
+        out.writeInt(this.comments);
+        out.writeInt(this.articleCount);
+        final List<TopK.Ranked<String>> entries = this.longestAbstracts.getEntries();
+        out.writeInt(entries.size());
+        for (TopK.Ranked<String> ranked : entries) {
+            ResultCache.writeString(out, ranked.getValue());
+            out.writeLong(ranked.getScore());
+        }
+        if (!this.streaming) {
+            out.writeInt(this.articles.size() - from);
+            for (Article article : this.articles.subList(from, this.articles.size())) {
+                article.write(out);
             }
         }
     }
 
-
     /**
-     * Parses an XML comment.
+     * Restores a state written by writeState into this report, whose options must have been checked
+     * by checkOptions: its aggregates replace the ones of the report, and its articles
+     * are kept after the ones of the report, which must be the ones before them.
      *
-     * @param ch the characters from the XML document.
-     * @param start the start position in the array.
-     * @param length the number of characters to read from the array.
+     * @param in the stream the state is read from.
      */
-    public void comment(char ch[], int start, int length) {
-        if (!this.readingDTD) {
-            this.comments++;
+    public void readState(DataInputStream in) throws IOException {
+        this.longestNamespace = ResultCache.readString(in);
+        this.comments = in.readInt();
+        this.articleCount = in.readInt();
+        this.longestAbstracts.clear();
+        for (int entries = in.readInt(); entries > 0; entries--) {
+            this.longestAbstracts.add(ResultCache.readString(in), in.readLong());
+        }
+        if (!this.streaming) {
+            for (int articles = in.readInt(); articles > 0; articles--) {
+                this.articles.add(Article.read(in));
+            }
         }
     }
 
     /**
-     * Start parsing a DTD file.
-     *
-     * @param name The document type name.
-     * @param publicId The declared public identifier for the
-     *        external DTD subset, or null if none was declared.
-     * @param systemId The declared system identifier for the
-     *        external DTD subset, or null if none was declared.
-     *        (Note that this is not resolved against the document
-     *        base URI).
+     * Shows the results, if streaming, the articles have already been shown.
      */
-    public void startDTD(String name, String publicId, String systemId) {
-        this.readingDTD = true;
+    public void print() {
+        final ReportEvent event = new ReportEvent();
+        final ParseMetrics metrics = ParseMetrics.get();
+        final long start = metrics == null ? 0 : System.nanoTime();
+        event.begin();
+        if (this.records != null) {
+            this.printRecords();
+        } else {
+            this.printText();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.articles = this.articleCount;
+            event.commit();
+        }
+        if (metrics != null) {
+            metrics.addReport(System.nanoTime() - start);
+        }
     }
 
     /**
-     * Ends the parsing of a DTD file.
+     * Shows the results as records, the articles that haven't been shown followed,
+     * in JSONL, by a summary record. CSV has no summary, as its records can't have other columns.
      */
-    public void endDTD() {
-        this.readingDTD = false;
+    private void printRecords() {
+        if (!this.streaming) {
+            for (Article article : this.articles) {
+                this.writeArticle(article);
+            }
+        }
+        if (this.format == OutputFormat.JSONL) {
+            /* The rankings are arrays whatever their size, so the records have a single schema */
+            this.records.write(
+                new String[] {"type", "longest_namespace", "longest_abstracts", "comments", "articles"},
+                new Object[] {"summary", this.longestNamespace, this.longestAbstracts.getValues(), this.comments, this.articleCount});
+        }
+        this.records.flush();
     }
 
-    /* Unused methods: */
-    public void startDocument() {}
-    public void endPrefixMapping(String prefix) {}
-    public void processingInstruction(String target, String data) {}
-    public void ignorableWhitespace(char[] ch, int start, int end) {}
-    public void skippedEntity(String name) {}
-    public void startCDATA() {}
-    public void endCDATA() {}
-    public void startEntity(String name) {}
-    public void endEntity(String name) {}
+    /**
+     * Shows the results as text.
+     */
+    private void printText() {
+        this.out.println("- El espacio de nombres más largo: " + this.longestNamespace);
+        if (this.longestAbstracts.getK() == 1) {
+            this.out.println("- El abstract más largo es el del artículo: \"" + this.longestAbstracts.getFirst("") + "\".");
+        } else {
+            this.out.println("- Los abstracts más largos son los de los artículos:");
+            for (TopK.Ranked<String> ranked : this.longestAbstracts.getRanking()) {
+                this.out.println("  - \"" + ranked.getValue() + "\" (" + ranked.getScore() + " caracteres).");
+            }
+        }
+        this.out.println("- Número de comentarios: " + this.comments);
+        this.out.println("- Artículos que aparecen: " + this.articleCount);
+        if (!this.streaming) {
+            for (Article article : this.articles) {
+                this.out.println("  - " + article.toString());
+            }
+        }
+        this.out.flush();
+    }
+
+    /**
+     * The options of a report, each one defaulting to the one of the default constructor.
+     */
+    public static class Options {
+
+        private Boolean streaming = false;
+        private PrintStream out = System.out;
+        private OutputFormat format = OutputFormat.TEXT;
+        private List<String> fields = Collections.emptyList();
+        private int top = 1;
+
+        /**
+         * Sets whether each article is output as soon as it's added instead of keeping them all.
+         */
+        public Options streaming(Boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Sets the stream the results are output to.
+         */
+        public Options out(PrintStream out) {
+            this.out = out;
+            return this;
+        }
+
+        /**
+         * Sets the format of the results.
+         */
+        public Options format(OutputFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the names of the extra fields of the articles, see FieldQuery.
+         */
+        public Options fields(List<String> fields) {
+            this.fields = fields;
+            return this;
+        }
+
+        /**
+         * Sets the amount of articles with the longest abstracts shown.
+         */
+        public Options top(int top) {
+            this.top = top;
+            return this;
+        }
+    }
 }
 
 /**
- * The XML locator, keeps track of the current level of the tag that us being parsed.
+ * A reusable text buffer for a field made of several text nodes.
+ * Each node is trimmed and the non-empty ones are joined by a space,
+ * the pieces of the nodes being appended straight from the parser's buffers.
+ * A String is only created when the value is needed, and a field that only
+ * needs its length doesn't keep the text at all.
  */
-class XMLLocator {
+class TextField {
+
+    /**
+     * The text of the field, null if only its length is kept.
+     */
+    private char[] chars;
+
+    /**
+     * The length of the field, including the trailing whitespace of the current node.
+     */
+    private int position = 0;
+
+    /**
+     * The length of the field without the trailing whitespace of the current node.
+     */
+    private int end = 0;
+
+    /**
+     * Whether a non-whitespace character of the current node has been appended.
+     */
+    private Boolean nodeStarted = false;
+
+    /**
+     * The value of the field, null if it has changed since it was last created.
+     */
+    private String value = "";
+
     /**
-     * The list of each level in ascending depth order.
+     * The constructor of a text field.
+     *
+     * @param keepText whether the text is kept, otherwise only its length is.
      */
-    private final Stack<String> position = new Stack<>();
+    public TextField(Boolean keepText) {
+        this.chars = keepText ? new char[64] : null;
+    }
 
     /**
-     * Sets the new current level.
+     * Appends a piece of the current node.
      *
-     * @param element the name of the tag.
+     * @param ch the characters from the XML document.
+     * @param start the start position in the array.
+     * @param length the number of characters to read from the array.
+     */
+    public void append(char[] ch, int start, int length) {
+        int from = start;
+        final int to = start + length;
+
+        /* Skip the leading whitespace of the node, and separate it from the previous one */
+        if (!this.nodeStarted) {
+            while (from < to && ch[from] <= ' ') {
+                from++;
+            }
+            if (from == to) {
+                return;
+            }
+            this.nodeStarted = true;
+            if (this.end > 0) {
+                this.write(null, 0, 1);
+            }
+        }
+
+        /* The trailing whitespace is kept in case more text follows */
+        int last = to;
+        while (last > from && ch[last - 1] <= ' ') {
+            last--;
+        }
+        this.write(ch, from, to - from);
+        if (last > from) {
+            this.end = this.position - (to - last);
+        }
+    }
+
+    /**
+     * Ends the current node, discarding its trailing whitespace.
      */
-    public void push(String element) {
-        this.position.push(element);
+    public void endNode() {
+        this.position = this.end;
+        this.nodeStarted = false;
+        this.value = null;
     }
 
     /**
-     * Goes back one level.
+     * Empties the field, keeping its buffer.
      */
-    public void pop() {
-        this.position.pop();
+    public void clear() {
+        this.position = 0;
+        this.end = 0;
+        this.nodeStarted = false;
+        this.value = "";
     }
 
     /**
-     * Returns the current level.
+     * Returns the length of the field.
+     *
+     * @return the length of the field.
      */
-    public String getElement() {
-        return this.position.peek();
+    public int length() {
+        return this.end;
     }
 
     /**
-     * Returns the depth of the current level.
+     * Returns the value of the field, which can't be used if only its length is kept.
+     *
+     * @return the value of the field.
      */
-    public int getLevel() {
-        return this.position.size();
+    @Override
+    public String toString() {
+        if (this.value == null) {
+            this.value = new String(this.chars, 0, this.end);
+        }
+        return this.value;
     }
 
     /**
-     * Returns a list with the current route in ascending depth order.
+     * Returns the value of the field, shared with the equal values of a symbol table.
      *
-     * @return a list with the current route in ascending depth order.
-     * #see position
-     * #see getPath
+     * @param symbols the symbol table.
+     * @return the value of the field.
      */
-    public List<String> getRoute() {
-        return new LinkedList<>(this.position);
+    public String toString(SymbolTable symbols) {
+        if (this.value == null) {
+            this.value = symbols.intern(this.chars, 0, this.end);
+        }
+        return this.value;
     }
 
     /**
-     * Returns a string with the current route in ascending depth order.
+     * Writes characters at the end of the field.
      *
-     * @return a string with the current route in ascending depth order.
-     * #see position
-     * #see getRoute
+     * @param ch the characters, null for a single space.
+     * @param start the start position in the array.
+     * @param length the number of characters to write.
      */
-    public String getPath() {
-        return String.join(".", this.position);
+    private void write(char[] ch, int start, int length) {
+        if (this.chars != null) {
+            if (this.position + length > this.chars.length) {
+                this.chars = Arrays.copyOf(this.chars, Math.max(this.chars.length * 2, this.position + length));
+            }
+            if (ch == null) {
+                this.chars[this.position] = ' ';
+            } else {
+                System.arraycopy(ch, start, this.chars, this.position, length);
+            }
+        }
+        this.position += length;
     }
 }
 
@@ -451,9 +1747,9 @@ class Article {
     private String subtitle = "";
 
     /**
-     * The abstract of the article.
+     * The length of the abstract of the article.
      */
-    private String abstract_text = "";
+    private int abstractLength = 0;
 
     /**
      * A list of all the authors of the article.
@@ -471,16 +1767,17 @@ class Article {
     private int sections = 0;
 
     /**
-     * Adds text to the article.
+     * The values of the extra fields of the article, in the order they were found.
+     */
+    private final Map<String, List<String>> fields = new LinkedHashMap<>();
+
+    /**
+     * Sets the title of the article.
      *
-     * @param title the text to be added to the article.
+     * @param title the title of the article.
      */
-    public void appendTitle(String title) {
-        if (this.title.isEmpty()) {
-            this.title = title;
-        } else if (!title.isEmpty()) {
-            this.title += " " + title;
-        }
+    public void setTitle(String title) {
+        this.title = title;
     }
 
     /**
@@ -493,16 +1790,12 @@ class Article {
     }
 
     /**
-     * Adds text to the subtitle.
+     * Sets the subtitle of the article.
      *
-     * @param subtitle the text to be added to the subtitle.
+     * @param subtitle the subtitle of the article.
      */
-    public void appendSubtitle(String subtitle) {
-        if (this.subtitle.isEmpty()) {
-            this.subtitle = subtitle;
-        } else if (!subtitle.isEmpty()) {
-            this.subtitle += " " + subtitle;
-        }
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
     }
 
     /**
@@ -515,25 +1808,21 @@ class Article {
     }
 
     /**
-     * Adds text to the abstract.
+     * Sets the length of the abstract, the text itself isn't kept.
      *
-     * @param abstract_text the text to be added to the abstract.
+     * @param abstractLength the length of the abstract.
      */
-    public void appendAbstract(String abstract_text) {
-        if (this.abstract_text.isEmpty()) {
-            this.abstract_text = abstract_text;
-        } else if (!abstract_text.isEmpty()) {
-            this.abstract_text += " " + abstract_text;
-        }
+    public void setAbstractLength(int abstractLength) {
+        this.abstractLength = abstractLength;
     }
 
     /**
-     * Returns the abstract of the article.
+     * Returns the length of the abstract of the article.
      *
-     * @return the abstract of the article.
+     * @return the length of the abstract of the article.
      */
-    public String getAbstract() {
-        return abstract_text;
+    public int getAbstractLength() {
+        return abstractLength;
     }
 
     /**
@@ -590,6 +1879,75 @@ class Article {
         return sections;
     }
 
+    /**
+     * Adds a value of an extra field of the article.
+     *
+     * @param name the name of the field.
+     * @param value the value.
+     */
+    public void addField(String name, String value) {
+        this.fields.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+    }
+
+    /**
+     * Returns the values of the extra fields of the article, in the order they were found.
+     *
+     * @return the values of each field.
+     */
+    public Map<String, List<String>> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Writes the article in binary form, see JATSReport.write.
+     *
+     * @param out the stream the article is written to.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        ResultCache.writeString(out, this.title);
+        ResultCache.writeString(out, this.subtitle);
+        out.writeInt(this.abstractLength);
+        out.writeInt(this.authors.size());
+        for (String author : this.authors) {
+            ResultCache.writeString(out, author);
+        }
+        out.writeInt(this.publicationYear);
+        out.writeInt(this.sections);
+        out.writeInt(this.fields.size());
+        for (Map.Entry<String, List<String>> field : this.fields.entrySet()) {
+            ResultCache.writeString(out, field.getKey());
+            out.writeInt(field.getValue().size());
+            for (String value : field.getValue()) {
+                ResultCache.writeString(out, value);
+            }
+        }
+    }
+
+    /**
+     * Reads an article written by write.
+     *
+     * @param in the stream the article is read from.
+     * @return the article.
+     */
+    public static Article read(DataInputStream in) throws IOException {
+        final Article article = new Article();
+        article.title = ResultCache.readString(in);
+        article.subtitle = ResultCache.readString(in);
+        article.abstractLength = in.readInt();
+        for (int authors = in.readInt(); authors > 0; authors--) {
+            article.authors.add(ResultCache.readString(in));
+        }
+        article.publicationYear = in.readInt();
+        article.sections = in.readInt();
+        for (int fields = in.readInt(); fields > 0; fields--) {
+            final String name = ResultCache.readString(in);
+            for (int values = in.readInt(); values > 0; values--) {
+                article.addField(name, ResultCache.readString(in));
+            }
+        }
+        return article;
+    }
+
     /**
      * Returns the full title of the article (title: subtitle).
      *
@@ -607,8 +1965,89 @@ class Article {
      */
     @Override
     public String toString() {
-        return "\"" + getTitle() + "\" escrito por " + String.join(", ", getAuthors()) +
+        final StringBuilder string = new StringBuilder("\"" + getTitle() + "\" escrito por " + String.join(", ", getAuthors()) +
             ". Se publicó en el " + getPublicationYear() +
-            ". Nº de secciones: " + getSections() + ".";
+            ". Nº de secciones: " + getSections() + ".");
+        for (Map.Entry<String, List<String>> field : this.fields.entrySet()) {
+            string.append(' ').append(field.getKey()).append(": ").append(String.join(", ", field.getValue())).append('.');
+        }
+        return string.toString();
     }
-}
\ No newline at end of file
+}
+
+/**
+ * An extra field extracted from each article, e.g. doi = front.article-meta.article-id[@pub-id-type='doi']
+ * Its path is relative to the article, each step may require an attribute or an attribute value,
+ * and the text of each element matching it, descendants included, is a value of the field.
+ */
+class FieldQuery {
+
+    /**
+     * The name of the field.
+     */
+    private final String name;
+
+    /**
+     * The path of the field, relative to the article.
+     */
+    private final String path;
+
+    /**
+     * The constructor of a field.
+     *
+     * @param name the name of the field.
+     * @param path the path of the field, relative to the article, e.g. front.journal-meta.journal-title
+     */
+    public FieldQuery(String name, String path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * Returns the name of the field.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the path of the field, relative to the article.
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * Reads the fields of a file, one NAME = PATH per line.
+     * Empty lines and lines starting with # are ignored.
+     *
+     * @param uri the URI of the file.
+     * @return the fields, in the order of the file.
+     * @throws IllegalArgumentException if a line isn't a field or a name is repeated.
+     */
+    public static List<FieldQuery> load(String uri) throws IOException {
+        final List<FieldQuery> fields = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(uri), StandardCharsets.UTF_8)) {
+            String line;
+            for (int number = 1; (line = reader.readLine()) != null; number++) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final int equals = line.indexOf('=');
+                final String name = equals < 0 ? "" : line.substring(0, equals).trim();
+                final String path = equals < 0 ? "" : line.substring(equals + 1).trim();
+                if (name.isEmpty() || path.isEmpty()) {
+                    throw new IllegalArgumentException("line " + number + " isn't NAME = PATH");
+                }
+                for (FieldQuery field : fields) {
+                    if (field.getName().equals(name)) {
+                        throw new IllegalArgumentException("line " + number + " repeats the field " + name);
+                    }
+                }
+                fields.add(new FieldQuery(name, path));
+            }
+        }
+        return fields;
+    }
+}
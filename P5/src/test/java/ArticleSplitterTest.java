@@ -0,0 +1,113 @@
+/* ArticleSplitterTest imports */
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The boundaries found by an ArticleSplitter are article start tags, never markup that looks like one,
+ * and a SplitParser parsing the chunks between them outputs the same results as a single-pass parse of the file.
+ */
+class ArticleSplitterTest {
+
+    /**
+     * The amount of articles of the tricky document, enough for several chunks.
+     */
+    private static final int ARTICLES = 6000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generatedChunksOutputAsASinglePass() throws IOException {
+        final Path file = this.directory.resolve("articles.xml");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new JATSGenerator(4000, 60, 3, 0.3, 0.3, 2, 1).generate(out);
+        }
+        final byte[] contents = Files.readAllBytes(file);
+
+        final List<Long> boundaries = boundaries(file, 4096);
+        assertTrue(boundaries.size() > 10);
+        long previous = 0;
+        for (long boundary : boundaries) {
+            assertTrue(boundary >= previous + 4096);
+            assertTrue(new String(contents, (int) boundary, 9, StandardCharsets.ISO_8859_1).matches("<article[ >]"));
+            previous = boundary;
+        }
+        assertEquals(Outputs.single(Outputs.parser(), file.toString()), split(file));
+    }
+
+    @Test
+    void markupThatLooksLikeAnArticleIsSkipped() throws IOException {
+        final StringBuilder document = new StringBuilder();
+        document.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        document.append("<!-- <article id=\"fake\"> in the prolog -->\n");
+        document.append("<!DOCTYPE articles [\n");
+        document.append("  <!-- <article id=\"fake\"> in the internal subset -->\n");
+        document.append("  <?note <article id=\"fake\"> ?>\n");
+        document.append("  <!ENTITY org \"Universidad de Burgos ]>\">\n");
+        document.append("  <!ENTITY fake \"<article id='fake'>\">\n");
+        document.append("]>\n");
+        document.append("<articles>\n");
+        for (int i = 0; i < ARTICLES; i++) {
+            document.append("<!-- <article id=\"fake\"> -->\n");
+            document.append("<article id=\"a").append(i).append("\" article-type=\"research-article\">\n");
+            document.append("  <front><article-meta>\n");
+            document.append("    <title-group><article-title>Title ").append(i)
+                .append(" <![CDATA[<article id=\"fake\"> ]]></article-title></title-group>\n");
+            document.append("    <contrib-group><contrib contrib-type=\"author\"><name><surname>Surname ").append(i % 3)
+                .append("</surname></name><aff>&org;</aff></contrib></contrib-group>\n");
+            document.append("    <pub-date pub-type=\"ppub\"><year>").append(2000 + i).append("</year></pub-date>\n");
+            document.append("    <?note <article id=\"fake\"> ?>\n");
+            document.append("    <abstract><p>Abstract &lt;article id=\"fake\"&gt; ").append(i).append("</p></abstract>\n");
+            document.append("  </article-meta></front>\n");
+            document.append("  <body><sec id=\"s1\"><title>Section</title><p>Text</p></sec></body>\n");
+            document.append("</article>\n");
+        }
+        document.append("</articles>\n");
+        final Path file = Files.write(this.directory.resolve("tricky.xml"), document.toString().getBytes(StandardCharsets.UTF_8));
+
+        /* Every article is a boundary, even the first one, as it's after the prolog */
+        final List<Long> expected = new ArrayList<>();
+        int position = 0;
+        for (int i = 0; i < ARTICLES; i++) {
+            position = document.indexOf("<article id=\"a" + i + "\"", position);
+            expected.add((long) position);
+        }
+        assertEquals(expected, boundaries(file, 1));
+        assertEquals(Outputs.single(Outputs.parser(), file.toString()), split(file));
+    }
+
+    /**
+     * Returns every boundary of a file.
+     */
+    private static List<Long> boundaries(Path file, long chunkSize) throws IOException {
+        final List<Long> boundaries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ArticleSplitter splitter = new ArticleSplitter(channel, chunkSize);
+            for (long boundary = splitter.nextBoundary(); boundary >= 0; boundary = splitter.nextBoundary()) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Returns the output of a file parsed by a SplitParser of several workers, asserting it was split.
+     */
+    private static String split(Path file) throws IOException {
+        assertTrue(Files.size(file) > 2 * 1024 * 1024);
+        final SplitParser parser = new SplitParser(Outputs.parser(), false, 4, false);
+        return Outputs.stdout(() -> parser.parse(file.toString()));
+    }
+}
@@ -0,0 +1,181 @@
+/* AuthorIndexTest imports */
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The segments written by an AuthorIndex answer the queries with the articles of a single-pass parse of the files.
+ */
+class AuthorIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void segmentsRoundTrip() throws IOException {
+        final Path corpus = this.corpus();
+        final Path index = this.directory.resolve("index");
+        assertEquals(parse(corpus).size(), new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 2));
+
+        assertMatches(new AuthorIndex(index.toString()), corpus);
+    }
+
+    @Test
+    void queriesIgnoreCaseAccentsAndYears() throws IOException {
+        final Path corpus = this.corpus();
+        final AuthorIndex index = new AuthorIndex(this.directory.resolve("index").toString());
+        index.add(sources(corpus), new XMLParser(), 1);
+        final List<Article> articles = parse(corpus);
+
+        assertEquals(expected(articles, "García-Osorio", 0, 9999), titles(index.query("GARCIA-osorio", 0, 9999)));
+        assertEquals(expected(articles, "García-Osorio", 2010, 2010), titles(index.query("garcia-osorio", 2010, 2010)));
+        assertEquals(expected(articles, "García-Osorio", 2011, 9999), titles(index.query("garcia-osorio", 2011, 9999)));
+
+        /* A prefix matches every surname starting with it, each article once */
+        final List<String> prefixed = new ArrayList<>();
+        for (Article article : articles) {
+            if (article.getAuthors().stream().anyMatch(author -> AuthorIndex.key(author).startsWith("garc"))) {
+                prefixed.add(article.getFullTitle());
+            }
+        }
+        Collections.sort(prefixed);
+        assertEquals(prefixed, titles(index.query("Garc*", Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        assertEquals(0, index.query("nobody", Integer.MIN_VALUE, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void changedAndRemovedFiles() throws IOException {
+        final Path corpus = this.corpus();
+        final Path index = this.directory.resolve("index");
+        new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 1);
+
+        /* Unchanged files aren't indexed again, modified ones replace their articles, the two of example2.xml */
+        assertEquals(0, new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 1));
+        Files.copy(corpus.resolve("example2.xml"), corpus.resolve("example1.xml"), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(2, new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 1));
+        assertMatches(new AuthorIndex(index.toString()), corpus);
+
+        /* The files that no longer exist are removed */
+        Files.delete(corpus.resolve("example1.xml"));
+        assertEquals(0, new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 1));
+        assertMatches(new AuthorIndex(index.toString()), corpus);
+    }
+
+    @Test
+    void compactionKeepsTheLiveArticles() throws IOException {
+        final Path corpus = this.corpus();
+        final Path index = this.directory.resolve("index");
+        final List<String> files = Arrays.asList("articles.xml", "example1.xml", "example2.xml");
+        for (String file : files) {
+            new AuthorIndex(index.toString()).add(Collections.singletonList(corpus.resolve(file).toString()), new XMLParser(), 1);
+        }
+        Files.delete(corpus.resolve("example2.xml"));
+        new AuthorIndex(index.toString()).add(sources(corpus), new XMLParser(), 1);
+        assertEquals(3, segments(index).size());
+
+        new AuthorIndex(index.toString()).compact();
+        assertEquals(1, segments(index).size());
+        assertMatches(new AuthorIndex(index.toString()), corpus);
+    }
+
+    /**
+     * Returns a corpus of the examples and a generated file of 200 articles.
+     */
+    private Path corpus() throws IOException {
+        final Path corpus = Files.createDirectories(this.directory.resolve("corpus"));
+        for (String example : Arrays.asList("example1.xml", "example2.xml")) {
+            Files.copy(Path.of("assets", example), corpus.resolve(example));
+        }
+        try (Writer out = Files.newBufferedWriter(corpus.resolve("articles.xml"), StandardCharsets.UTF_8)) {
+            new JATSGenerator(200, 20, 2, 0.05, 0.05, 1, 1).generate(out);
+        }
+        return corpus;
+    }
+
+    /**
+     * Asserts that the index has the articles of the files of a corpus, and only them,
+     * looking up every surname of the corpus and the ones of the examples.
+     */
+    private static void assertMatches(AuthorIndex index, Path corpus) throws IOException {
+        final List<Article> articles = parse(corpus);
+        final TreeSet<String> surnames = surnames(articles);
+        surnames.addAll(Arrays.asList("García-Osorio", "de Haro-García", "Alonso"));
+        for (String surname : surnames) {
+            assertEquals(expected(articles, surname, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                titles(index.query(surname, Integer.MIN_VALUE, Integer.MAX_VALUE)), surname);
+        }
+    }
+
+    private static List<String> sources(Path corpus) {
+        return Collections.singletonList(corpus.toString());
+    }
+
+    /**
+     * Returns the articles of every file of a corpus, parsed at once.
+     */
+    private static List<Article> parse(Path corpus) throws IOException {
+        final XMLParser parser = new XMLParser();
+        final List<Article> articles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(corpus)) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                articles.addAll(parser.parse(parser.createReader(false), file.toString(), new JATSReport()).getArticles());
+            }
+        }
+        return articles;
+    }
+
+    private static TreeSet<String> surnames(List<Article> articles) {
+        final TreeSet<String> surnames = new TreeSet<>();
+        for (Article article : articles) {
+            surnames.addAll(article.getAuthors());
+        }
+        return surnames;
+    }
+
+    /**
+     * Returns the sorted titles of the articles of an author published in some years.
+     */
+    private static List<String> expected(List<Article> articles, String surname, int from, int to) {
+        final List<String> titles = new ArrayList<>();
+        for (Article article : articles) {
+            final Boolean authored = article.getAuthors().stream().anyMatch(author -> AuthorIndex.key(author).equals(AuthorIndex.key(surname)));
+            if (authored && article.getPublicationYear() >= from && article.getPublicationYear() <= to) {
+                titles.add(article.getFullTitle());
+            }
+        }
+        Collections.sort(titles);
+        return titles;
+    }
+
+    private static List<String> titles(List<IndexedArticle> articles) {
+        final List<String> titles = new ArrayList<>();
+        for (IndexedArticle article : articles) {
+            titles.add(article.getTitle());
+        }
+        Collections.sort(titles);
+        return titles;
+    }
+
+    private static List<Path> segments(Path index) throws IOException {
+        try (Stream<Path> files = Files.list(index)) {
+            final List<Path> segments = files.filter(file -> file.getFileName().toString().endsWith(".idx")).collect(Collectors.toList());
+            assertTrue(segments.stream().allMatch(Files::isRegularFile));
+            return segments;
+        }
+    }
+}
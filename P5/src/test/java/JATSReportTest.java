@@ -0,0 +1,55 @@
+/* JATSReportTest imports */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The results of the files stored in a ResultCache are read back as they were parsed,
+ * so a cached run outputs the same records as an uncached one.
+ */
+class JATSReportTest {
+
+    private static final String[] EXAMPLES = {"assets/example1.xml", "assets/example2.xml"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsRoundTrip() throws IOException {
+        final XMLParser parser = new XMLParser(new XMLParser.Options()
+            .fields(FieldQuery.load("assets/fields.txt")).format(OutputFormat.JSONL));
+        for (String example : EXAMPLES) {
+            final JATSReport parsed = parser.parse(parser.createReader(false), example, new JATSReport());
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                parsed.write(out);
+            }
+            final JATSReport read = JATSReport.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            assertEquals(Outputs.print(parser, parsed), Outputs.print(parser, read));
+        }
+    }
+
+    @Test
+    void cachedRunsOutputTheSame() throws IOException {
+        final XMLParser uncached = new XMLParser(new XMLParser.Options().format(OutputFormat.JSONL));
+        for (String example : EXAMPLES) {
+            final String expected = Outputs.single(uncached, example);
+            for (int run = 0; run < 2; run++) {
+                try (ResultCache<JATSReport> cache = XMLParser.openCache(this.directory.toString(), 1 << 20, Collections.emptyList())) {
+                    final XMLParser parser = new XMLParser(new XMLParser.Options().cache(cache).format(OutputFormat.JSONL));
+                    assertEquals(expected, Outputs.single(parser, example));
+                }
+            }
+        }
+    }
+}
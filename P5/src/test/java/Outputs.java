@@ -0,0 +1,64 @@
+/* Outputs imports */
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The outputs of the parsers as they would show them, shared by the tests comparing them.
+ */
+final class Outputs {
+
+    private Outputs() {
+    }
+
+    /**
+     * Returns a parser of every article without fields, outputting JSON lines.
+     */
+    static XMLParser parser() {
+        return new XMLParser(new XMLParser.Options().format(OutputFormat.JSONL));
+    }
+
+    /**
+     * Returns the output of some reports merged in order, as the parser would show it.
+     */
+    static String print(XMLParser parser, JATSReport... reports) {
+        return print(parser, Arrays.asList(reports));
+    }
+
+    /**
+     * Returns the output of some reports merged in order, as the parser would show it.
+     */
+    static String print(XMLParser parser, List<JATSReport> reports) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final JATSReport shown = parser.createReport(false, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        for (JATSReport report : reports) {
+            shown.merge(report);
+        }
+        shown.print();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the output of a file parsed at once, as the parser would show it.
+     */
+    static String single(XMLParser parser, String uri) {
+        return print(parser, parser.parse(parser.createReader(false), uri, new JATSReport()));
+    }
+
+    /**
+     * Returns what a task writes to the standard output.
+     */
+    static String stdout(Runnable task) {
+        final PrintStream out = System.out;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            task.run();
+        } finally {
+            System.setOut(out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,150 @@
+/* SplitParserTest imports */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A checkpointed parse that was stopped resumes from its last checkpoint,
+ * outputting the same results as a parse that was never stopped.
+ */
+class SplitParserTest {
+
+    @TempDir
+    Path directory;
+
+    private final PrintStream out = System.out;
+    private final PrintStream err = System.err;
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void captureErrors() {
+        System.setErr(new PrintStream(this.errors, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restoreStreams() {
+        System.setOut(this.out);
+        System.setErr(this.err);
+    }
+
+    @Test
+    void resumesFromTheLastCheckpoint() throws IOException {
+        final Path file = this.generate();
+        final Path checkpoint = this.directory.resolve("parse.ckpt");
+        final String expected = output(new SplitParser(Outputs.parser(), false, 1, false), file);
+
+        this.stop(file, checkpoint);
+        final String resumed = output(new SplitParser(Outputs.parser(), false, 1, false, checkpoint.toString(), 0), file);
+
+        assertTrue(this.errors.toString(StandardCharsets.UTF_8).contains("Resuming from byte"));
+        assertEquals(expected, resumed);
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void incompleteCheckpointsAreDiscarded() throws IOException {
+        final Path file = this.generate();
+        final Path checkpoint = this.directory.resolve("parse.ckpt");
+        final String expected = output(new SplitParser(Outputs.parser(), false, 1, false), file);
+
+        /* A checkpoint that was being written when the parse was stopped */
+        this.stop(file, checkpoint);
+        final byte[] log = Files.readAllBytes(checkpoint);
+        Files.write(checkpoint, Arrays.copyOf(log, log.length + 7), StandardOpenOption.TRUNCATE_EXISTING);
+
+        /* Stopped again after resuming, the log being compacted into a single checkpoint */
+        this.stop(file, checkpoint);
+        assertEquals(expected, output(new SplitParser(Outputs.parser(), false, 1, false, checkpoint.toString(), 0), file));
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void checkpointsOfChangedFilesAreErrors() throws IOException {
+        final Path file = this.generate();
+        final Path checkpoint = this.directory.resolve("parse.ckpt");
+        this.stop(file, checkpoint);
+        final byte[] saved = Files.readAllBytes(checkpoint);
+
+        /* The same contents modified later */
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60000));
+        assertThrows(RuntimeException.class, () -> output(new SplitParser(Outputs.parser(), false, 1, false, checkpoint.toString(), 0), file));
+
+        /* Another file */
+        final Path other = Files.copy(file, this.directory.resolve("other.xml"));
+        assertThrows(RuntimeException.class, () -> output(new SplitParser(Outputs.parser(), false, 1, false, checkpoint.toString(), 0), other));
+
+        assertEquals(new String(saved, StandardCharsets.ISO_8859_1), new String(Files.readAllBytes(checkpoint), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void streamingParsesAreNotCheckpointed() {
+        assertThrows(IllegalArgumentException.class, () -> new SplitParser(Outputs.parser(), false, 1, true, "parse.ckpt", 60));
+    }
+
+    /**
+     * Returns a generated file of several chunks.
+     */
+    private Path generate() throws IOException {
+        final Path file = this.directory.resolve("articles.xml");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new JATSGenerator(4000, 60, 3, 0.05, 0.05, 1, 1).generate(out);
+        }
+        return file;
+    }
+
+    /**
+     * Stops a checkpointed parse of a file by a parsing error near its end, saving a checkpoint after every chunk.
+     * The error is then undone, leaving the file as it was, size and modification time included.
+     */
+    private void stop(Path file, Path checkpoint) throws IOException {
+        final byte[] contents = Files.readAllBytes(file);
+        final FileTime modified = Files.getLastModifiedTime(file);
+        final byte[] tag = "</article-title>".getBytes(StandardCharsets.ISO_8859_1);
+        int position = contents.length * 3 / 4;
+        while (!matches(contents, position, tag)) {
+            position++;
+        }
+
+        final byte[] broken = contents.clone();
+        broken[position + tag.length - 2] = 'X';
+        Files.write(file, broken);
+        Files.setLastModifiedTime(file, modified);
+        assertThrows(RuntimeException.class, () -> output(new SplitParser(Outputs.parser(), false, 1, false, checkpoint.toString(), 0), file));
+        assertTrue(Files.exists(checkpoint));
+
+        Files.write(file, contents);
+        Files.setLastModifiedTime(file, modified);
+    }
+
+    /**
+     * Returns the output of a parse of a file.
+     */
+    private static String output(SplitParser parser, Path file) {
+        return Outputs.stdout(() -> parser.parse(file.toString()));
+    }
+
+    private static Boolean matches(byte[] contents, int position, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (contents[position + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
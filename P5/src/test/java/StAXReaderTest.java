@@ -0,0 +1,92 @@
+/* StAXReaderTest imports */
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The StAX engine outputs the same results as Xerces, even though it skips the subtrees of no interest.
+ */
+class StAXReaderTest {
+
+    private static final String[] EXAMPLES = {"assets/example1.xml", "assets/example2.xml"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void examplesOutputAsSax() throws IOException {
+        final List<FieldQuery> fields = FieldQuery.load("assets/fields.txt");
+        for (String example : EXAMPLES) {
+            assertEquals(output(false, new ArrayList<>(), 10, example), output(true, new ArrayList<>(), 10, example));
+            assertEquals(output(false, fields, 2, example), output(true, fields, 2, example));
+        }
+    }
+
+    @Test
+    void generatedArticlesOutputAsSax() throws IOException {
+        final Path file = this.directory.resolve("articles.xml");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new JATSGenerator(500, 40, 3, 0.3, 0.3, 2, 1).generate(out);
+        }
+        final List<FieldQuery> fields = FieldQuery.load("assets/fields.txt");
+        assertEquals(output(false, fields, 5, file.toString()), output(true, fields, 5, file.toString()));
+    }
+
+    @Test
+    void skippableSubtreesAreNotDispatched() throws SAXException, IOException {
+        final List<String> elements = new ArrayList<>();
+        final StAXReader reader = new StAXReader();
+        reader.setContentHandler(new SkipBody(elements));
+        reader.parse("assets/example1.xml");
+
+        assertTrue(elements.contains("body"));
+        assertTrue(elements.contains("front"));
+        assertFalse(elements.contains("sec"));
+    }
+
+    /**
+     * Returns the output of a file parsed by either engine.
+     */
+    private static String output(Boolean stax, List<FieldQuery> fields, int top, String uri) {
+        final XMLParser parser = new XMLParser(new XMLParser.Options()
+            .stax(stax).fields(fields).top(top).format(OutputFormat.JSONL));
+        return Outputs.single(parser, uri);
+    }
+
+    /**
+     * Records the elements dispatched, skipping the contents of body.
+     */
+    private static class SkipBody extends DefaultHandler implements SkippingHandler {
+
+        private final List<String> elements;
+        private String current;
+
+        SkipBody(List<String> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            this.elements.add(qName);
+            this.current = qName;
+        }
+
+        @Override
+        public Boolean isSkippable() {
+            return "body".equals(this.current);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/* CMLGenerator imports */
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates documents in CML format of any size, e.g. for load tests.
+ * The documents are deterministic, the same options and seed always generate the same document,
+ * and they are written as they are generated, so their size doesn't affect the memory used.
+ */
+public class CMLGenerator {
+
+    /**
+     * The size of the buffer of the output.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The elements of the atoms, the organic ones repeated as they are the most common.
+     */
+    private static final String[] ELEMENTS = {
+        "C", "C", "C", "C", "C", "C", "H", "H", "H", "H", "H", "H", "H", "H", "O", "O", "O", "N", "N",
+        "S", "P", "Cl", "F", "Br", "I", "Na", "K", "Mg", "Ca", "Fe", "Zn", "Cu", "Si", "B", "Se"
+    };
+
+    /**
+     * The amount of molecules, not counting their submolecules.
+     */
+    private final int molecules;
+
+    /**
+     * The average amount of atoms of a molecule.
+     */
+    private final int atoms;
+
+    /**
+     * The nesting depth of the submolecules.
+     */
+    private final int depth;
+
+    /**
+     * The amount of submolecules of a molecule, above the deepest level.
+     */
+    private final int submolecules;
+
+    /**
+     * The random generator, the source of every choice.
+     */
+    private final Random random;
+
+    /**
+     * The output of the document.
+     */
+    private Writer out;
+
+    /**
+     * The amount of molecules generated, used for their ids.
+     */
+    private long generated = 0;
+
+    /**
+     * The constructor of a generator.
+     *
+     * @param molecules the amount of molecules, not counting their submolecules.
+     * @param atoms the average amount of atoms of a molecule, from half to one and a half times it.
+     * @param depth the nesting depth of the submolecules, 0 for none.
+     * @param submolecules the amount of submolecules of a molecule, above the deepest level.
+     * @param seed the seed of the random generator.
+     */
+    public CMLGenerator(int molecules, int atoms, int depth, int submolecules, long seed) {
+        this.molecules = molecules;
+        this.atoms = atoms;
+        this.depth = depth;
+        this.submolecules = submolecules;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the document.
+     *
+     * @param out the output of the document, it isn't closed.
+     */
+    public void generate(Writer out) throws IOException {
+        this.out = out;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<cml>\n");
+        for (int i = 0; i < this.molecules; i++) {
+            this.molecule(this.depth, 1);
+        }
+        out.write("</cml>\n");
+        out.flush();
+    }
+
+    /**
+     * Generates a molecule, with its formula, atoms and submolecules.
+     * Only the atoms of the molecule being written are kept, to write its formula first.
+     *
+     * @param depth the nesting depth of its submolecules.
+     * @param level the indentation level.
+     */
+    private void molecule(int depth, int level) throws IOException {
+        final String id = "m" + this.generated++;
+        final String[] elements = new String[this.around(this.atoms)];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = ELEMENTS[this.random.nextInt(ELEMENTS.length)];
+        }
+
+        this.indent(level);
+        this.out.write("<molecule id=\"" + id + "\">\n");
+        this.indent(level + 1);
+        this.out.write("<formula concise=\"" + concise(elements) + "\" title=\"Molecule " + id + "\"/>\n");
+        if (elements.length > 0) {
+            this.indent(level + 1);
+            this.out.write("<atomArray>\n");
+            for (int i = 0; i < elements.length; i++) {
+                this.indent(level + 2);
+                this.out.write("<atom elementType=\"" + elements[i] + "\" id=\"" + id + "_a" + (i + 1) + "\"/>\n");
+            }
+            this.indent(level + 1);
+            this.out.write("</atomArray>\n");
+        }
+        if (depth > 0) {
+            for (int i = 0; i < this.submolecules; i++) {
+                this.molecule(depth - 1, level + 1);
+            }
+        }
+        this.indent(level);
+        this.out.write("</molecule>\n");
+    }
+
+    /**
+     * Returns the concise formula of some atoms, e.g. C2 H6 O
+     *
+     * @param elements the elements of the atoms.
+     * @return the concise formula.
+     */
+    private static String concise(String[] elements) {
+        final StringBuilder formula = new StringBuilder();
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            if (i > 0 && ELEMENTS[i].equals(ELEMENTS[i - 1])) {
+                continue;
+            }
+            int count = 0;
+            for (String element : elements) {
+                if (element.equals(ELEMENTS[i])) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                if (formula.length() > 0) {
+                    formula.append(' ');
+                }
+                formula.append(ELEMENTS[i]);
+                if (count > 1) {
+                    formula.append(count);
+                }
+            }
+        }
+        return formula.toString();
+    }
+
+    /**
+     * Writes the indentation of a level.
+     *
+     * @param level the indentation level.
+     */
+    private void indent(int level) throws IOException {
+        for (int i = 0; i < level; i++) {
+            this.out.write("    ");
+        }
+    }
+
+    /**
+     * Returns a random amount around an average, from half to one and a half times it.
+     *
+     * @param average the average.
+     * @return the amount.
+     */
+    private int around(int average) {
+        return average / 2 + this.random.nextInt(average + 1);
+    }
+
+    /**
+     * Opens the output of a document, a file or the standard output.
+     * Files ending in .gz are compressed with gzip.
+     *
+     * @param uri the URI of the file, or - for the standard output.
+     * @return the output.
+     */
+    static Writer output(String uri) throws IOException {
+        OutputStream stream = uri.equals("-") ? System.out : new FileOutputStream(uri);
+        if (uri.endsWith(".gz")) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Generates a document.
+     *
+     * @param args the options of the document, followed by the URI of the output file,
+     *             the standard output if there's none or it's -.
+     */
+    public static void main(String[] args) {
+        String uri = null;
+        int molecules = 1000;
+        int atoms = 20;
+        int depth = 1;
+        int submolecules = 2;
+        long seed = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--molecules":
+                        molecules = Integer.parseInt(args[++i]);
+                        break;
+                    case "--atoms":
+                        atoms = Integer.parseInt(args[++i]);
+                        break;
+                    case "--depth":
+                        depth = Integer.parseInt(args[++i]);
+                        break;
+                    case "--submolecules":
+                        submolecules = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        if (uri != null) {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                        uri = args[i];
+                }
+            }
+            if (molecules < 0 || atoms < 0 || depth < 0 || submolecules < 0) {
+                throw new IllegalArgumentException("negative amount");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            System.err.println("Invalid arguments, usage: java CMLGenerator ([--molecules N]) ([--atoms N]) " +
+                "([--depth N]) ([--submolecules N]) ([--seed N]) ([OUTPUT URI])");
+            System.exit(0);
+        }
+        try (Writer out = output(uri == null ? "-" : uri)) {
+            new CMLGenerator(molecules, atoms, depth, submolecules, seed).generate(out);
+        } catch (IOException ex) {
+            System.err.println("Error writing the file: " + ex.getMessage());
+            throw new RuntimeException("Error writing the file", ex);
+        }
+    }
+}
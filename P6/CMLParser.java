@@ -1,8 +1,11 @@
 /* XMLParser imports */
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
@@ -17,22 +20,118 @@ import org.xml.sax.SAXParseException;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
-/* XMLLocator imports */
 import java.util.Stack;
-import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 /* Molecule imports */
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.Map.Entry;
-import static java.util.stream.Collectors.joining;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * The main class of the program,
  * parses XML files in CML format.
  */
 public class CMLParser {
+    /**
+     * The cache of the results of the files, null if they are always parsed.
+     */
+    private final ResultCache<List<Molecule>> cache;
+
+    /**
+     * The format of the results.
+     */
+    private final OutputFormat format;
+
+    /**
+     * The amount of molecules shown by each ranking of the results.
+     */
+    private final int top;
+
+    /**
+     * Whether each molecule is output as soon as it ends instead of keeping them all.
+     */
+    private final Boolean streaming;
+
+    /**
+     * The pool ranking and rendering the molecules of each file, null to do it on the calling thread.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether the amount of duplicate molecules is shown along with the results.
+     */
+    private final Boolean duplicates;
+
+    /**
+     * The default constructor, for a parser that parses every file and outputs text.
+     */
+    public CMLParser() {
+        this(new Options());
+    }
+
+    /**
+     * The constructor of a parser.
+     * A streaming parser outputs to the standard output and doesn't use the cache, as it doesn't keep the molecules.
+     *
+     * @param options the cache, format, ranking, streaming, threads and duplicates of the parser, see Options.
+     */
+    public CMLParser(Options options) {
+        this.cache = options.cache;
+        this.format = options.format;
+        this.top = options.top;
+        this.streaming = options.streaming;
+        this.pool = options.threads > 1 ? new ForkJoinPool(options.threads) : null;
+        this.duplicates = options.duplicates;
+    }
+
+    /**
+     * Returns the format of the results.
+     */
+    public OutputFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Returns the amount of molecules shown by each ranking of the results.
+     */
+    public int getTop() {
+        return this.top;
+    }
+
+    /**
+     * Opens a cache of the results of the files.
+     *
+     * @param directory the directory of the cache.
+     * @param limit the maximum size of the entries, in bytes.
+     * @return the cache.
+     */
+    public static ResultCache<List<Molecule>> openCache(String directory, long limit) throws IOException {
+        return new ResultCache<>(directory, limit, "Molecule 1", new ResultCodec<List<Molecule>>() {
+            public void write(DataOutputStream out, List<Molecule> molecules) throws IOException {
+                out.writeInt(molecules.size());
+                for (Molecule molecule : molecules) {
+                    molecule.write(out);
+                }
+            }
+
+            public List<Molecule> read(DataInputStream in) throws IOException {
+                final List<Molecule> molecules = new ArrayList<>();
+                for (int count = in.readInt(); count > 0; count--) {
+                    molecules.add(Molecule.read(in));
+                }
+                return molecules;
+            }
+        });
+    }
+
     /**
      * Parse a given file and output the results.
      *
@@ -40,8 +139,16 @@ public class CMLParser {
      * @param validation enable XML validation and DTD grammar.
      */
     public void parse(String uri, Boolean validation) {
+        this.parse(this.createReader(), uri).print(System.out, this.format);
+    }
+
+    /**
+     * Creates a parser, it may be reused to parse several files one after another.
+     *
+     * @return the new parser.
+     */
+    public XMLReader createReader() {
         final XMLReader parser;
-        final CMLHandler handler = new CMLHandler();
 
         /* Create the parser */
         try {
@@ -51,15 +158,82 @@ public class CMLParser {
             throw new RuntimeException(e);
         }
 
-        /* Set the content and error handler */
-        parser.setContentHandler(handler);
+        /* Set the error handler */
         parser.setErrorHandler(new CMLErrorHandler());
+        return parser;
+    }
 
-        /* Starts parsing the given file */
-        try {
-            InputSource inputSource = new InputSource();
-            inputSource.setCharacterStream(new InputStreamReader(new FileInputStream(new File(uri))));
-            parser.parse(inputSource);
+    /**
+     * Parse a given file with an already created parser, or take its results from the cache if it's unchanged.
+     * The handler of the parser is reused, so parsers may be kept to parse many files.
+     *
+     * @param parser the parser, as returned by createReader.
+     * @param uri the URI of the file to be parsed.
+     * @return the handler with the results of the file.
+     */
+    public CMLHandler parse(XMLReader parser, String uri) {
+        final ParseMetrics metrics = ParseMetrics.get();
+        final CMLHandler handler;
+
+        /* Reuse the content handler of the parser if it already has one, otherwise set it,
+         * measured if the metrics are enabled */
+        ContentHandler current = parser.getContentHandler();
+        if (current instanceof MeteredHandler) {
+            current = ((MeteredHandler) current).getHandler();
+        }
+        if (current instanceof CMLHandler) {
+            handler = (CMLHandler) current;
+            handler.reset();
+        } else {
+            handler = new CMLHandler(new CMLHandler.Options()
+                .top(this.top).streaming(this.streaming).format(this.format).pool(this.pool).duplicates(this.duplicates));
+            parser.setContentHandler(metrics == null ? handler : new MeteredHandler(handler, metrics));
+        }
+
+        /* Parse the file unless its results are cached, the cached molecules replacing the ones of the handler.
+         * A parsed file already has its molecules shared and ranked by the handler */
+        if (this.cache == null || this.streaming) {
+            this.parseFile(parser, uri);
+        } else {
+            final AtomicBoolean parsed = new AtomicBoolean(false);
+            final List<Molecule> molecules = this.cache.get(Paths.get(uri), () -> {
+                this.parseFile(parser, uri);
+                parsed.set(true);
+                return new ArrayList<>(handler.getMolecules());
+            });
+            if (!parsed.get()) {
+                handler.reset();
+                handler.addMolecules(molecules);
+            }
+        }
+        return handler;
+    }
+
+    /**
+     * Parse a given file with an already created parser, the results being kept by its handler.
+     * Each XML entry of a zip bundle is a document of its own.
+     *
+     * @param parser the parser, as returned by createReader, with its handler already set.
+     * @param uri the URI of the file to be parsed.
+     */
+    private void parseFile(XMLReader parser, String uri) {
+        final ParseMetrics metrics = ParseMetrics.get();
+        try (DocumentInput input = new DocumentInput(uri, metrics)) {
+            for (InputSource inputSource = input.next(); inputSource != null; inputSource = input.next()) {
+                final DocumentEvent event = new DocumentEvent();
+                final long start = metrics == null ? 0 : System.nanoTime();
+                event.begin();
+                parser.parse(inputSource);
+                event.end();
+                if (metrics != null) {
+                    metrics.addDocument(System.nanoTime() - start);
+                }
+                if (event.shouldCommit()) {
+                    event.uri = uri;
+                    event.bytes = input.getBytesRead();
+                    event.commit();
+                }
+            }
         } catch (IOException ex) {
             System.err.println("Error accessing the file: " + ex.getMessage());
             throw new RuntimeException("Error accessing the file", ex);
@@ -71,19 +245,216 @@ public class CMLParser {
 
     /**
      * The main method of the program.
-     * Initializes and starts a CMLParser.
+     * Initializes and starts a CMLParser, or a DaemonParser if the daemon mode is enabled.
      *
      * @param args the arguments of the program, the first one being the URI of the XML file,
      *              and the second one the validation activator
      *              (if any second parameter is present, validation will be active).
+     *              The values of --port, --threads, --cache-size and --top are integers,
+     *              any other value shows the usage, as --daemon along with --watch does.
      */
     public static void main(String[] args) {
-        if (args.length == 0 || args.length > 2) {
-            System.err.println("XML file expected, usage: java CMLParser [XML URI]");
+        final List<String> sources = new ArrayList<>();
+        Boolean daemon = false;
+        Boolean watch = false;
+        Boolean metrics = false;
+        Boolean streaming = false;
+        Boolean duplicates = false;
+        String cacheDirectory = null;
+        String format = "text";
+        long cacheSize = 256;
+        int top = 1;
+        int port = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--daemon":
+                        daemon = true;
+                        break;
+                    case "--watch":
+                        watch = true;
+                        break;
+                    case "--port":
+                        port = i + 1 < args.length ? Integer.parseInt(args[++i]) : -1;
+                        break;
+                    case "--threads":
+                        threads = i + 1 < args.length ? Integer.parseInt(args[++i]) : 0;
+                        break;
+                    case "--metrics":
+                        metrics = true;
+                        break;
+                    case "--stream":
+                        streaming = true;
+                        break;
+                    case "--duplicates":
+                        duplicates = true;
+                        break;
+                    case "--format":
+                        format = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--top":
+                        top = i + 1 < args.length ? Integer.parseInt(args[++i]) : 0;
+                        break;
+                    case "--cache":
+                        cacheDirectory = i + 1 < args.length ? args[++i] : "";
+                        break;
+                    case "--cache-size":
+                        cacheSize = i + 1 < args.length ? Long.parseLong(args[++i]) : 0;
+                        break;
+                    default:
+                        sources.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid number, usage: --port PORT, --threads N, --cache-size MB and --top K are integers");
+            System.exit(0);
+        }
+        /* A single mode at a time, rather than one of them winning over the other */
+        if (daemon && watch) {
+            System.err.println("Invalid mode, usage: only one of --daemon and --watch");
             System.exit(0);
         }
-        CMLParser parser = new CMLParser();
-        parser.parse(args[0], args.length == 2 && args[1] != null && !args[1].equals(""));
+        if (streaming && (watch || daemon || cacheDirectory != null)) {
+            System.err.println("Invalid streaming, usage: java CMLParser --stream ([--metrics]) ([--format FORMAT]) ([--top K]) [XML URI]");
+            System.exit(0);
+        }
+        OutputFormat outputFormat = OutputFormat.TEXT;
+        try {
+            outputFormat = OutputFormat.of(format);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid format, usage: --format [text | jsonl | csv]");
+            System.exit(0);
+        }
+        if (top < 1) {
+            System.err.println("Invalid ranking, usage: --top K, at least 1");
+            System.exit(0);
+        }
+        if (threads < 1) {
+            System.err.println("Invalid threads, usage: --threads N, at least 1");
+            System.exit(0);
+        }
+        ResultCache<List<Molecule>> cache = null;
+        if (cacheDirectory != null) {
+            if (cacheDirectory.isEmpty() || cacheSize < 1) {
+                System.err.println("Invalid cache, usage: --cache DIRECTORY ([--cache-size MB])");
+                System.exit(0);
+            }
+            try {
+                cache = openCache(cacheDirectory, cacheSize << 20);
+            } catch (IOException ex) {
+                System.err.println("Error accessing the cache: " + ex.getMessage());
+                throw new RuntimeException("Error accessing the cache", ex);
+            }
+            /* Saved on exit, whatever the mode */
+            final ResultCache<List<Molecule>> openCache = cache;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    openCache.close();
+                } catch (IOException ex) {
+                    System.err.println("Error writing the cache: " + ex.getMessage());
+                }
+            }));
+        }
+        if (metrics) {
+            /* Shown on exit, whatever the mode, while running they are available through JMX */
+            final ParseMetrics parseMetrics = ParseMetrics.enable("CMLParser");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> parseMetrics.print(System.err)));
+        }
+        /* The daemon already parses its jobs in parallel */
+        final CMLParser parser = new CMLParser(new CMLParser.Options()
+            .cache(cache).format(outputFormat).top(top).streaming(streaming).threads(daemon ? 1 : threads).duplicates(duplicates));
+        if (watch) {
+            if (sources.size() != 1 || !Files.isDirectory(Paths.get(sources.get(0))) || outputFormat == OutputFormat.CSV) {
+                System.err.println("Directory expected, usage: java CMLParser --watch ([--metrics]) ([--format [text | jsonl]]) ([--top K]) " +
+                    "([--cache DIRECTORY ([--cache-size MB])]) [DIRECTORY]");
+                System.exit(0);
+            }
+            new WatchParser(parser, sources.get(0)).watch();
+            return;
+        }
+        if (daemon) {
+            if (!sources.isEmpty() || threads < 1 || port < 0) {
+                System.err.println("No XML file expected, usage: java CMLParser --daemon ([--port PORT]) ([--threads N]) ([--metrics]) " +
+                    "([--format FORMAT]) ([--top K]) ([--duplicates]) ([--cache DIRECTORY ([--cache-size MB])])");
+                System.exit(0);
+            }
+            final DaemonParser daemonParser = new DaemonParser(parser);
+            if (port == 0) {
+                daemonParser.serve(System.in, System.out);
+            } else {
+                daemonParser.listen(port, threads);
+            }
+            return;
+        }
+        if (sources.isEmpty() || sources.size() > 2) {
+            System.err.println("XML file expected, usage: java CMLParser ([--stream]) ([--threads N]) ([--metrics]) ([--format FORMAT]) ([--top K]) ([--duplicates]) " +
+                "([--cache DIRECTORY ([--cache-size MB])]) [XML URI]");
+            System.exit(0);
+        }
+        parser.parse(sources.get(0), sources.size() == 2 && !sources.get(1).equals(""));
+    }
+
+    /**
+     * The options of a parser, each one defaulting to the one of the default constructor.
+     */
+    public static class Options {
+
+        private ResultCache<List<Molecule>> cache = null;
+        private OutputFormat format = OutputFormat.TEXT;
+        private int top = 1;
+        private Boolean streaming = false;
+        private int threads = 1;
+        private Boolean duplicates = false;
+
+        /**
+         * Sets the cache of the results of the files, as returned by openCache, or null to always parse them.
+         */
+        public Options cache(ResultCache<List<Molecule>> cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the format of the results.
+         */
+        public Options format(OutputFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the amount of molecules shown by each ranking of the results.
+         */
+        public Options top(int top) {
+            this.top = top;
+            return this;
+        }
+
+        /**
+         * Sets whether each molecule is output as soon as it ends instead of keeping them all.
+         */
+        public Options streaming(Boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads ranking and rendering the molecules of each file, 1 to do it on the calling thread.
+         */
+        public Options threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets whether the amount of duplicate molecules of each file is shown along with the results,
+         * the ones identical to another one found earlier, which share its instance.
+         */
+        public Options duplicates(Boolean duplicates) {
+            this.duplicates = duplicates;
+            return this;
+        }
     }
 }
 
@@ -145,6 +516,8 @@ class CMLErrorHandler implements ErrorHandler {
  *     </ul>
  *   </li>
  * </ul>
+ * A streaming handler outputs each molecule as soon as it ends and only keeps the rankings,
+ * so its memory only depends on the largest molecule, not on the amount of molecules.
  */
 class CMLHandler implements ContentHandler {
 
@@ -153,17 +526,84 @@ class CMLHandler implements ContentHandler {
      */
     private Locator locator;
 
+    /* The values of the element paths, relative to the innermost molecule */
+    private static final int MOLECULE = 0;
+    private static final int FORMULA = 1;
+    private static final int ATOM = 2;
+
+    /**
+     * The columns of the records of the molecules.
+     */
+    private static final String[] MOLECULE_COLUMNS = {
+        "type", "id", "parent", "level", "name", "formula", "atoms", "elements", "organic", "category", "submolecules"
+    };
+
+    /**
+     * The element path automaton, keeps track of the current level.
+     */
+    private final PathAutomaton paths = new PathAutomaton(true);
+
+
+    /**
+     * All the molecules that have been found, null if streaming.
+     */
+    private final List<Molecule> molecules;
+
+    /**
+     * The amount of molecules found, not counting their sub-molecules.
+     */
+    private int moleculeCount = 0;
+
+    /**
+     * The stream each molecule is output to as soon as it ends, null if they are kept.
+     */
+    private final PrintStream stream;
+
+    /**
+     * The writer of the records of the molecules output as soon as they end, null if they are kept or output as text.
+     */
+    private final RecordWriter records;
+
+    /**
+     * The id of the last molecule output as a record as soon as it ended.
+     */
+    private final int[] id = {0};
+
+    /**
+     * The names of the molecules ranked by atoms, sub-molecules and different elements,
+     * as they are found if streaming, otherwise at the end of each document.
+     */
+    private final RankingTask.Rankings rankings;
+
     /**
-     * The XML file locator.
+     * The amount of molecules kept that have already been ranked.
      */
-    private XMLLocator xmlLocator = new XMLLocator();
+    private int ranked = 0;
 
+    /**
+     * The pool ranking and rendering the molecules kept, null to do it on the calling thread.
+     */
+    private final ForkJoinPool pool;
 
     /**
-     * All the molecules that have been found.
+     * The element symbols found, shared by the molecules of every file parsed by the handler.
      */
-    private final List<Molecule> molecules = new ArrayList<>();
+    private final SymbolTable symbols = new SymbolTable();
 
+    /**
+     * The molecules found in the file being parsed, so identical ones share an instance.
+     */
+    private final MoleculeTable shared = new MoleculeTable(this.symbols);
+
+    /**
+     * The amount of molecules, sub-molecules included, that share the instance of an identical one found earlier.
+     */
+    private int duplicates = 0;
+
+    /**
+     * Whether the amount of duplicate molecules is shown along with the results.
+     */
+    private final Boolean showDuplicates;
 
     /**
      * The molecule that is currently being parsed.
@@ -171,20 +611,39 @@ class CMLHandler implements ContentHandler {
     private final Stack<Molecule> currentMolecules = new Stack<>();
 
     /**
-     * Returns a path starting from the molecule level.
-     * e.g. if the current level is molecules.molecule.front.name,
-     *      it will return "molecule.front.name".
+     * The JFR events of the molecules that are currently being parsed.
+     */
+    private final Stack<MoleculeEvent> moleculeEvents = new Stack<>();
+
+    /**
+     * The metrics of the program, null if they aren't enabled.
+     */
+    private final ParseMetrics metrics = ParseMetrics.get();
+
+    /**
+     * The default constructor, keeps the molecules and shows the first one of each ranking.
+     */
+    public CMLHandler() {
+        this(new Options());
+    }
+
+    /**
+     * The constructor of a handler, registers the paths of interest.
+     * Molecules may appear at any level, even inside other molecules,
+     * the paths being relative to the innermost one.
      *
-     * @return the the current level relative to the molecule root.
+     * @param options the ranking, streaming, stream, format, pool and duplicates of the handler, see Options.
      */
-    private String getRelativePath() {
-        final List<String> route = this.xmlLocator.getRoute();
-        for (int i = route.size() - 1; i >= 0; i--) {
-            if (route.get(i) == "molecule") {
-                return String.join(".", route.subList(i, route.size()));
-            }
-        }
-        return this.xmlLocator.getPath();
+    public CMLHandler(Options options) {
+        this.molecules = options.streaming ? null : new ArrayList<>();
+        this.stream = options.streaming ? options.out : null;
+        this.records = options.streaming && options.format != OutputFormat.TEXT ? new RecordWriter(options.out, options.format, true) : null;
+        this.rankings = new RankingTask.Rankings(options.top);
+        this.pool = options.pool;
+        this.showDuplicates = options.duplicates;
+        this.paths.add("molecule", MOLECULE);
+        this.paths.add("molecule.formula", FORMULA);
+        this.paths.add("molecule.atomArray.atom", ATOM);
     }
 
     /**
@@ -197,45 +656,282 @@ class CMLHandler implements ContentHandler {
     }
 
     /**
-     * Ends the parsing of the file and shows the result.
+     * Prepares the handler to parse another file, discarding the molecules of the previous one.
      */
-    public void endDocument() {
-        final String mostAtoms = this.molecules.stream()
-            .max((a, b) -> a.getAllElements().size() - b.getAllElements().size())
-            .map(a -> a.getName())
-            .orElse("");
-        System.out.println("- The molecule with the highest amount of atoms: " + mostAtoms);
-        final String mostSubMolecules = this.molecules.stream()
-            .max((a, b) -> a.getSubMolecules().size() - b.getSubMolecules().size())
-            .map(a -> a.getName())
-            .orElse("");
-        System.out.println("- The molecule with the highest amount of sub-molecules: " + mostSubMolecules);
-        final String mostElements = this.molecules.stream()
-            .max((a, b) -> a.getElementMap().size() - b.getElementMap().size())
-            .map(a -> a.getName())
-            .orElse("");
-        System.out.println("- The molecule with the highest amount of different elements: " + mostElements);
-        System.out.println("- Molecules found: " + this.molecules.size());
-        for (Molecule molecule : this.molecules) {
-            printSubMolecules(molecule, 1);
+    public void reset() {
+        if (this.molecules != null) {
+            this.molecules.clear();
+        }
+        this.moleculeCount = 0;
+        this.id[0] = 0;
+        this.rankings.clear();
+        this.ranked = 0;
+        this.duplicates = 0;
+        this.shared.clear();
+        this.currentMolecules.clear();
+        this.moleculeEvents.clear();
+        this.paths.reset();
+    }
+
+    /**
+     * Returns the molecules found, not counting their sub-molecules.
+     *
+     * @return the molecules found, or null if streaming.
+     */
+    public List<Molecule> getMolecules() {
+        return this.molecules;
+    }
+
+    /**
+     * Returns the amount of molecules found, not counting their sub-molecules.
+     */
+    public int getMoleculeCount() {
+        return this.moleculeCount;
+    }
+
+    /**
+     * Returns the names of the molecules ranked by their amount of atoms.
+     */
+    public TopK<String> getMostAtoms() {
+        return this.rankings.mostAtoms;
+    }
+
+    /**
+     * Returns the names of the molecules ranked by their amount of sub-molecules.
+     */
+    public TopK<String> getMostSubMolecules() {
+        return this.rankings.mostSubMolecules;
+    }
+
+    /**
+     * Returns the names of the molecules ranked by their amount of different elements.
+     */
+    public TopK<String> getMostElements() {
+        return this.rankings.mostElements;
+    }
+
+    /**
+     * Adds molecules found elsewhere, e.g. the results of a file taken from the cache.
+     *
+     * @param molecules the molecules, not counting their sub-molecules.
+     */
+    public void addMolecules(List<Molecule> molecules) {
+        final Set<Molecule> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Molecule molecule : molecules) {
+            final Molecule instance = this.shared.shareTree(molecule);
+            this.duplicates += countDuplicates(instance, instances);
+            this.addMolecule(instance);
+        }
+        this.rankMolecules();
+    }
+
+    /**
+     * Returns the amount of molecules of a tree that share the instance of one already seen, the tree included.
+     *
+     * @param molecule the molecule at the root of the tree.
+     * @param instances the instances already seen, updated with the ones of the tree.
+     * @return the amount of duplicate molecules.
+     */
+    private static int countDuplicates(Molecule molecule, Set<Molecule> instances) {
+        int duplicates = instances.add(molecule) ? 0 : 1;
+        for (Molecule subMolecule : molecule.getSubMolecules()) {
+            duplicates += countDuplicates(subMolecule, instances);
+        }
+        return duplicates;
+    }
+
+    /**
+     * Returns the amount of molecules, sub-molecules included, that share the instance of an identical one found earlier.
+     */
+    public int getDuplicates() {
+        return this.duplicates;
+    }
+
+    /**
+     * Adds a molecule that doesn't belong to another one, outputting and ranking it if streaming.
+     *
+     * @param molecule the molecule.
+     */
+    private void addMolecule(Molecule molecule) {
+        this.moleculeCount++;
+        if (this.molecules != null) {
+            this.molecules.add(molecule);
+            return;
+        }
+        if (this.records != null) {
+            this.writeMolecule(this.records, molecule, null, 1, this.id);
+        } else {
+            this.printSubMolecules(this.stream, molecule, 1);
+        }
+        this.rankings.add(molecule);
+    }
+
+    /**
+     * Ranks the molecules kept since the last time, in parallel if there's a pool,
+     * as if they had been ranked one after another as they were found.
+     */
+    private void rankMolecules() {
+        if (this.molecules == null || this.ranked == this.molecules.size()) {
+            return;
+        }
+        final List<Molecule> unranked = this.molecules.subList(this.ranked, this.molecules.size());
+        this.rankings.addAll(RankingTask.rank(this.pool, unranked, this.rankings.mostAtoms.getK()));
+        this.ranked = this.molecules.size();
+    }
+
+    /**
+     * Shows the result of every document that has been parsed as text.
+     *
+     * @param out the stream the result is output to.
+     */
+    public void print(PrintStream out) {
+        this.print(out, OutputFormat.TEXT);
+    }
+
+    /**
+     * Shows the result of every document that has been parsed, if streaming, the molecules have already been shown.
+     * In JSONL and CSV each molecule is a record, sub-molecules included, in JSONL followed by a summary record.
+     *
+     * @param out the stream the result is output to.
+     * @param format the format of the result.
+     */
+    public void print(PrintStream out, OutputFormat format) {
+        final ReportEvent event = new ReportEvent();
+        final long start = this.metrics == null ? 0 : System.nanoTime();
+        event.begin();
+        if (format == OutputFormat.TEXT) {
+            this.printText(out);
+        } else {
+            this.printRecords(out, format);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.molecules = this.moleculeCount;
+            event.commit();
+        }
+        if (this.metrics != null) {
+            this.metrics.addReport(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Shows the result as records, numbering the molecules in the order they are output
+     * so each one may refer to the one it belongs to.
+     *
+     * @param out the stream the result is output to.
+     * @param format the format of the result, JSONL or CSV.
+     */
+    private void printRecords(PrintStream out, OutputFormat format) {
+        final RecordWriter records = this.records == null ? new RecordWriter(out, format) : this.records;
+        if (this.molecules != null) {
+            final int[] id = {0};
+            for (Molecule molecule : this.molecules) {
+                this.writeMolecule(records, molecule, null, 1, id);
+            }
+        }
+        if (format == OutputFormat.JSONL && this.showDuplicates) {
+            records.write(
+                new String[] {"type", "most_atoms", "most_submolecules", "most_elements", "molecules", "duplicates"},
+                new Object[] {"summary", this.rankings.mostAtoms.getValues(), this.rankings.mostSubMolecules.getValues(),
+                    this.rankings.mostElements.getValues(), this.moleculeCount, this.duplicates});
+        } else if (format == OutputFormat.JSONL) {
+            records.write(
+                new String[] {"type", "most_atoms", "most_submolecules", "most_elements", "molecules"},
+                new Object[] {"summary", this.rankings.mostAtoms.getValues(), this.rankings.mostSubMolecules.getValues(),
+                    this.rankings.mostElements.getValues(), this.moleculeCount});
+        }
+        records.flush();
+    }
+
+    /**
+     * Writes the records of a molecule and its sub-molecules.
+     *
+     * @param records the writer of the records.
+     * @param molecule the molecule.
+     * @param parent the id of the molecule it belongs to, null if none.
+     * @param level the nesting level of the molecule, 1 if it doesn't belong to another one.
+     * @param id the id of the last molecule written, updated with the ones of these molecules.
+     */
+    private void writeMolecule(RecordWriter records, Molecule molecule, Integer parent, int level, int[] id) {
+        final int current = ++id[0];
+        records.write(MOLECULE_COLUMNS, new Object[] {
+            "molecule", current, parent, level, molecule.getName(), molecule.getFormula(),
+            molecule.getAtomCount(), molecule.getElementCount(), molecule.isOrganic(),
+            molecule.getAtomicCategorization(), molecule.getSubMolecules().size()
+        });
+        for (Molecule subMolecule : molecule.getSubMolecules()) {
+            this.writeMolecule(records, subMolecule, current, level + 1, id);
+        }
+    }
+
+    /**
+     * Shows the result as text.
+     *
+     * @param out the stream the result is output to.
+     */
+    private void printText(PrintStream out) {
+        printRanking(out, "atoms", this.rankings.mostAtoms);
+        printRanking(out, "sub-molecules", this.rankings.mostSubMolecules);
+        printRanking(out, "different elements", this.rankings.mostElements);
+        out.println("- Molecules found: " + this.moleculeCount);
+        if (this.showDuplicates) {
+            out.println("- Duplicate molecules: " + this.duplicates);
+        }
+        if (this.molecules != null && this.pool != null) {
+            RenderingTask.print(this.pool, out, this.molecules);
+        } else if (this.molecules != null) {
+            for (Molecule molecule : this.molecules) {
+                printSubMolecules(out, molecule, 1);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Prints a ranking, the name of its first molecule unless several are ranked.
+     *
+     * @param out the stream the ranking is output to.
+     * @param amount what the molecules are ranked by.
+     * @param ranking the ranking.
+     */
+    static void printRanking(PrintStream out, String amount, TopK<String> ranking) {
+        if (ranking.getK() == 1) {
+            out.println("- The molecule with the highest amount of " + amount + ": " + ranking.getFirst(""));
+            return;
+        }
+        out.println("- The molecules with the highest amount of " + amount + ":");
+        for (TopK.Ranked<String> ranked : ranking.getRanking()) {
+            out.println("    - " + ranked.getValue() + " (" + ranked.getScore() + ")");
         }
     }
 
     /**
      * Prints a list of all the sub-molecules, and the sub-molecules of the sub-molecules, and so on.
      *
+     * @param out the stream the molecules are output to.
      * @param molecule the molecule to print along with its sub-molecules.
      * @param currentLevel the number of identation spaces used for the molecule.
      *        Subsequent sub-molecules will have a higher currentLevel.
      */
-    public void printSubMolecules(Molecule molecule, int currentLevel) {
-        System.out.println(String.format("%1$" + currentLevel*4 + "s- %s", " ") + molecule.toString());
+    public void printSubMolecules(PrintStream out, Molecule molecule, int currentLevel) {
+        out.println(line(molecule, currentLevel));
         for (Molecule subMolecule : molecule.getSubMolecules()) {
-            printSubMolecules(subMolecule, currentLevel + 1);
+            printSubMolecules(out, subMolecule, currentLevel + 1);
         }
     }
 
 
+    /**
+     * Returns the line of a molecule in the text of the results, without its sub-molecules.
+     *
+     * @param molecule the molecule.
+     * @param level the number of identation spaces used for the molecule.
+     * @return the line of the molecule.
+     */
+    static String line(Molecule molecule, int level) {
+        return String.format("%1$" + level*4 + "s- %s", " ") + molecule.toString();
+    }
+
     /**
      * Parse the start tag of an element. If it's an molecule, creates a new currentArticle.
      * If it's a section, increases the section count of the current molecule.
@@ -254,19 +950,22 @@ class CMLHandler implements ContentHandler {
      *        startElement returns is undefined.
      */
     public void startElement(String namespaceURI, String localName, String qName, Attributes atts) {
-        this.xmlLocator.push(localName);
-        switch (this.getRelativePath()) {
-            case "molecule":
+        this.paths.push(localName);
+        switch (this.paths.getValue()) {
+            case MOLECULE:
+                final MoleculeEvent event = new MoleculeEvent();
+                event.begin();
+                this.moleculeEvents.push(event);
                 this.currentMolecules.push(new Molecule());
                 break;
-            case "molecule.formula":
+            case FORMULA:
                 String title = atts.getValue("title");
                 if (!title.isEmpty()) {
                     this.currentMolecules.peek().setName(title);
                 }
                 break;
-            case "molecule.atomArray.atom":
-                this.currentMolecules.peek().addElement(atts.getValue("elementType"));
+            case ATOM:
+                this.currentMolecules.peek().addElement(this.symbols.intern(atts.getValue("elementType")));
                 break;
         }
     }
@@ -285,15 +984,40 @@ class CMLHandler implements ContentHandler {
      *        empty string if qualified names are not available.
      */
     public void endElement(String namespaceURI, String localName, String qName) {
-        if (this.getRelativePath().equals("molecule")) {
-            Molecule molecule = this.currentMolecules.pop();
+        if (this.paths.getValue() == MOLECULE) {
+            final Molecule found = this.currentMolecules.pop();
+            final Molecule molecule = this.shared.share(found);
+            if (molecule != found) {
+                this.duplicates++;
+            }
+            if (this.metrics != null) {
+                this.metrics.addMolecule();
+            }
+            final MoleculeEvent event = this.moleculeEvents.pop();
+            event.end();
+            if (event.shouldCommit()) {
+                event.name = molecule.getName();
+                event.atoms = molecule.getAtomCount();
+                event.submolecules = molecule.getSubMolecules().size();
+                event.depth = this.currentMolecules.size();
+                event.commit();
+            }
             if (this.currentMolecules.isEmpty()) {
-                this.molecules.add(molecule);
+                this.addMolecule(molecule);
             } else {
                 this.currentMolecules.peek().addMolecule(molecule);
             }
         }
-        this.xmlLocator.pop();
+        this.paths.pop();
+    }
+
+    /**
+     * Ranks the molecules of the document, and adds the strings looked up in the symbol table
+     * to the metrics, if they are enabled.
+     */
+    public void endDocument() {
+        this.rankMolecules();
+        this.symbols.report(this.metrics);
     }
 
     /* Unused methods: */
@@ -304,70 +1028,198 @@ class CMLHandler implements ContentHandler {
     public void processingInstruction(String target, String data) {}
     public void ignorableWhitespace(char[] ch, int start, int end) {}
     public void skippedEntity(String name) {}
+
+    /**
+     * The options of a handler, each one defaulting to the one of the default constructor.
+     */
+    public static class Options {
+
+        private int top = 1;
+        private Boolean streaming = false;
+        private PrintStream out = System.out;
+        private OutputFormat format = OutputFormat.TEXT;
+        private ForkJoinPool pool = null;
+        private Boolean duplicates = false;
+
+        /**
+         * Sets the amount of molecules shown by each ranking.
+         */
+        public Options top(int top) {
+            this.top = top;
+            return this;
+        }
+
+        /**
+         * Sets whether each molecule is output as soon as it ends instead of keeping them all.
+         */
+        public Options streaming(Boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Sets the stream the molecules are output to if streaming.
+         */
+        public Options out(PrintStream out) {
+            this.out = out;
+            return this;
+        }
+
+        /**
+         * Sets the format the molecules are output in if streaming.
+         */
+        public Options format(OutputFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Sets the fork/join pool ranking and rendering the molecules kept, or null to do it on the calling thread.
+         */
+        public Options pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets whether the amount of duplicate molecules is shown along with the results.
+         */
+        public Options duplicates(Boolean duplicates) {
+            this.duplicates = duplicates;
+            return this;
+        }
+    }
 }
 
 /**
- * The XML locator, keeps track of the current level of the tag that us being parsed.
+ * The indices of the elements, used to count the atoms of a molecule in arrays instead of maps.
+ * The elements of the periodic table are indexed by their atomic number minus one,
+ * so the most common ones in organic compounds have the lowest indices and the arrays stay short.
+ * Any other symbol, including a missing one, is given the next free index the first time it's seen.
  */
-class XMLLocator {
+final class ElementTable {
+
+    /**
+     * The symbols of the elements, in the order of their atomic numbers.
+     */
+    private static final String[] PERIODIC_TABLE = {
+        "H", "He", "Li", "Be", "B", "C", "N", "O", "F", "Ne", "Na", "Mg", "Al", "Si", "P", "S", "Cl", "Ar",
+        "K", "Ca", "Sc", "Ti", "V", "Cr", "Mn", "Fe", "Co", "Ni", "Cu", "Zn", "Ga", "Ge", "As", "Se", "Br", "Kr",
+        "Rb", "Sr", "Y", "Zr", "Nb", "Mo", "Tc", "Ru", "Rh", "Pd", "Ag", "Cd", "In", "Sn", "Sb", "Te", "I", "Xe",
+        "Cs", "Ba", "La", "Ce", "Pr", "Nd", "Pm", "Sm", "Eu", "Gd", "Tb", "Dy", "Ho", "Er", "Tm", "Yb", "Lu",
+        "Hf", "Ta", "W", "Re", "Os", "Ir", "Pt", "Au", "Hg", "Tl", "Pb", "Bi", "Po", "At", "Rn",
+        "Fr", "Ra", "Ac", "Th", "Pa", "U", "Np", "Pu", "Am", "Cm", "Bk", "Cf", "Es", "Fm", "Md", "No", "Lr",
+        "Rf", "Db", "Sg", "Bh", "Hs", "Mt", "Ds", "Rg", "Cn", "Nh", "Fl", "Mc", "Lv", "Ts", "Og"
+    };
+
+    /**
+     * The index of carbon.
+     */
+    static final int CARBON = 5;
+
+    /**
+     * The index of the atoms without an element.
+     */
+    private static final int MISSING = PERIODIC_TABLE.length;
+
     /**
-     * The list of each level in ascending depth order.
+     * The index of each symbol.
      */
-    private final Stack<String> position = new Stack<>();
+    private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
 
     /**
-     * Sets the new current level.
+     * The symbol of each index.
+     */
+    private static final List<String> SYMBOLS = new CopyOnWriteArrayList<>();
+
+    static {
+        for (String symbol : PERIODIC_TABLE) {
+            INDICES.put(symbol, SYMBOLS.size());
+            SYMBOLS.add(symbol);
+        }
+        SYMBOLS.add(null);
+    }
+
+    private ElementTable() {}
+
+    /**
+     * Returns the index of an element, giving it one if it's not in the periodic table and hasn't been seen.
      *
-     * @param element the name of the tag.
+     * @param symbol the symbol of the element, null if the atom has none.
+     * @return the index of the element.
      */
-    public void push(String element) {
-        this.position.push(element);
+    public static int index(String symbol) {
+        if (symbol == null) {
+            return MISSING;
+        }
+        final Integer index = INDICES.get(symbol);
+        return index == null ? register(symbol) : index;
     }
 
     /**
-     * Goes back one level.
+     * Gives the next free index to an element not in the periodic table.
+     *
+     * @param symbol the symbol of the element.
+     * @return the index of the element.
      */
-    public void pop() {
-        this.position.pop();
+    private static synchronized int register(String symbol) {
+        final Integer index = INDICES.get(symbol);
+        if (index != null) {
+            return index;
+        }
+        SYMBOLS.add(symbol);
+        INDICES.put(symbol, SYMBOLS.size() - 1);
+        return SYMBOLS.size() - 1;
     }
 
     /**
-     * Returns a list with the current route in ascending depth order.
+     * Returns the symbol of an element.
      *
-     * @return a list with the current route in ascending depth order.
-     * #see position
-     * #see getPath
+     * @param index the index of the element.
+     * @return the symbol of the element, null if it's the one of the atoms without an element.
      */
-    public List<String> getRoute() {
-        return new LinkedList<>(this.position);
+    public static String symbol(int index) {
+        return SYMBOLS.get(index);
     }
 
     /**
-     * Returns a string with the current route in ascending depth order.
+     * Compares two elements by their symbols, the atoms without an element first.
      *
-     * @return a string with the current route in ascending depth order.
-     * #see position
-     * #see getRoute
+     * @param a the index of an element.
+     * @param b the index of another element.
+     * @return the order of the elements.
      */
-    public String getPath() {
-        return String.join(".", this.position);
+    public static int compare(int a, int b) {
+        final String first = SYMBOLS.get(a);
+        final String second = SYMBOLS.get(b);
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : -1) : 1;
+        }
+        return first.compareTo(second);
     }
 }
 
 /**
  * The container of all the information about an molecule.
+ * The atoms are counted in arrays indexed by the ElementTable,
+ * and the elements of the molecule and its sub-molecules are kept in a bitset.
  */
 class Molecule {
 
+    /**
+     * The counts of a molecule without atoms.
+     */
+    private static final int[] NO_ATOMS = new int[0];
+
     /**
      * The name of the molecule.
      */
     private String name;
 
     /**
-     * A map with the count of all the atoms of the molecule.
+     * The count of the atoms of the molecule, not counting its sub-molecules, by element index.
      */
-    private final Map<String, Integer> atoms;
+    private int[] atoms = NO_ATOMS;
 
     /**
      * A list with all the sub-molecules of the molecule.
@@ -375,18 +1227,35 @@ class Molecule {
     private final List<Molecule> submolecules = new ArrayList<>();
 
     /**
-     * The default empty constructor.
+     * The count of all the atoms of the molecule and its sub-molecules, by element index,
+     * kept up to date as elements and sub-molecules are added so reporting doesn't walk the sub-molecules.
      */
-    public Molecule() {
-        this.atoms = new HashMap<>();
-    }
+    private int[] elements = NO_ATOMS;
 
     /**
-     * The constructor for a molecule with an already defined amount of atoms.
+     * The elements of the molecule and its sub-molecules, a bit for each element index.
      */
-    private Molecule(Map<String, Integer> atoms) {
-        this.atoms = new HashMap<>(atoms);
-    }
+    private long[] present = new long[0];
+
+    /**
+     * The amount of atoms of the molecule and its sub-molecules.
+     */
+    private int atomCount = 0;
+
+    /**
+     * The amount of molecules of the tree of the molecule, itself included.
+     */
+    private int treeSize = 1;
+
+    /**
+     * The chemical formula of the molecule, null until it's needed after a change.
+     */
+    private String formula = null;
+
+    /**
+     * The hash code of the name, atoms and sub-molecules of the complete molecule, null until it's needed.
+     */
+    private Integer shape = null;
 
     /**
      * Sets the name to the molecule.
@@ -414,12 +1283,15 @@ class Molecule {
      * @param count the number of atoms of the element to be added to the molecule.
      */
     public void addElement(String element, int count) {
-        final Integer entry = this.atoms.get(element);
-        if (entry == null) {
-            this.atoms.put(element, count);
-        } else {
-            this.atoms.put(element, entry + count);
-        }
+        final int index = ElementTable.index(element);
+        this.atoms = fit(this.atoms, index + 1);
+        this.atoms[index] += count;
+        this.elements = fit(this.elements, index + 1);
+        this.elements[index] += count;
+        this.present = fit(this.present, (index >>> 6) + 1);
+        this.present[index >>> 6] |= 1L << index;
+        this.atomCount += count;
+        this.formula = null;
     }
 
     /**
@@ -433,11 +1305,90 @@ class Molecule {
 
     /**
      * Adds a sub-molecule to the molecule.
+     * The sub-molecule must be complete, its later changes aren't counted in this molecule.
      *
      * @param molecule the sub-molecule to be added to the molecule.
      */
     public void addMolecule(Molecule molecule) {
         this.submolecules.add(molecule);
+        this.elements = fit(this.elements, molecule.elements.length);
+        for (int i = 0; i < molecule.elements.length; i++) {
+            this.elements[i] += molecule.elements[i];
+        }
+        this.present = fit(this.present, molecule.present.length);
+        for (int i = 0; i < molecule.present.length; i++) {
+            this.present[i] |= molecule.present[i];
+        }
+        this.atomCount += molecule.atomCount;
+        this.treeSize += molecule.treeSize;
+        this.formula = null;
+    }
+
+    /**
+     * Grows the counts to fit an amount of elements.
+     *
+     * @param counts the counts.
+     * @param length the amount of elements.
+     * @return the counts, or a copy of them if they were shorter.
+     */
+    private static int[] fit(int[] counts, int length) {
+        return counts.length < length ? Arrays.copyOf(counts, length) : counts;
+    }
+
+    /**
+     * Grows a bitset to fit an amount of words.
+     *
+     * @param bits the bitset.
+     * @param length the amount of words.
+     * @return the bitset, or a copy of it if it was shorter.
+     */
+    private static long[] fit(long[] bits, int length) {
+        return bits.length < length ? Arrays.copyOf(bits, length) : bits;
+    }
+
+    /**
+     * Writes the molecule and its sub-molecules in binary form, to be stored in a ResultCache.
+     *
+     * @param out the stream the molecule is written to.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        ResultCache.writeString(out, this.name);
+        int elements = 0;
+        for (int count : this.atoms) {
+            if (count != 0) {
+                elements++;
+            }
+        }
+        out.writeInt(elements);
+        for (int i = 0; i < this.atoms.length; i++) {
+            if (this.atoms[i] != 0) {
+                ResultCache.writeString(out, ElementTable.symbol(i));
+                out.writeInt(this.atoms[i]);
+            }
+        }
+        out.writeInt(this.submolecules.size());
+        for (Molecule molecule : this.submolecules) {
+            molecule.write(out);
+        }
+    }
+
+    /**
+     * Reads a molecule written by write.
+     *
+     * @param in the stream the molecule is read from.
+     * @return the molecule.
+     */
+    public static Molecule read(DataInputStream in) throws IOException {
+        final Molecule molecule = new Molecule();
+        molecule.name = ResultCache.readString(in);
+        for (int elements = in.readInt(); elements > 0; elements--) {
+            final String element = ResultCache.readString(in);
+            molecule.addElement(element, in.readInt());
+        }
+        for (int submolecules = in.readInt(); submolecules > 0; submolecules--) {
+            molecule.addMolecule(read(in));
+        }
+        return molecule;
     }
 
     /**
@@ -450,49 +1401,152 @@ class Molecule {
     }
 
     /**
-     * Returns the list of all the atoms of the molecule.
+     * Returns the indices of the elements of the molecule, sorted by their symbols.
+     *
+     * @return the indices of the elements of the molecule.
+     */
+    private int[] getSortedElements() {
+        final int[] sorted = new int[this.getElementCount()];
+        int size = 0;
+        for (int word = 0; word < this.present.length; word++) {
+            for (long bits = this.present[word]; bits != 0; bits &= bits - 1) {
+                final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                int i = size++;
+                for (; i > 0 && ElementTable.compare(sorted[i - 1], index) > 0; i--) {
+                    sorted[i] = sorted[i - 1];
+                }
+                sorted[i] = index;
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the list of all the atoms of the molecule, sorted by element.
      *
      * @return the list of all the atoms of the molecule.
      */
     public List<String> getAllElements() {
-        final List<String> elements = new ArrayList<>();
-        for (Entry<String, Integer> entry : this.atoms.entrySet()) {
-            for (int i = 0; i < entry.getValue(); i++) {
-                elements.add(entry.getKey());
+        final List<String> elements = new ArrayList<>(this.atomCount);
+        for (int index : this.getSortedElements()) {
+            for (int i = 0; i < this.elements[index]; i++) {
+                elements.add(ElementTable.symbol(index));
             }
         }
-        for (Molecule molecule : this.submolecules) {
-            elements.addAll(molecule.getAllElements());
-        }
         return elements;
     }
 
     /**
-     * Returns the map of the count of all the atoms of the molecule.
+     * Returns the amount of atoms of the molecule and its sub-molecules.
      *
-     * @return the map of the count of all the atoms of the molecule.
+     * @return the amount of atoms of the molecule.
      */
-    public Map<String, Integer> getElementMap() {
-        final Molecule fullMolecule = new Molecule(this.atoms);
-        for (Molecule molecule : this.submolecules) {
-            for (Entry<String, Integer> entry : molecule.getElementMap().entrySet()) {
-                fullMolecule.addElement(entry.getKey(), entry.getValue());
+    public int getAtomCount() {
+        return this.atomCount;
+    }
+
+    /**
+     * Returns the hash code of the name, atoms and sub-molecules of the molecule,
+     * the same for identical molecules. It's computed once, so the molecule must be complete.
+     *
+     * @return the shape of the molecule.
+     */
+    public int getShape() {
+        if (this.shape == null) {
+            int shape = Objects.hashCode(this.name);
+            shape = 31 * shape + Arrays.hashCode(this.atoms);
+            for (Molecule molecule : this.submolecules) {
+                shape = 31 * shape + molecule.getShape();
             }
+            this.shape = shape;
         }
-        return fullMolecule.atoms;
+        return this.shape;
     }
 
     /**
-     * Returns the chemical formula of the molecule.
+     * Returns whether the molecule is identical to another one, with the same name, atoms and sub-molecules,
+     * the sub-molecules being the same instances.
+     *
+     * @param other the other molecule.
+     * @return whether the molecules are identical.
+     */
+    public Boolean isIdentical(Molecule other) {
+        if (this == other) {
+            return true;
+        }
+        if (!Objects.equals(this.name, other.name) || !Arrays.equals(this.atoms, other.atoms)
+                || this.submolecules.size() != other.submolecules.size()) {
+            return false;
+        }
+        for (int i = 0; i < this.submolecules.size(); i++) {
+            if (this.submolecules.get(i) != other.submolecules.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shares the formula of the molecule with the molecules with the same one.
+     *
+     * @param formulas the table of the formulas.
+     */
+    public void shareFormula(SymbolTable formulas) {
+        this.formula = formulas.intern(this.getFormula());
+    }
+
+    /**
+     * Returns the amount of molecules of the tree of the molecule, the molecule and its sub-molecules at any level.
+     *
+     * @return the amount of molecules of the tree of the molecule.
+     */
+    public int getTreeSize() {
+        return this.treeSize;
+    }
+
+    /**
+     * Returns the amount of different elements of the molecule and its sub-molecules.
+     *
+     * @return the amount of different elements of the molecule.
+     */
+    public int getElementCount() {
+        int count = 0;
+        for (long bits : this.present) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the map of the count of all the atoms of the molecule, built on each call.
+     *
+     * @return the map of the count of all the atoms of the molecule, sorted by element.
+     */
+    public Map<String, Integer> getElementMap() {
+        final Map<String, Integer> elements = new LinkedHashMap<>();
+        for (int index : this.getSortedElements()) {
+            elements.put(ElementTable.symbol(index), this.elements[index]);
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the chemical formula of the molecule, built once until the molecule changes.
      *
      * @return the chemical formula of the molecule.
      */
     public String getFormula() {
-        return this.getElementMap().entrySet()
-            .stream()
-            .sorted((a, b) -> a.getKey().compareTo(b.getKey()))
-            .map(a -> a.getKey() + (a.getValue() > 1 ? a.getValue() : ""))
-            .collect(joining(""));
+        if (this.formula == null) {
+            final StringBuilder formula = new StringBuilder();
+            for (int index : this.getSortedElements()) {
+                formula.append(ElementTable.symbol(index));
+                if (this.elements[index] > 1) {
+                    formula.append(this.elements[index]);
+                }
+            }
+            this.formula = formula.toString();
+        }
+        return this.formula;
     }
 
     /**
@@ -503,7 +1557,7 @@ class Molecule {
      * @return wether the molecule is organic or not.
      */
     public Boolean isOrganic() {
-        return this.getElementMap().containsKey("C");
+        return this.present.length > 0 && (this.present[0] & 1L << ElementTable.CARBON) != 0;
     }
 
     /**
@@ -512,14 +1566,13 @@ class Molecule {
      * @return the type of molecule according to the number of atoms.
      */
     public String getAtomicCategorization() {
-        List<String> allElements = getAllElements();
-        if (allElements.size() == 1) {
+        if (this.atomCount == 1) {
             return "monatomic";
-        } else if (allElements.size() == 2) {
+        } else if (this.atomCount == 2) {
             return "diatomic";
-        } else if (allElements.size() == 3) {
+        } else if (this.atomCount == 3) {
             return "triatomic";
-        } else if (allElements.size() > 3) {
+        } else if (this.atomCount > 3) {
             return "polyatomic";
         }
         return "";
@@ -534,8 +1587,8 @@ class Molecule {
     @Override
     public String toString() {
         return "\"" + getName() + "\" made of " + getFormula() +
-            " (" + getAllElements().size() + " atoms, " + getElementMap().size() + " elements)" +
+            " (" + getAtomCount() + " atoms, " + getElementCount() + " elements)" +
             ". It is an " + (isOrganic() ? "organic " : "inorganic ") + getAtomicCategorization() + " compound." +
             (getSubMolecules().size() == 0 ? "" : " It has " + getSubMolecules().size() + " sub-molecules:");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+/* DaemonParser imports */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.xml.sax.XMLReader;
+
+/**
+ * A long running parser of XML files in CML format, so the start up of the JVM,
+ * the creation of the parsers and the JIT warm up are only paid once.
+ * Each job is a line with the URI of a file, the results of the job are output
+ * as soon as it's parsed, followed by an empty line.
+ * Jobs are read either from a stream, such as the standard input,
+ * or from the connections to a local socket.
+ */
+public class DaemonParser {
+
+    /**
+     * The parser used to create the readers and parse the files.
+     */
+    private final CMLParser parser;
+
+    /**
+     * The warm parsers, one per thread, each one keeping its handler between jobs.
+     */
+    private final ThreadLocal<XMLReader> readers;
+
+    /**
+     * The default constructor, for a daemon that parses every file.
+     */
+    public DaemonParser() {
+        this(new CMLParser());
+    }
+
+    /**
+     * The constructor of a daemon.
+     *
+     * @param parser the parser of the files, and its cache.
+     */
+    public DaemonParser(CMLParser parser) {
+        this.parser = parser;
+        this.readers = ThreadLocal.withInitial(() -> this.parser.createReader());
+    }
+
+    /**
+     * Parses the jobs of a stream until it ends.
+     *
+     * @param in the stream the jobs are read from, one URI per line.
+     * @param out the stream the results are output to.
+     */
+    public void serve(InputStream in, PrintStream out) {
+        final BufferedReader jobs = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            for (String job = jobs.readLine(); job != null; job = jobs.readLine()) {
+                if (!job.trim().isEmpty()) {
+                    this.run(job.trim(), out);
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Error reading the jobs: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Accepts connections to a local socket forever, serving each one on its own thread.
+     *
+     * @param port the port of the socket, only bound to the loopback address.
+     * @param threads the maximum amount of connections served at the same time.
+     */
+    public void listen(int port, int threads) {
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + server.getLocalSocketAddress());
+            while (true) {
+                final Socket socket = server.accept();
+                pool.submit(() -> {
+                    try (Socket connection = socket) {
+                        this.serve(connection.getInputStream(),
+                            new PrintStream(connection.getOutputStream(), false, "UTF-8"));
+                    } catch (IOException ex) {
+                        System.err.println("Error serving a connection: " + ex.getMessage());
+                    }
+                });
+            }
+        } catch (IOException ex) {
+            System.err.println("Error listening on the socket: " + ex.getMessage());
+            throw new RuntimeException("Error listening on the socket", ex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a job with the parser of the current thread and outputs its results.
+     * A job that fails outputs its error instead, without stopping the daemon.
+     *
+     * @param uri the URI of the file to be parsed.
+     * @param out the stream the results are output to.
+     */
+    private void run(String uri, PrintStream out) {
+        try {
+            this.parser.parse(this.readers.get(), uri).print(out, this.parser.getFormat());
+        } catch (RuntimeException ex) {
+            out.println("- Error: " + ex.getMessage());
+        }
+        out.println();
+        out.flush();
+    }
+}
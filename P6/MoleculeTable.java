@@ -0,0 +1,125 @@
+/* MoleculeTable imports */
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bounded table of the molecules found, so identical molecules, e.g. water or a common ligand,
+ * share a single instance instead of each one keeping its own tree.
+ * Two molecules are identical if they have the same name and atoms, and their sub-molecules are the same instances,
+ * so the molecules are shared from the innermost ones outwards and comparing them never walks their trees.
+ * The formulas of the molecules kept are shared through a symbol table, so identical formulas are a single string too.
+ * It's an open addressing table of a fixed capacity: once the slots of a molecule are taken,
+ * the molecule replaces the one of its first slot, so it keeps the most recent molecules without growing.
+ * It isn't thread safe, each handler keeping its own table, cleared for every file it parses.
+ */
+class MoleculeTable {
+
+    /**
+     * The default amount of molecules of a table.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 12;
+
+    /**
+     * The amount of slots where a molecule may be kept.
+     */
+    private static final int PROBES = 8;
+
+    /**
+     * The molecules, null in the empty slots.
+     */
+    private final Molecule[] molecules;
+
+    /**
+     * The shapes of the molecules of each slot.
+     */
+    private final int[] shapes;
+
+    /**
+     * The mask of the indexes of the slots.
+     */
+    private final int mask;
+
+    /**
+     * The table sharing the formulas of the molecules kept.
+     */
+    private final SymbolTable formulas;
+
+    /**
+     * The constructor of a table of the default capacity.
+     *
+     * @param formulas the table sharing the formulas of the molecules kept.
+     */
+    public MoleculeTable(SymbolTable formulas) {
+        this(DEFAULT_CAPACITY, formulas);
+    }
+
+    /**
+     * The constructor of a table.
+     *
+     * @param capacity the maximum amount of molecules, rounded up to a power of two.
+     * @param formulas the table sharing the formulas of the molecules kept.
+     */
+    public MoleculeTable(int capacity, SymbolTable formulas) {
+        final int slots = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+        this.molecules = new Molecule[slots];
+        this.shapes = new int[slots];
+        this.mask = slots - 1;
+        this.formulas = formulas;
+    }
+
+    /**
+     * Returns the instance of a complete molecule, the one in the table if an identical one has already been found.
+     * Its sub-molecules must have already been shared.
+     *
+     * @param molecule the molecule.
+     * @return the instance of the molecule.
+     */
+    public Molecule share(Molecule molecule) {
+        final int shape = molecule.getShape();
+        final int home = spread(shape) & this.mask;
+        int empty = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = (home + probe) & this.mask;
+            final Molecule kept = this.molecules[slot];
+            if (kept == null) {
+                empty = empty < 0 ? slot : empty;
+            } else if (this.shapes[slot] == shape && kept.isIdentical(molecule)) {
+                return kept;
+            }
+        }
+        molecule.shareFormula(this.formulas);
+        final int slot = empty < 0 ? home : empty;
+        this.molecules[slot] = molecule;
+        this.shapes[slot] = shape;
+        return molecule;
+    }
+
+    /**
+     * Returns the instance of a complete molecule, sharing its sub-molecules first,
+     * e.g. for the molecules taken from the cache.
+     *
+     * @param molecule the molecule.
+     * @return the instance of the molecule.
+     */
+    public Molecule shareTree(Molecule molecule) {
+        final List<Molecule> submolecules = molecule.getSubMolecules();
+        for (int i = 0; i < submolecules.size(); i++) {
+            submolecules.set(i, this.shareTree(submolecules.get(i)));
+        }
+        return this.share(molecule);
+    }
+
+    /**
+     * Removes every molecule, e.g. before parsing another file.
+     */
+    public void clear() {
+        Arrays.fill(this.molecules, null);
+    }
+
+    /**
+     * Spreads the high bits of a hash code to the low ones, which are the ones indexing the slots.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
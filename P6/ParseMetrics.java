@@ -0,0 +1,381 @@
+/* ParseMetrics imports */
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+/* MeteredHandler imports */
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+/* Event imports */
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The metrics of the parsing: bytes read, elements and molecules parsed,
+ * and the time spent reading, in Xerces, in the handler and outputting the reports.
+ * They are only collected once enabled, and exposed through JMX while the program runs.
+ * The JFR events of the documents, molecules and reports are independent of them,
+ * as JFR itself only records them when asked to.
+ */
+public class ParseMetrics implements ParseMetricsMBean, SharedMetrics {
+
+    /**
+     * The metrics of the program, null if they aren't enabled.
+     */
+    private static volatile ParseMetrics metrics;
+
+    /**
+     * When the metrics were enabled.
+     */
+    private final long start = System.nanoTime();
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder molecules = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder handlerNanos = new LongAdder();
+    private final LongAdder reportNanos = new LongAdder();
+    private final LongAdder symbolLookups = new LongAdder();
+    private final LongAdder symbolHits = new LongAdder();
+
+    /**
+     * Enables the metrics and registers them as an MBean, e.g. ubu.prole:type=ParseMetrics,name=CMLParser
+     *
+     * @param name the name of the program.
+     * @return the metrics.
+     */
+    public static synchronized ParseMetrics enable(String name) {
+        if (metrics == null) {
+            final ParseMetrics enabled = new ParseMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(enabled, new ObjectName("ubu.prole:type=ParseMetrics,name=" + name));
+            } catch (JMException ex) {
+                System.err.println("Error registering the metrics: " + ex.getMessage());
+                throw new RuntimeException("Error registering the metrics", ex);
+            }
+            metrics = enabled;
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of the program.
+     *
+     * @return the metrics, or null if they aren't enabled.
+     */
+    public static ParseMetrics get() {
+        return metrics;
+    }
+
+    /**
+     * Adds a read from a file.
+     *
+     * @param bytes the amount of bytes read.
+     * @param nanos the time spent reading them.
+     */
+    public void addRead(long bytes, long nanos) {
+        this.bytesRead.add(bytes);
+        this.readNanos.add(nanos);
+    }
+
+    /**
+     * Adds a parsed document.
+     *
+     * @param nanos the time spent parsing it, reading and handling its events included.
+     */
+    public void addDocument(long nanos) {
+        this.documents.increment();
+        this.parseNanos.add(nanos);
+    }
+
+    /**
+     * Adds the events handled.
+     *
+     * @param elements the amount of elements.
+     * @param nanos the time spent by the handler.
+     */
+    public void addHandled(long elements, long nanos) {
+        this.elements.add(elements);
+        this.handlerNanos.add(nanos);
+    }
+
+    /**
+     * Adds a molecule found, submolecules included.
+     */
+    public void addMolecule() {
+        this.molecules.increment();
+    }
+
+    /**
+     * Adds an output report.
+     *
+     * @param nanos the time spent outputting it.
+     */
+    public void addReport(long nanos) {
+        this.reportNanos.add(nanos);
+    }
+
+    /**
+     * Adds the strings looked up in a SymbolTable.
+     *
+     * @param lookups the amount of strings looked up.
+     * @param hits the amount of them that were already in the table.
+     */
+    public void addSymbols(long lookups, long hits) {
+        this.symbolLookups.add(lookups);
+        this.symbolHits.add(hits);
+    }
+
+    public long getDocuments() {
+        return this.documents.sum();
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    public long getElements() {
+        return this.elements.sum();
+    }
+
+    public long getMolecules() {
+        return this.molecules.sum();
+    }
+
+    public double getMegabytesPerSecond() {
+        return this.getBytesRead() / 1e6 / this.elapsed();
+    }
+
+    public double getElementsPerSecond() {
+        return this.getElements() / this.elapsed();
+    }
+
+    public long getReadTime() {
+        return this.readNanos.sum() / 1000000;
+    }
+
+    public long getXercesTime() {
+        return Math.max(0, this.parseNanos.sum() - this.readNanos.sum() - this.handlerNanos.sum()) / 1000000;
+    }
+
+    public long getHandlerTime() {
+        return this.handlerNanos.sum() / 1000000;
+    }
+
+    public long getReportTime() {
+        return this.reportNanos.sum() / 1000000;
+    }
+
+    public long getSymbolLookups() {
+        return this.symbolLookups.sum();
+    }
+
+    public double getSymbolHitRate() {
+        final long lookups = this.getSymbolLookups();
+        return lookups == 0 ? 0 : this.symbolHits.sum() * 100.0 / lookups;
+    }
+
+    /**
+     * Shows the metrics.
+     *
+     * @param out the stream the metrics are output to.
+     */
+    public void print(PrintStream out) {
+        out.println("- Documents: " + this.getDocuments());
+        out.println("- Bytes read: " + this.getBytesRead() + String.format(" (%.2f MB/s)", this.getMegabytesPerSecond()));
+        out.println("- Elements: " + this.getElements() + String.format(" (%.0f elements/s)", this.getElementsPerSecond()));
+        out.println("- Molecules: " + this.getMolecules());
+        out.println("- Time reading: " + this.getReadTime() + " ms");
+        out.println("- Time in Xerces: " + this.getXercesTime() + " ms");
+        out.println("- Time in the handler: " + this.getHandlerTime() + " ms");
+        out.println("- Time outputting the report: " + this.getReportTime() + " ms");
+        out.println("- Strings looked up in the symbol tables: " + this.getSymbolLookups() +
+            String.format(" (%.1f%% shared)", this.getSymbolHitRate()));
+    }
+
+    /**
+     * Returns the seconds since the metrics were enabled.
+     */
+    private double elapsed() {
+        return Math.max(1, System.nanoTime() - this.start) / 1e9;
+    }
+}
+
+/**
+ * A handler measuring the time spent by another one, and counting the elements.
+ * It's only set when the metrics are enabled, so it costs nothing otherwise.
+ * The metrics are added at the end of each document, not to contend for them on each event.
+ */
+class MeteredHandler implements ContentHandler {
+
+    /**
+     * The handler being measured.
+     */
+    private final ContentHandler handler;
+
+    /**
+     * The metrics.
+     */
+    private final ParseMetrics metrics;
+
+    private long elements = 0;
+    private long nanos = 0;
+    private long start;
+
+    /**
+     * The constructor of a metered handler.
+     *
+     * @param handler the handler being measured.
+     * @param metrics the metrics.
+     */
+    public MeteredHandler(ContentHandler handler, ParseMetrics metrics) {
+        this.handler = handler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the handler being measured.
+     */
+    public ContentHandler getHandler() {
+        return this.handler;
+    }
+
+    private void begin() {
+        this.start = System.nanoTime();
+    }
+
+    private void end() {
+        this.nanos += System.nanoTime() - this.start;
+    }
+
+    public void setDocumentLocator(Locator locator) {
+        this.handler.setDocumentLocator(locator);
+    }
+
+    public void startDocument() throws SAXException {
+        this.elements = 0;
+        this.nanos = 0;
+        this.begin();
+        this.handler.startDocument();
+        this.end();
+    }
+
+    public void endDocument() throws SAXException {
+        this.begin();
+        this.handler.endDocument();
+        this.end();
+        this.metrics.addHandled(this.elements, this.nanos);
+    }
+
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        this.begin();
+        this.handler.startPrefixMapping(prefix, uri);
+        this.end();
+    }
+
+    public void endPrefixMapping(String prefix) throws SAXException {
+        this.begin();
+        this.handler.endPrefixMapping(prefix);
+        this.end();
+    }
+
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        this.elements++;
+        this.begin();
+        this.handler.startElement(uri, localName, qName, atts);
+        this.end();
+    }
+
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        this.begin();
+        this.handler.endElement(uri, localName, qName);
+        this.end();
+    }
+
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        this.begin();
+        this.handler.characters(ch, start, length);
+        this.end();
+    }
+
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        this.begin();
+        this.handler.ignorableWhitespace(ch, start, length);
+        this.end();
+    }
+
+    public void processingInstruction(String target, String data) throws SAXException {
+        this.begin();
+        this.handler.processingInstruction(target, data);
+        this.end();
+    }
+
+    public void skippedEntity(String name) throws SAXException {
+        this.begin();
+        this.handler.skippedEntity(name);
+        this.end();
+    }
+}
+
+/**
+ * The JFR event of a parsed document.
+ */
+@Name("ubu.prole.Document")
+@Label("Document")
+@Category({"UBU-ProLe", "CMLParser"})
+@Description("A document parsed, each XML entry of a zip bundle being one")
+class DocumentEvent extends Event {
+
+    @Label("URI")
+    String uri;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytes;
+}
+
+/**
+ * The JFR event of a molecule found, lasting from its start tag to its end tag.
+ */
+@Name("ubu.prole.Molecule")
+@Label("Molecule")
+@Category({"UBU-ProLe", "CMLParser"})
+@Description("A molecule found, submolecules included")
+class MoleculeEvent extends Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Atoms")
+    int atoms;
+
+    @Label("Submolecules")
+    int submolecules;
+
+    @Label("Depth")
+    @Description("The amount of molecules it's inside of")
+    int depth;
+}
+
+/**
+ * The JFR event of a report being output.
+ */
+@Name("ubu.prole.Report")
+@Label("Report")
+@Category({"UBU-ProLe", "CMLParser"})
+@Description("The results being output")
+class ReportEvent extends Event {
+
+    @Label("Molecules")
+    int molecules;
+}
@@ -0,0 +1,218 @@
+/* RankingTask imports */
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ranks a range of molecules that don't belong to other ones by their atoms, sub-molecules and different elements,
+ * splitting it into tasks of a fork/join pool while it's larger than a threshold.
+ * The rankings of each half are merged in order, so the result is the same as ranking the molecules one after another.
+ */
+class RankingTask extends RecursiveTask<RankingTask.Rankings> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The amount of molecules ranked by a single task.
+     */
+    static final int THRESHOLD = 1024;
+
+    private final List<Molecule> molecules;
+    private final int from;
+    private final int to;
+    private final int top;
+
+    /**
+     * The constructor of a ranking task.
+     *
+     * @param molecules the molecules.
+     * @param from the index of the first molecule ranked.
+     * @param to the index after the last molecule ranked.
+     * @param top the amount of molecules kept by each ranking.
+     */
+    RankingTask(List<Molecule> molecules, int from, int to, int top) {
+        this.molecules = molecules;
+        this.from = from;
+        this.to = to;
+        this.top = top;
+    }
+
+    /**
+     * Ranks the molecules, in parallel if there's a pool and there are enough of them.
+     *
+     * @param pool the pool, or null to rank them on the calling thread.
+     * @param molecules the molecules.
+     * @param top the amount of molecules kept by each ranking.
+     * @return the rankings of the molecules.
+     */
+    public static Rankings rank(ForkJoinPool pool, List<Molecule> molecules, int top) {
+        final RankingTask task = new RankingTask(molecules, 0, molecules.size(), top);
+        return pool == null || molecules.size() <= THRESHOLD ? task.compute() : pool.invoke(task);
+    }
+
+    @Override
+    protected Rankings compute() {
+        if (this.to - this.from > THRESHOLD) {
+            final int middle = (this.from + this.to) >>> 1;
+            final RankingTask first = new RankingTask(this.molecules, this.from, middle, this.top);
+            first.fork();
+            final Rankings second = new RankingTask(this.molecules, middle, this.to, this.top).compute();
+            final Rankings rankings = first.join();
+            rankings.addAll(second);
+            return rankings;
+        }
+        final Rankings rankings = new Rankings(this.top);
+        for (int i = this.from; i < this.to; i++) {
+            rankings.add(this.molecules.get(i));
+        }
+        return rankings;
+    }
+
+    /**
+     * The rankings of some molecules.
+     */
+    static class Rankings {
+
+        final TopK<String> mostAtoms;
+        final TopK<String> mostSubMolecules;
+        final TopK<String> mostElements;
+
+        Rankings(int top) {
+            this.mostAtoms = new TopK<>(top);
+            this.mostSubMolecules = new TopK<>(top);
+            this.mostElements = new TopK<>(top);
+        }
+
+        /**
+         * Ranks a molecule after the ones already ranked.
+         *
+         * @param molecule the molecule.
+         */
+        void add(Molecule molecule) {
+            this.mostAtoms.add(molecule.getName(), molecule.getAtomCount());
+            this.mostSubMolecules.add(molecule.getName(), molecule.getSubMolecules().size());
+            this.mostElements.add(molecule.getName(), molecule.getElementCount());
+        }
+
+        /**
+         * Removes every molecule.
+         */
+        void clear() {
+            this.mostAtoms.clear();
+            this.mostSubMolecules.clear();
+            this.mostElements.clear();
+        }
+
+        /**
+         * Ranks the molecules of other rankings, as if they had been ranked after the ones of these.
+         *
+         * @param other the other rankings.
+         */
+        void addAll(Rankings other) {
+            this.mostAtoms.addAll(other.mostAtoms);
+            this.mostSubMolecules.addAll(other.mostSubMolecules);
+            this.mostElements.addAll(other.mostElements);
+        }
+    }
+}
+
+/**
+ * Renders the text of a range of molecules and their sub-molecules, as CMLHandler.printSubMolecules does,
+ * splitting it into tasks of a fork/join pool while it has more molecules than a threshold.
+ * A single molecule above the threshold, e.g. a polymer, renders its sub-molecules in tasks of their own.
+ */
+class RenderingTask extends RecursiveTask<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The amount of molecules, sub-molecules included, rendered by a single task.
+     */
+    static final int THRESHOLD = 512;
+
+    /**
+     * The amount of molecules, sub-molecules included, rendered before their text is output,
+     * so the text kept in memory doesn't grow with the amount of molecules.
+     */
+    private static final int BATCH = 1 << 16;
+
+    private final List<Molecule> molecules;
+    private final int from;
+    private final int to;
+    private final int level;
+
+    /**
+     * The constructor of a rendering task.
+     *
+     * @param molecules the molecules.
+     * @param from the index of the first molecule rendered.
+     * @param to the index after the last molecule rendered.
+     * @param level the nesting level of the molecules, 1 if they don't belong to another one.
+     */
+    RenderingTask(List<Molecule> molecules, int from, int to, int level) {
+        this.molecules = molecules;
+        this.from = from;
+        this.to = to;
+        this.level = level;
+    }
+
+    /**
+     * Outputs the text of molecules that don't belong to other ones, rendered in parallel, in batches.
+     *
+     * @param pool the pool.
+     * @param out the stream the molecules are output to.
+     * @param molecules the molecules.
+     */
+    public static void print(ForkJoinPool pool, PrintStream out, List<Molecule> molecules) {
+        int from = 0;
+        int size = 0;
+        for (int i = 0; i < molecules.size(); i++) {
+            size += molecules.get(i).getTreeSize();
+            if (size >= BATCH || i == molecules.size() - 1) {
+                out.print(pool.invoke(new RenderingTask(molecules, from, i + 1, 1)));
+                from = i + 1;
+                size = 0;
+            }
+        }
+    }
+
+    @Override
+    protected String compute() {
+        int size = 0;
+        for (int i = this.from; i < this.to; i++) {
+            size += this.molecules.get(i).getTreeSize();
+        }
+        if (size <= THRESHOLD) {
+            final StringBuilder text = new StringBuilder();
+            for (int i = this.from; i < this.to; i++) {
+                render(text, this.molecules.get(i), this.level);
+            }
+            return text.toString();
+        }
+        if (this.to - this.from == 1) {
+            final Molecule molecule = this.molecules.get(this.from);
+            return CMLHandler.line(molecule, this.level) + System.lineSeparator() +
+                new RenderingTask(molecule.getSubMolecules(), 0, molecule.getSubMolecules().size(), this.level + 1).compute();
+        }
+        final int middle = (this.from + this.to) >>> 1;
+        final RenderingTask first = new RenderingTask(this.molecules, this.from, middle, this.level);
+        first.fork();
+        final String second = new RenderingTask(this.molecules, middle, this.to, this.level).compute();
+        return first.join() + second;
+    }
+
+    /**
+     * Renders a molecule and its sub-molecules on the current thread.
+     *
+     * @param text the text the molecules are appended to.
+     * @param molecule the molecule.
+     * @param level the nesting level of the molecule.
+     */
+    private static void render(StringBuilder text, Molecule molecule, int level) {
+        text.append(CMLHandler.line(molecule, level)).append(System.lineSeparator());
+        for (Molecule subMolecule : molecule.getSubMolecules()) {
+            render(text, subMolecule, level + 1);
+        }
+    }
+}
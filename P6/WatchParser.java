@@ -0,0 +1,120 @@
+/* WatchParser imports */
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.xml.sax.XMLReader;
+
+/**
+ * Keeps the results of a directory of XML files in CML format up to date while files arrive,
+ * change or are deleted, only parsing those files.
+ * The rankings of each file are folded into the running ones, replacing the previous ones of the file,
+ * and the updated summary is output at once, as text followed by an empty line or as a JSONL summary record.
+ */
+public class WatchParser extends DirectoryWatcher {
+
+    /**
+     * The parser used to create the reader and parse the files.
+     */
+    private final CMLParser parser;
+
+    /**
+     * The warm reader, reused for every file.
+     */
+    private final XMLReader reader;
+
+    /**
+     * The writer of the summaries if the format is JSONL, null otherwise.
+     */
+    private final RecordWriter records;
+
+    /**
+     * The amount of molecules of each file, not counting their sub-molecules.
+     */
+    private final Map<Path, Integer> totals = new HashMap<>();
+
+    /* The rankings of every file */
+    private final FileRanking mostAtoms = new FileRanking();
+    private final FileRanking mostSubMolecules = new FileRanking();
+    private final FileRanking mostElements = new FileRanking();
+
+    /**
+     * The amount of molecules of every file.
+     */
+    private int molecules = 0;
+
+    /**
+     * The constructor of a watch parser.
+     *
+     * @param parser the parser of the files, its cache, format and rankings.
+     * @param directory the directory to be watched.
+     */
+    public WatchParser(CMLParser parser, String directory) {
+        super(directory);
+        this.parser = parser;
+        this.reader = parser.createReader();
+        this.records = parser.getFormat() == OutputFormat.JSONL ? new RecordWriter(System.out, OutputFormat.JSONL) : null;
+    }
+
+    /**
+     * Parses a file, replacing its previous results.
+     * A file that can't be parsed is skipped, keeping its previous results.
+     *
+     * @param file the file.
+     * @return whether the file was parsed.
+     */
+    @Override
+    protected Boolean update(Path file) {
+        final CMLHandler handler;
+        try {
+            handler = this.parser.parse(this.reader, file.toString());
+        } catch (RuntimeException ex) {
+            System.err.println("Skipping " + file + ": " + ex.getMessage());
+            return false;
+        }
+        this.remove(file);
+        this.mostAtoms.put(file, handler.getMostAtoms().getEntries());
+        this.mostSubMolecules.put(file, handler.getMostSubMolecules().getEntries());
+        this.mostElements.put(file, handler.getMostElements().getEntries());
+        this.totals.put(file, handler.getMoleculeCount());
+        this.molecules += handler.getMoleculeCount();
+        return true;
+    }
+
+    /**
+     * Removes the results of a file.
+     *
+     * @param file the file.
+     */
+    @Override
+    protected void remove(Path file) {
+        final Integer previous = this.totals.remove(file);
+        if (previous != null) {
+            this.mostAtoms.remove(file);
+            this.mostSubMolecules.remove(file);
+            this.mostElements.remove(file);
+            this.molecules -= previous;
+        }
+    }
+
+    /**
+     * Outputs the summary of every file, the rankings and the amount of molecules.
+     */
+    @Override
+    protected void publish() {
+        final int top = this.parser.getTop();
+        if (this.records != null) {
+            this.records.write(
+                new String[] {"type", "most_atoms", "most_submolecules", "most_elements", "molecules"},
+                new Object[] {"summary", this.mostAtoms.top(top).getValues(), this.mostSubMolecules.top(top).getValues(),
+                    this.mostElements.top(top).getValues(), this.molecules});
+            this.records.flush();
+            return;
+        }
+        CMLHandler.printRanking(System.out, "atoms", this.mostAtoms.top(top));
+        CMLHandler.printRanking(System.out, "sub-molecules", this.mostSubMolecules.top(top));
+        CMLHandler.printRanking(System.out, "different elements", this.mostElements.top(top));
+        System.out.println("- Molecules found: " + this.molecules);
+        System.out.println();
+        System.out.flush();
+    }
+}
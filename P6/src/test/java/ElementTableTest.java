@@ -0,0 +1,89 @@
+/* ElementTableTest imports */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The ElementTable indexes the periodic table by atomic number, and any other symbol, or a missing one,
+ * by an index of its own, so the molecules count them as they counted them by symbol.
+ */
+class ElementTableTest {
+
+    @Test
+    void periodicTableIsIndexedByAtomicNumber() {
+        assertEquals(0, ElementTable.index("H"));
+        assertEquals(ElementTable.CARBON, ElementTable.index("C"));
+        assertEquals(25, ElementTable.index("Fe"));
+        assertEquals(117, ElementTable.index("Og"));
+        assertEquals("Og", ElementTable.symbol(117));
+    }
+
+    @Test
+    void otherSymbolsAreIndexedOnce() {
+        final int deuterium = ElementTable.index("D");
+        assertTrue(deuterium > ElementTable.index("Og"));
+        assertEquals(deuterium, ElementTable.index("D"));
+        assertEquals("D", ElementTable.symbol(deuterium));
+
+        final int missing = ElementTable.index(null);
+        assertNull(ElementTable.symbol(missing));
+        assertEquals(missing, ElementTable.index(null));
+        assertTrue(ElementTable.compare(missing, ElementTable.index("Ac")) < 0);
+        assertTrue(ElementTable.compare(ElementTable.index("Ac"), missing) > 0);
+        assertEquals(0, ElementTable.compare(missing, missing));
+    }
+
+    @Test
+    void concurrentSymbolsShareAnIndex() throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<Integer>>> indices = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                indices.add(executor.submit(() -> {
+                    final List<Integer> found = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        found.add(ElementTable.index("Concurrent" + i));
+                    }
+                    return found;
+                }));
+            }
+            for (Future<List<Integer>> found : indices) {
+                assertEquals(indices.get(0).get(), found.get());
+            }
+            for (int i = 0; i < 100; i++) {
+                assertEquals("Concurrent" + i, ElementTable.symbol(indices.get(0).get().get(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void moleculesCountOtherSymbols() {
+        final Molecule molecule = new Molecule();
+        molecule.addElement("H", 2);
+        molecule.addElement("D");
+        molecule.addElement(null);
+        final Molecule subMolecule = new Molecule();
+        subMolecule.addElement("C");
+        subMolecule.addElement("D", 2);
+        subMolecule.addElement(null);
+        molecule.addMolecule(subMolecule);
+
+        assertEquals(Arrays.asList(null, "C", "D", "H"), new ArrayList<>(molecule.getElementMap().keySet()));
+        assertEquals(Arrays.asList(2, 1, 3, 2), new ArrayList<>(molecule.getElementMap().values()));
+        assertEquals(Arrays.asList(null, null, "C", "D", "D", "D", "H", "H"), molecule.getAllElements());
+        assertEquals(4, molecule.getElementCount());
+        assertEquals(8, molecule.getAtomCount());
+        assertTrue(molecule.isOrganic());
+    }
+}
@@ -0,0 +1,103 @@
+/* MoleculeTableTest imports */
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Identical molecules share an instance and are counted as duplicates,
+ * the same whether the molecules of a file are parsed or taken from the cache.
+ */
+class MoleculeTableTest {
+
+    private static final String[] EXAMPLES = {
+        "assets/example1.xml", "assets/example2.xml", "assets/example3.xml", "assets/example4.xml"
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void identicalMoleculesShareAnInstance() {
+        final MoleculeTable table = new MoleculeTable(new SymbolTable());
+        final Molecule water = table.share(molecule("Water", "H", "H", "O"));
+        assertSame(water, table.share(molecule("Water", "H", "O", "H")));
+        assertNotSame(water, table.share(molecule("Heavy water", "H", "H", "O")));
+        assertNotSame(water, table.share(molecule("Water", "H", "O")));
+
+        /* Sub-molecules are shared first, so their parents are identical if they have the same instances */
+        final Molecule hydrate = molecule("Hydrate", "Cu");
+        hydrate.addMolecule(molecule("Water", "H", "H", "O"));
+        final Molecule other = molecule("Hydrate", "Cu");
+        other.addMolecule(molecule("Water", "O", "H", "H"));
+        final Molecule shared = table.shareTree(hydrate);
+        assertSame(water, shared.getSubMolecules().get(0));
+        assertSame(shared, table.shareTree(other));
+    }
+
+    @Test
+    void duplicatesAreCounted() throws IOException {
+        final Path file = this.write();
+        final CMLParser parser = new CMLParser(new CMLParser.Options().duplicates(true));
+        final CMLHandler handler = parser.parse(parser.createReader(), file.toString());
+
+        /* Four more waters, the two of the first hydrate, and the second hydrate with its two */
+        assertEquals(9, handler.getDuplicates());
+        final List<Molecule> molecules = handler.getMolecules();
+        assertSame(molecules.get(0), molecules.get(4));
+        assertSame(molecules.get(0), molecules.get(5).getSubMolecules().get(1));
+        assertSame(molecules.get(5), molecules.get(6));
+    }
+
+    @Test
+    void cachedFilesOutputAsParsed() throws IOException {
+        final Path written = this.write();
+        final Path generated = Outputs.generate(this.directory.resolve("molecules.xml"), new CMLGenerator(500, 10, 2, 2, 1));
+        for (OutputFormat format : new OutputFormat[] {OutputFormat.TEXT, OutputFormat.JSONL}) {
+            for (String uri : new String[] {written.toString(), generated.toString(), EXAMPLES[0], EXAMPLES[1], EXAMPLES[2], EXAMPLES[3]}) {
+                final String parsed = Outputs.output(new CMLParser(new CMLParser.Options().format(format).top(3).duplicates(true)), uri);
+
+                /* A miss, then a hit */
+                for (int run = 0; run < 2; run++) {
+                    try (ResultCache<List<Molecule>> cache = CMLParser.openCache(this.directory.resolve("cache").toString(), 1 << 24)) {
+                        final CMLParser parser = new CMLParser(new CMLParser.Options().cache(cache).format(format).top(3).duplicates(true));
+                        assertEquals(parsed, Outputs.output(parser, uri));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Molecule molecule(String name, String... elements) {
+        final Molecule molecule = new Molecule();
+        molecule.setName(name);
+        for (String element : elements) {
+            molecule.addElement(element);
+        }
+        return molecule;
+    }
+
+    /**
+     * Writes a document of five waters and two hydrates of two waters each.
+     */
+    private Path write() throws IOException {
+        final String water = "<molecule><formula concise=\"H2 O\" title=\"Water\"/>" +
+            "<atomArray><atom elementType=\"H\"/><atom elementType=\"H\"/><atom elementType=\"O\"/></atomArray></molecule>\n";
+        final String hydrate = "<molecule><formula concise=\"Cu S O4\" title=\"Copper sulfate hydrate\"/>" +
+            "<atomArray><atom elementType=\"Cu\"/><atom elementType=\"S\"/><atom elementType=\"O\"/><atom elementType=\"O\"/>" +
+            "<atom elementType=\"O\"/><atom elementType=\"O\"/></atomArray>\n" + water + water + "</molecule>\n";
+        final StringBuilder document = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<cml>\n");
+        for (int i = 0; i < 5; i++) {
+            document.append(water);
+        }
+        document.append(hydrate).append(hydrate).append("</cml>\n");
+        return Files.write(this.directory.resolve("hydrates.xml"), document.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+/* MoleculeTest imports */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The aggregates a Molecule keeps up to date as it's built are the ones recomputed from its whole tree.
+ */
+class MoleculeTest {
+
+    private static final String[] ELEMENTS = {"C", "H", "O", "N", "Cl", "Fe", "Na", "S"};
+
+    @Test
+    void aggregatesMatchTheTree() throws IOException {
+        final Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            final List<String> atoms = new ArrayList<>();
+            final Molecule molecule = build(random, 3, atoms);
+            assertAggregates(atoms, molecule);
+            assertAggregates(atoms, roundTrip(molecule));
+        }
+    }
+
+    @Test
+    void emptyMoleculesHaveNoAggregates() {
+        final Molecule molecule = new Molecule();
+        molecule.addMolecule(new Molecule());
+        assertEquals(0, molecule.getAtomCount());
+        assertEquals(0, molecule.getElementCount());
+        assertEquals("", molecule.getFormula());
+        assertEquals("", molecule.getAtomicCategorization());
+        assertEquals(2, molecule.getTreeSize());
+        assertEquals(false, molecule.isOrganic());
+    }
+
+    /**
+     * Builds a random molecule, adding its atoms and complete sub-molecules in a random order.
+     *
+     * @param atoms the atoms of the tree of the molecule, updated with the ones added.
+     * @return the molecule.
+     */
+    private static Molecule build(Random random, int depth, List<String> atoms) {
+        final Molecule molecule = new Molecule();
+        if (random.nextBoolean()) {
+            molecule.setName("Molecule " + random.nextInt(100));
+        }
+        final int submolecules = depth > 0 ? random.nextInt(4) : 0;
+        int added = 0;
+        for (int steps = random.nextInt(8); steps > 0 || added < submolecules; steps--) {
+            if (added < submolecules && random.nextInt(3) == 0) {
+                molecule.addMolecule(build(random, depth - 1, atoms));
+                added++;
+                continue;
+            }
+            final String element = ELEMENTS[random.nextInt(ELEMENTS.length)];
+            final int count = 1 + random.nextInt(3);
+            if (count == 1) {
+                molecule.addElement(element);
+            } else {
+                molecule.addElement(element, count);
+            }
+            atoms.addAll(Collections.nCopies(count, element));
+
+            /* The formula is built as soon as it's needed, and rebuilt after every change */
+            molecule.getFormula();
+        }
+        return molecule;
+    }
+
+    /**
+     * Asserts the aggregates of a molecule are the ones of the atoms of its tree.
+     */
+    private static void assertAggregates(List<String> atoms, Molecule molecule) {
+        final Map<String, Integer> counts = new TreeMap<>();
+        for (String atom : atoms) {
+            counts.merge(atom, 1, Integer::sum);
+        }
+        final StringBuilder formula = new StringBuilder();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            formula.append(count.getKey()).append(count.getValue() > 1 ? count.getValue().toString() : "");
+        }
+        final List<String> sorted = new ArrayList<>(atoms);
+        Collections.sort(sorted);
+
+        assertEquals(atoms.size(), molecule.getAtomCount());
+        assertEquals(counts, molecule.getElementMap());
+        assertEquals(new ArrayList<>(counts.keySet()), new ArrayList<>(molecule.getElementMap().keySet()));
+        assertEquals(counts.size(), molecule.getElementCount());
+        assertEquals(formula.toString(), molecule.getFormula());
+        assertEquals(sorted, molecule.getAllElements());
+        assertEquals(counts.containsKey("C"), molecule.isOrganic());
+        assertEquals(treeSize(molecule), molecule.getTreeSize());
+    }
+
+    private static int treeSize(Molecule molecule) {
+        int size = 1;
+        for (Molecule subMolecule : molecule.getSubMolecules()) {
+            size += treeSize(subMolecule);
+        }
+        return size;
+    }
+
+    private static Molecule roundTrip(Molecule molecule) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            molecule.write(out);
+        }
+        return Molecule.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
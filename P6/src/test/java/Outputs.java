@@ -0,0 +1,49 @@
+/* Outputs imports */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The outputs of the parsers as they would show them, shared by the tests comparing them.
+ */
+final class Outputs {
+
+    private Outputs() {
+    }
+
+    /**
+     * Returns the output of a file parsed by a parser.
+     */
+    static String output(CMLParser parser, String uri) {
+        return stdout(() -> parser.parse(uri, false));
+    }
+
+    /**
+     * Writes a generated document to a file.
+     */
+    static Path generate(Path file, CMLGenerator generator) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            generator.generate(out);
+        }
+        return file;
+    }
+
+    /**
+     * Returns what a task writes to the standard output.
+     */
+    static String stdout(Runnable task) {
+        final PrintStream out = System.out;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            task.run();
+        } finally {
+            System.setOut(out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
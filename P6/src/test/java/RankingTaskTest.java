@@ -0,0 +1,77 @@
+/* RankingTaskTest imports */
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ranking and rendering the molecules in a fork/join pool outputs the same results as doing it on a single thread,
+ * both for many molecules and for a few huge ones.
+ */
+class RankingTaskTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void shutdown() {
+        this.pool.shutdown();
+    }
+
+    @Test
+    void rankingsAreTheSequentialOnes() throws IOException {
+        final Path file = Outputs.generate(this.directory.resolve("molecules.xml"), new CMLGenerator(5000, 8, 1, 2, 1));
+        final CMLParser parser = new CMLParser();
+        final List<Molecule> molecules = new ArrayList<>(parser.parse(parser.createReader(), file.toString()).getMolecules());
+
+        for (int top : new int[] {1, 10, 100}) {
+            final RankingTask.Rankings sequential = new RankingTask.Rankings(top);
+            for (Molecule molecule : molecules) {
+                sequential.add(molecule);
+            }
+            final RankingTask.Rankings parallel = RankingTask.rank(this.pool, molecules, top);
+
+            assertEquals(ranking(sequential.mostAtoms), ranking(parallel.mostAtoms));
+            assertEquals(ranking(sequential.mostSubMolecules), ranking(parallel.mostSubMolecules));
+            assertEquals(ranking(sequential.mostElements), ranking(parallel.mostElements));
+        }
+    }
+
+    @Test
+    void manyMoleculesOutputAsSequential() throws IOException {
+        final Path file = Outputs.generate(this.directory.resolve("molecules.xml"), new CMLGenerator(3000, 10, 1, 3, 1));
+        assertOutputsAsSequential(file.toString());
+    }
+
+    @Test
+    void hugeMoleculesOutputAsSequential() throws IOException {
+        final Path file = Outputs.generate(this.directory.resolve("polymers.xml"), new CMLGenerator(3, 4, 4, 6, 1));
+        assertOutputsAsSequential(file.toString());
+    }
+
+    private static void assertOutputsAsSequential(String uri) {
+        for (OutputFormat format : OutputFormat.values()) {
+            for (int top : new int[] {1, 5}) {
+                final String sequential = Outputs.output(new CMLParser(new CMLParser.Options().format(format).top(top)), uri);
+                final String parallel = Outputs.output(new CMLParser(new CMLParser.Options().format(format).top(top).threads(4)), uri);
+                assertEquals(sequential, parallel);
+            }
+        }
+    }
+
+    private static List<String> ranking(TopK<String> ranking) {
+        final List<String> ranked = new ArrayList<>();
+        for (TopK.Ranked<String> entry : ranking.getRanking()) {
+            ranked.add(entry.getValue() + " " + entry.getScore());
+        }
+        return ranked;
+    }
+}
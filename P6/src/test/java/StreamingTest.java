@@ -0,0 +1,70 @@
+/* StreamingTest imports */
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A streaming parse keeps none of the molecules, and outputs the same molecules and rankings as a parse keeping them,
+ * the rankings after the molecules in text.
+ */
+class StreamingTest {
+
+    private static final String[] EXAMPLES = {
+        "assets/example1.xml", "assets/example2.xml", "assets/example3.xml", "assets/example4.xml"
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void examplesOutputAsKept() {
+        for (String example : EXAMPLES) {
+            assertOutputsAsKept(example);
+        }
+    }
+
+    @Test
+    void generatedMoleculesOutputAsKept() throws IOException {
+        final Path file = Outputs.generate(this.directory.resolve("molecules.xml"), new CMLGenerator(2000, 12, 2, 2, 1));
+        assertOutputsAsKept(file.toString());
+    }
+
+    @Test
+    void streamedMoleculesAreNotKept() throws IOException {
+        final Path file = Outputs.generate(this.directory.resolve("molecules.xml"), new CMLGenerator(500, 12, 1, 2, 1));
+        final CMLParser parser = new CMLParser(new CMLParser.Options().streaming(true));
+        final CMLHandler[] handler = new CMLHandler[1];
+        Outputs.stdout(() -> handler[0] = parser.parse(parser.createReader(), file.toString()));
+
+        assertNull(handler[0].getMolecules());
+        assertEquals(500, handler[0].getMoleculeCount());
+    }
+
+    private static void assertOutputsAsKept(String uri) {
+        for (OutputFormat format : OutputFormat.values()) {
+            final int top = format == OutputFormat.TEXT ? 1 : 3;
+            final String kept = Outputs.output(new CMLParser(new CMLParser.Options().format(format).top(top)), uri);
+            final String streamed = Outputs.output(new CMLParser(new CMLParser.Options().format(format).top(top).streaming(true)), uri);
+            assertEquals(format == OutputFormat.TEXT ? rankingsLast(kept) : kept, streamed);
+        }
+    }
+
+    /**
+     * Moves the rankings and amount of molecules of a text output after its molecules, where streaming outputs them.
+     */
+    private static String rankingsLast(String text) {
+        final List<String> molecules = new ArrayList<>();
+        final List<String> summary = new ArrayList<>();
+        for (String line : text.split(System.lineSeparator())) {
+            (line.startsWith("- ") ? summary : molecules).add(line);
+        }
+        molecules.addAll(summary);
+        return String.join(System.lineSeparator(), molecules) + System.lineSeparator();
+    }
+}
@@ -0,0 +1,144 @@
+package benchmarks.cml;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.XMLReader;
+
+/**
+ * The classes of CMLParser, which live in the default package
+ * and can only be reached from here through reflection.
+ */
+final class CML {
+
+    /**
+     * A stream discarding everything printed to it.
+     */
+    static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private static final Constructor<?> GENERATOR;
+    private static final Method GENERATE;
+    private static final Constructor<?> PARSER;
+    private static final Constructor<?> HANDLER;
+    private static final Method CREATE_READER;
+    private static final Method PARSE;
+    private static final Method RESET;
+    private static final Method PRINT;
+
+    static {
+        try {
+            final Class<?> parser = Class.forName("CMLParser");
+            final Class<?> handler = Class.forName("CMLHandler");
+            final Class<?> generator = Class.forName("CMLGenerator");
+            GENERATOR = accessible(generator.getConstructor(int.class, int.class, int.class, int.class, long.class));
+            GENERATE = accessible(generator.getMethod("generate", Writer.class));
+            PARSER = accessible(parser.getConstructor());
+            HANDLER = accessible(handler.getConstructor());
+            CREATE_READER = accessible(parser.getMethod("createReader"));
+            PARSE = accessible(parser.getMethod("parse", XMLReader.class, String.class));
+            RESET = accessible(handler.getMethod("reset"));
+            PRINT = accessible(handler.getMethod("print", PrintStream.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private CML() {
+    }
+
+    /**
+     * Generates a synthetic document with the default options of CMLGenerator.
+     */
+    static void generate(int count, Writer out) {
+        invoke(GENERATE, invoke(GENERATOR, count, 20, 1, 2, 0L), out);
+    }
+
+    /**
+     * Returns a new CMLParser.
+     */
+    static Object newParser() {
+        return invoke(PARSER);
+    }
+
+    /**
+     * Returns a new reader of the given CMLParser.
+     */
+    static XMLReader createReader(Object parser) {
+        return (XMLReader) invoke(CREATE_READER, parser);
+    }
+
+    /**
+     * Returns a new CMLHandler.
+     */
+    static ContentHandler newHandler() {
+        return (ContentHandler) invoke(HANDLER);
+    }
+
+    /**
+     * Parses a file, the same way CMLParser does, and returns its handler.
+     */
+    static ContentHandler parse(Object parser, XMLReader reader, String uri) {
+        return (ContentHandler) invoke(PARSE, parser, reader, uri);
+    }
+
+    /**
+     * Resets a CMLHandler so it can parse another document.
+     */
+    static void reset(ContentHandler handler) {
+        invoke(RESET, handler);
+    }
+
+    /**
+     * Prints the results of a CMLHandler, discarding them.
+     */
+    static void print(ContentHandler handler) {
+        invoke(PRINT, handler, DISCARD);
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        member.setAccessible(true);
+        return member;
+    }
+
+    private static Object invoke(Constructor<?> constructor, Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException ex) {
+            throw rethrow(ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw rethrow(ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks.cml;
+
+import benchmarks.support.DocumentCorpus;
+import java.io.IOException;
+import java.io.Writer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xml.sax.XMLReader;
+
+/**
+ * The document being parsed, either one of the bundled examples or a synthetic one
+ * made of many copies of the molecules of an example, e.g. example4.xml*1000,
+ * or generated by CMLGenerator, e.g. generated*1000
+ */
+@State(Scope.Benchmark)
+public class Corpus extends DocumentCorpus {
+
+    @Param({"example2.xml", "example4.xml", "example4.xml*100", "example4.xml*1000", "generated*1000"})
+    public String input;
+
+    /**
+     * The amount of molecules of the document, submolecules included.
+     */
+    int molecules;
+
+    public Corpus() {
+        super("cml-", "cml");
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.load(this.input);
+        this.molecules = this.events.count("molecule");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.delete();
+    }
+
+    @Override
+    protected void generate(int count, Writer out) {
+        CML.generate(count, out);
+    }
+
+    @Override
+    protected XMLReader createReader() {
+        return CML.createReader(CML.newParser());
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks.cml;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * The CMLHandler alone, replaying the recorded SAX events of a document
+ * so the cost of the XML parser is left out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerBenchmark {
+
+    private ContentHandler handler;
+
+    @Setup
+    public void setUp() {
+        this.handler = CML.newHandler();
+    }
+
+    @Benchmark
+    public Object replay(Corpus corpus, Throughput throughput) throws SAXException {
+        CML.reset(this.handler);
+        corpus.events.replay(this.handler);
+        throughput.add(corpus);
+        return this.handler;
+    }
+}
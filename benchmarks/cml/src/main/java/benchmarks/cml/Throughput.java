@@ -0,0 +1,34 @@
+package benchmarks.cml;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The amount of input consumed, reported by JMH as rates next to the operations:
+ * megabytes per second and molecules per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+    public double megabytes;
+
+    public long molecules;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        this.megabytes = 0;
+        this.molecules = 0;
+    }
+
+    /**
+     * Counts a document as consumed.
+     */
+    void add(Corpus corpus) {
+        this.megabytes += corpus.size / 1e6;
+        this.molecules += corpus.molecules;
+    }
+}
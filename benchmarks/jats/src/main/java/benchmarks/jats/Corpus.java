@@ -0,0 +1,54 @@
+package benchmarks.jats;
+
+import benchmarks.support.DocumentCorpus;
+import java.io.IOException;
+import java.io.Writer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xml.sax.XMLReader;
+
+/**
+ * The document being parsed, either one of the bundled examples or a synthetic one
+ * made of many copies of the articles of an example, e.g. example2.xml*1000,
+ * or generated by JATSGenerator, e.g. generated*1000
+ */
+@State(Scope.Benchmark)
+public class Corpus extends DocumentCorpus {
+
+    @Param({"example1.xml", "example2.xml", "example2.xml*100", "example2.xml*1000", "generated*1000"})
+    public String input;
+
+    /**
+     * The amount of articles of the document.
+     */
+    int articles;
+
+    public Corpus() {
+        super("jats-", "articles");
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.load(this.input);
+        this.articles = this.events.count("article");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.delete();
+    }
+
+    @Override
+    protected void generate(int count, Writer out) {
+        JATS.generate(count, out);
+    }
+
+    @Override
+    protected XMLReader createReader() {
+        return JATS.createReader(JATS.newParser());
+    }
+}
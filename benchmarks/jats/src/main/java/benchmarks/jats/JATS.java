@@ -0,0 +1,174 @@
+package benchmarks.jats;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.XMLReader;
+
+/**
+ * The classes of XMLParser, which live in the default package
+ * and can only be reached from here through reflection.
+ */
+final class JATS {
+
+    /**
+     * A stream discarding everything printed to it.
+     */
+    static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private static final Constructor<?> GENERATOR;
+    private static final Method GENERATE;
+    private static final Constructor<?> PARSER;
+    private static final Constructor<?> PARSER_OPTIONS;
+    private static final Method STAX;
+    private static final Constructor<?> HANDLER;
+    private static final Constructor<?> REPORT;
+    private static final Constructor<?> REPORT_OPTIONS;
+    private static final Method OUT;
+    private static final Method CREATE_READER;
+    private static final Method PARSE;
+    private static final Method RESET;
+    private static final Method PRINT;
+
+    static {
+        try {
+            final Class<?> parser = Class.forName("XMLParser");
+            final Class<?> handler = Class.forName("JATSHandler");
+            final Class<?> report = Class.forName("JATSReport");
+            final Class<?> generator = Class.forName("JATSGenerator");
+            final Class<?> parserOptions = Class.forName("XMLParser$Options");
+            final Class<?> reportOptions = Class.forName("JATSReport$Options");
+            GENERATOR = accessible(generator.getConstructor(int.class, int.class, int.class, double.class, double.class,
+                int.class, long.class));
+            GENERATE = accessible(generator.getMethod("generate", Writer.class));
+            PARSER = accessible(parser.getConstructor(parserOptions));
+            PARSER_OPTIONS = accessible(parserOptions.getConstructor());
+            STAX = accessible(parserOptions.getMethod("stax", Boolean.class));
+            HANDLER = accessible(handler.getConstructor(report));
+            REPORT = accessible(report.getConstructor(reportOptions));
+            REPORT_OPTIONS = accessible(reportOptions.getConstructor());
+            OUT = accessible(reportOptions.getMethod("out", PrintStream.class));
+            CREATE_READER = accessible(parser.getMethod("createReader", Boolean.class));
+            PARSE = accessible(parser.getMethod("parse", XMLReader.class, String.class, report));
+            RESET = accessible(handler.getMethod("reset", report));
+            PRINT = accessible(report.getMethod("print"));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private JATS() {
+    }
+
+    /**
+     * Generates a synthetic document with the default options of JATSGenerator.
+     */
+    static void generate(int count, Writer out) {
+        invoke(GENERATE, invoke(GENERATOR, count, 200, 4, 0.05, 0.05, 2, 0L), out);
+    }
+
+    /**
+     * Returns a new XMLParser whose readers are Xerces parsers.
+     */
+    static Object newParser() {
+        return newParser(false);
+    }
+
+    /**
+     * Returns a new XMLParser.
+     *
+     * @param stax whether its readers are StAXReaders instead of Xerces parsers.
+     */
+    static Object newParser(Boolean stax) {
+        return invoke(PARSER, invoke(STAX, invoke(PARSER_OPTIONS), stax));
+    }
+
+    /**
+     * Returns a new reader of the given XMLParser, without validation.
+     */
+    static XMLReader createReader(Object parser) {
+        return (XMLReader) invoke(CREATE_READER, parser, false);
+    }
+
+    /**
+     * Returns a new JATSReport keeping every article, which prints nothing.
+     */
+    static Object newReport() {
+        return invoke(REPORT, invoke(OUT, invoke(REPORT_OPTIONS), DISCARD));
+    }
+
+    /**
+     * Returns a new JATSHandler, which is both the content and the lexical handler.
+     */
+    static ContentHandler newHandler(Object report) {
+        return (ContentHandler) invoke(HANDLER, report);
+    }
+
+    /**
+     * Parses a file into a report, the same way XMLParser does.
+     */
+    static Object parse(Object parser, XMLReader reader, String uri, Object report) {
+        return invoke(PARSE, parser, reader, uri, report);
+    }
+
+    /**
+     * Resets a JATSHandler so it adds the results to another report.
+     */
+    static void reset(ContentHandler handler, Object report) {
+        invoke(RESET, handler, report);
+    }
+
+    /**
+     * Prints a report to the stream it was given.
+     */
+    static void print(Object report) {
+        invoke(PRINT, report);
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        member.setAccessible(true);
+        return member;
+    }
+
+    private static Object invoke(Constructor<?> constructor, Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException ex) {
+            throw rethrow(ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw rethrow(ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+}
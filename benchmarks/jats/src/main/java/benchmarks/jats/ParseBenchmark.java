@@ -0,0 +1,52 @@
+package benchmarks.jats;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.XMLReader;
+
+/**
+ * Full parses of a document, from the file to the printed report,
+ * with a reader reused between them as in batch and daemon mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+    /**
+     * The parser, either Xerces (sax) or StAXReader (stax).
+     */
+    @Param({"sax", "stax"})
+    public String engine;
+
+    private Object parser;
+
+    private XMLReader reader;
+
+    @Setup
+    public void setUp() {
+        this.parser = JATS.newParser(this.engine.equals("stax"));
+        this.reader = JATS.createReader(this.parser);
+    }
+
+    @Benchmark
+    public Object parse(Corpus corpus, Throughput throughput) {
+        final Object report = JATS.parse(this.parser, this.reader, corpus.file.toString(), JATS.newReport());
+        JATS.print(report);
+        throughput.add(corpus);
+        return report;
+    }
+}
@@ -0,0 +1,134 @@
+package benchmarks.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.xml.sax.XMLReader;
+
+/**
+ * The document being parsed, either one of the bundled examples or a synthetic one
+ * made of many copies of the records of an example, e.g. example2.xml*1000,
+ * or generated, e.g. generated*1000
+ * The examples are resources of the benchmarks extending it, which add the JMH state and parameters.
+ */
+public abstract class DocumentCorpus {
+
+    /**
+     * The file of the document.
+     */
+    public Path file;
+
+    /**
+     * The size of the document in bytes.
+     */
+    public long size;
+
+    /**
+     * The SAX events of the document.
+     */
+    public SaxRecording events;
+
+    /**
+     * The prefix of the temporary file of the document.
+     */
+    private final String prefix;
+
+    /**
+     * The root element of the documents, the one whose contents are copied.
+     */
+    private final String root;
+
+    /**
+     * The constructor of a corpus.
+     *
+     * @param prefix the prefix of the temporary file of the document.
+     * @param root the root element of the documents, the one whose contents are copied.
+     */
+    protected DocumentCorpus(String prefix, String root) {
+        this.prefix = prefix;
+        this.root = root;
+    }
+
+    /**
+     * Generates a document.
+     *
+     * @param count the amount of records of the document.
+     * @param out the output of the document.
+     */
+    protected abstract void generate(int count, Writer out) throws IOException;
+
+    /**
+     * Creates the reader recording the events of the document.
+     */
+    protected abstract XMLReader createReader();
+
+    /**
+     * Writes the document of an input and records its events.
+     *
+     * @param input the input, an example, an example followed by *copies, or generated*records.
+     */
+    protected void load(String input) throws Exception {
+        final int separator = input.indexOf('*');
+        final String example = separator < 0 ? input : input.substring(0, separator);
+        final int copies = separator < 0 ? 1 : Integer.parseInt(input.substring(separator + 1));
+
+        this.file = Files.createTempFile(this.prefix, ".xml");
+        if (example.equals("generated")) {
+            try (Writer out = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+                this.generate(copies, out);
+            }
+        } else if (copies == 1) {
+            Files.write(this.file, this.read(example));
+        } else {
+            this.write(input, new String(this.read(example), StandardCharsets.UTF_8), copies);
+        }
+        this.size = Files.size(this.file);
+        try (InputStream document = Files.newInputStream(this.file)) {
+            this.events = SaxRecording.record(this.createReader(), document);
+        }
+    }
+
+    /**
+     * Deletes the file of the document.
+     */
+    protected void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Writes the contents of the root element of a document as many times as given, keeping its prolog.
+     */
+    private void write(String input, String example, int copies) throws IOException {
+        final String start = "<" + this.root + ">";
+        final int from = example.indexOf(start) + start.length();
+        final int to = example.lastIndexOf("</" + this.root + ">");
+        if (from < start.length() || to < from) {
+            throw new IllegalArgumentException("Only " + this.root + " documents can be copied: " + input);
+        }
+        try (Writer out = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+            out.write(example, 0, from);
+            for (int i = 0; i < copies; i++) {
+                out.write(example, from, to - from);
+            }
+            out.write(example, to, example.length() - to);
+        }
+    }
+
+    private byte[] read(String example) throws IOException {
+        try (InputStream stream = this.getClass().getResourceAsStream("/" + example)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("Unknown example: " + example);
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package benchmarks.support;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * The SAX events of a document, recorded once so they can be replayed
+ * into a handler without the cost of parsing.
+ */
+public final class SaxRecording implements ContentHandler, LexicalHandler {
+
+    /**
+     * An event, replayed into a handler.
+     */
+    private interface Event {
+        public void replay(ContentHandler content, LexicalHandler lexical) throws SAXException;
+    }
+
+    /**
+     * The lexical handler of the handlers that have none.
+     */
+    private static final LexicalHandler IGNORED = new DefaultHandler2();
+
+    private final List<Event> events = new ArrayList<>();
+
+    private final Map<String, Integer> elements = new HashMap<>();
+
+    /**
+     * Records the events of a document.
+     *
+     * @param reader the reader parsing the document, its handlers will be replaced.
+     * @param document the document.
+     * @return the recorded events.
+     */
+    public static SaxRecording record(XMLReader reader, InputStream document) throws Exception {
+        final SaxRecording recording = new SaxRecording();
+        reader.setContentHandler(recording);
+        reader.setProperty("http://xml.org/sax/properties/lexical-handler", recording);
+        reader.parse(new InputSource(document));
+        return recording;
+    }
+
+    /**
+     * Replays every event into a handler.
+     *
+     * @param handler the handler, which may also be its lexical handler.
+     */
+    public void replay(ContentHandler handler) throws SAXException {
+        final LexicalHandler lexical = handler instanceof LexicalHandler ? (LexicalHandler) handler : IGNORED;
+        for (Event event : this.events) {
+            event.replay(handler, lexical);
+        }
+    }
+
+    /**
+     * Returns the amount of elements named as given.
+     */
+    public int count(String localName) {
+        return this.elements.getOrDefault(localName, 0);
+    }
+
+    /**
+     * Returns the amount of events recorded.
+     */
+    public int size() {
+        return this.events.size();
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+    }
+
+    @Override
+    public void startDocument() {
+        this.events.add((c, l) -> c.startDocument());
+    }
+
+    @Override
+    public void endDocument() {
+        this.events.add((c, l) -> c.endDocument());
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        this.events.add((c, l) -> c.startPrefixMapping(prefix, uri));
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) {
+        this.events.add((c, l) -> c.endPrefixMapping(prefix));
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) {
+        final Attributes copy = new AttributesImpl(atts);
+        this.elements.merge(localName, 1, Integer::sum);
+        this.events.add((c, l) -> c.startElement(uri, localName, qName, copy));
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        this.events.add((c, l) -> c.endElement(uri, localName, qName));
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        final char[] copy = Arrays.copyOfRange(ch, start, start + length);
+        this.events.add((c, l) -> c.characters(copy, 0, copy.length));
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        final char[] copy = Arrays.copyOfRange(ch, start, start + length);
+        this.events.add((c, l) -> c.ignorableWhitespace(copy, 0, copy.length));
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) {
+        this.events.add((c, l) -> c.processingInstruction(target, data));
+    }
+
+    @Override
+    public void skippedEntity(String name) {
+        this.events.add((c, l) -> c.skippedEntity(name));
+    }
+
+    @Override
+    public void startDTD(String name, String publicId, String systemId) {
+        this.events.add((c, l) -> l.startDTD(name, publicId, systemId));
+    }
+
+    @Override
+    public void endDTD() {
+        this.events.add((c, l) -> l.endDTD());
+    }
+
+    @Override
+    public void startEntity(String name) {
+        this.events.add((c, l) -> l.startEntity(name));
+    }
+
+    @Override
+    public void endEntity(String name) {
+        this.events.add((c, l) -> l.endEntity(name));
+    }
+
+    @Override
+    public void startCDATA() {
+        this.events.add((c, l) -> l.startCDATA());
+    }
+
+    @Override
+    public void endCDATA() {
+        this.events.add((c, l) -> l.endCDATA());
+    }
+
+    @Override
+    public void comment(char[] ch, int start, int length) {
+        final char[] copy = Arrays.copyOfRange(ch, start, start + length);
+        this.events.add((c, l) -> l.comment(copy, 0, copy.length));
+    }
+}
@@ -0,0 +1,265 @@
+/* DirectoryWatcher imports */
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory and its subdirectories, handing over the files that arrive, change or are deleted,
+ * so the results of a corpus are kept up to date by parsing only those files.
+ * The files already in the directory are handed over when it starts watching.
+ * The events are gathered until the directory has been quiet for a moment, so a file being written
+ * is usually handed over once, and the files are handed over in the order of their paths.
+ * A file whose update fails, e.g. because it's still being written, is tried again on its next change.
+ */
+abstract class DirectoryWatcher {
+
+    /**
+     * The time the directory must be quiet before the files are handed over, in milliseconds.
+     */
+    private static final long QUIET_PERIOD = 200;
+
+    /**
+     * The directory being watched.
+     */
+    private final Path directory;
+
+    /**
+     * The size and modification time of each file when it was updated.
+     */
+    private final Map<Path, List<Long>> updated = new HashMap<>();
+
+    /**
+     * The constructor of a watcher.
+     *
+     * @param directory the directory to be watched.
+     */
+    protected DirectoryWatcher(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Parses a file that has arrived or changed, replacing its previous results if any.
+     *
+     * @param file the file.
+     * @return whether the file was parsed, otherwise it will be tried again on its next change.
+     */
+    protected abstract Boolean update(Path file);
+
+    /**
+     * Removes the results of a file that has been deleted.
+     *
+     * @param file the file.
+     */
+    protected abstract void remove(Path file);
+
+    /**
+     * Outputs the results, after the files handed over at once have been updated.
+     */
+    protected abstract void publish();
+
+    /**
+     * Watches the directory until the thread is interrupted.
+     */
+    public void watch() {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            final TreeSet<Path> changed = new TreeSet<>();
+            this.register(service, this.directory, changed);
+            this.handOver(changed);
+            this.publish();
+            while (true) {
+                /* Wait for an event, then gather the following ones until the directory is quiet */
+                WatchKey key = service.take();
+                Boolean overflow = false;
+                while (key != null) {
+                    final Path parent = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                            continue;
+                        }
+                        final Path path = parent.resolve((Path) event.context());
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                            this.register(service, path, changed);
+                        } else {
+                            changed.add(path);
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                }
+
+                /* Events were lost, every file is checked */
+                if (overflow) {
+                    changed.addAll(this.updated.keySet());
+                    this.register(service, this.directory, changed);
+                }
+                if (this.handOver(changed)) {
+                    this.publish();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            /* Stopped watching */
+        } catch (IOException ex) {
+            System.err.println("Error watching the directory: " + ex.getMessage());
+            throw new RuntimeException("Error watching the directory", ex);
+        }
+    }
+
+    /**
+     * Watches a directory and its subdirectories, adding their files to the changed ones.
+     *
+     * @param service the watch service.
+     * @param root the directory.
+     * @param changed the paths that may have changed.
+     */
+    private void register(WatchService service, Path root, TreeSet<Path> changed) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : walk.collect(Collectors.toList())) {
+                if (Files.isDirectory(path)) {
+                    path.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } else {
+                    changed.add(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands over the files that have arrived, changed or been deleted, in the order of their paths.
+     * The paths that are deleted directories remove every file below them.
+     *
+     * @param changed the paths that may have changed, emptied afterwards.
+     * @return whether any file was updated or removed.
+     */
+    private Boolean handOver(TreeSet<Path> changed) throws IOException {
+        Boolean any = false;
+        for (Path path : changed) {
+            if (!Files.exists(path)) {
+                final List<Path> removed = this.updated.keySet().stream()
+                    .filter(file -> file.startsWith(path))
+                    .sorted(Comparator.naturalOrder())
+                    .collect(Collectors.toList());
+                for (Path file : removed) {
+                    this.updated.remove(file);
+                    this.remove(file);
+                    any = true;
+                }
+            } else if (Files.isRegularFile(path) && DocumentInput.isSupported(path)) {
+                final List<Long> state = new ArrayList<>();
+                state.add(Files.size(path));
+                state.add(Files.getLastModifiedTime(path).toMillis());
+                if (!state.equals(this.updated.get(path)) && this.update(path)) {
+                    this.updated.put(path, state);
+                    any = true;
+                }
+            }
+        }
+        changed.clear();
+        return any;
+    }
+}
+
+/**
+ * A ranking of the values of several files, where the values of a file can be replaced or removed
+ * without the other files, so its cost only depends on the amount of values of the file.
+ * Ties are broken by the order of the paths of the files, then by the order of the values of each file,
+ * as if the files had been parsed one after another in the order of their paths.
+ */
+class FileRanking {
+
+    /**
+     * The values of every file, the highest ranked first.
+     */
+    private final TreeSet<FileValue> values = new TreeSet<>(Comparator.comparingLong((FileValue value) -> -value.score)
+        .thenComparing(value -> value.file)
+        .thenComparingInt(value -> value.index));
+
+    /**
+     * The values of each file.
+     */
+    private final Map<Path, List<FileValue>> files = new HashMap<>();
+
+    /**
+     * Replaces the values of a file.
+     *
+     * @param file the file.
+     * @param ranking the values of the file, see TopK.getEntries.
+     */
+    public void put(Path file, List<TopK.Ranked<String>> ranking) {
+        this.remove(file);
+        final List<FileValue> added = new ArrayList<>();
+        for (TopK.Ranked<String> ranked : ranking) {
+            added.add(new FileValue(ranked.getValue(), ranked.getScore(), file, added.size()));
+        }
+        this.values.addAll(added);
+        this.files.put(file, added);
+    }
+
+    /**
+     * Removes the values of a file.
+     *
+     * @param file the file.
+     */
+    public void remove(Path file) {
+        final List<FileValue> removed = this.files.remove(file);
+        if (removed != null) {
+            for (FileValue value : removed) {
+                this.values.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the values with the highest scores of every file.
+     *
+     * @param k the maximum amount of values.
+     * @return the ranking of the values.
+     */
+    public TopK<String> top(int k) {
+        final TopK<String> top = new TopK<>(k);
+        for (FileValue value : this.values) {
+            if (k-- == 0) {
+                break;
+            }
+            top.add(value.value, value.score);
+        }
+        return top;
+    }
+
+    /**
+     * A value of a file.
+     */
+    private static class FileValue {
+
+        final String value;
+        final long score;
+        final Path file;
+        final int index;
+
+        FileValue(String value, long score, Path file, int index) {
+            this.value = value;
+            this.score = score;
+            this.file = file;
+            this.index = index;
+        }
+    }
+}
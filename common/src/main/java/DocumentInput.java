@@ -0,0 +1,180 @@
+/* DocumentInput imports */
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.xml.sax.InputSource;
+
+/**
+ * The documents of a file, ready to be parsed.
+ * They are given to the parser as buffered byte streams, so it can detect their encoding itself.
+ * Gzip files are decompressed on the fly, and each XML entry of a zip bundle is a document
+ * of its own, streamed without extracting it.
+ */
+class DocumentInput implements AutoCloseable {
+
+    /**
+     * The size of the buffer of the file.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The size of the buffer of the decompressed data.
+     */
+    private static final int INFLATER_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The stream of the file.
+     */
+    private final InputStream stream;
+
+    /**
+     * The stream of the zip bundle, null if the file isn't one.
+     */
+    private final ZipInputStream zip;
+
+    /**
+     * The stream of the document being parsed, null until the first one is returned.
+     */
+    private MeteredInputStream current;
+
+    /**
+     * The metrics the reads of the documents are added to, null if they aren't enabled.
+     */
+    private final SharedMetrics metrics;
+
+    /**
+     * Whether the document of a file that isn't a zip bundle has been returned.
+     */
+    private Boolean returned = false;
+
+    /**
+     * The constructor of the input of a file, detects whether it's compressed.
+     *
+     * @param uri the URI of the file.
+     * @param metrics the metrics the reads of the documents are added to, or null if they aren't enabled.
+     */
+    public DocumentInput(String uri, SharedMetrics metrics) throws IOException {
+        this.metrics = metrics;
+        final BufferedInputStream raw = new BufferedInputStream(new FileInputStream(uri), BUFFER_SIZE);
+        switch (magic(raw)) {
+            case GZIP:
+                this.stream = new BufferedInputStream(new GZIPInputStream(raw, INFLATER_BUFFER_SIZE), INFLATER_BUFFER_SIZE);
+                this.zip = null;
+                break;
+            case ZIP:
+                this.zip = new ZipInputStream(raw);
+                this.stream = this.zip;
+                break;
+            default:
+                this.stream = raw;
+                this.zip = null;
+        }
+    }
+
+    /**
+     * Returns the next document of the file.
+     *
+     * @return the next document, or null if there are no more.
+     */
+    public InputSource next() throws IOException {
+        if (this.zip == null) {
+            if (this.returned) {
+                return null;
+            }
+            this.returned = true;
+            return this.source(this.stream);
+        }
+        for (ZipEntry entry = this.zip.getNextEntry(); entry != null; entry = this.zip.getNextEntry()) {
+            if (!entry.isDirectory() && entry.getName().endsWith(".xml")) {
+                return this.source(this.zip);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the amount of bytes of the document being parsed read so far, after decompression.
+     *
+     * @return the amount of bytes read.
+     */
+    public long getBytesRead() {
+        return this.current == null ? 0 : this.current.getCount();
+    }
+
+    /**
+     * Closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    /**
+     * Returns whether a file may be parsed, either because it's an XML file,
+     * a compressed XML file or a zip bundle.
+     *
+     * @param path the file.
+     * @return whether the file may be parsed.
+     */
+    public static Boolean isSupported(Path path) {
+        final String name = path.getFileName().toString();
+        return name.endsWith(".xml") || name.endsWith(".xml.gz") || name.endsWith(".zip");
+    }
+
+    /**
+     * Returns whether a file is compressed, either with gzip or as a zip bundle.
+     *
+     * @param path the file.
+     * @return whether the file is compressed.
+     */
+    public static Boolean isCompressed(Path path) throws IOException {
+        try (BufferedInputStream stream = new BufferedInputStream(new FileInputStream(path.toFile()), 4)) {
+            return magic(stream) != Format.PLAIN;
+        }
+    }
+
+    /**
+     * The formats of a file.
+     */
+    private enum Format { PLAIN, GZIP, ZIP }
+
+    /**
+     * Returns the format of a file according to its first bytes, without consuming them.
+     *
+     * @param stream the stream of the file.
+     * @return the format of the file.
+     */
+    private static Format magic(BufferedInputStream stream) throws IOException {
+        stream.mark(4);
+        final int[] bytes = {stream.read(), stream.read(), stream.read(), stream.read()};
+        stream.reset();
+        if (bytes[0] == 0x1F && bytes[1] == 0x8B) {
+            return Format.GZIP;
+        } else if (bytes[0] == 'P' && bytes[1] == 'K' && bytes[2] == 3 && bytes[3] == 4) {
+            return Format.ZIP;
+        }
+        return Format.PLAIN;
+    }
+
+    /**
+     * Returns a document, the parser closing its stream won't close the file.
+     * It has no system id, so relative DTDs are resolved from the working directory as usual.
+     * Its stream is metered, see MeteredInputStream.
+     *
+     * @param stream the stream of the document.
+     * @return the document.
+     */
+    private InputSource source(InputStream stream) {
+        this.current = new MeteredInputStream(stream, this.metrics) {
+            @Override
+            public void close() {
+            }
+        };
+        return new InputSource(this.current);
+    }
+}
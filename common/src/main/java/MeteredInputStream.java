@@ -0,0 +1,69 @@
+/* MeteredInputStream imports */
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A stream counting the bytes read from it, and the time spent reading them if the metrics are enabled.
+ */
+class MeteredInputStream extends FilterInputStream {
+
+    /**
+     * The metrics, null if they aren't enabled.
+     */
+    private final SharedMetrics metrics;
+
+    /**
+     * The amount of bytes read.
+     */
+    private long count = 0;
+
+    /**
+     * The constructor of a metered stream.
+     *
+     * @param stream the stream being read.
+     * @param metrics the metrics the reads are added to, or null if they aren't enabled.
+     */
+    public MeteredInputStream(InputStream stream, SharedMetrics metrics) {
+        super(stream);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final long start = this.metrics == null ? 0 : System.nanoTime();
+        final int read = super.read();
+        this.count(read < 0 ? -1 : 1, start);
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final long start = this.metrics == null ? 0 : System.nanoTime();
+        final int read = super.read(b, off, len);
+        this.count(read, start);
+        return read;
+    }
+
+    /**
+     * Returns the amount of bytes read.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Counts a read.
+     *
+     * @param read the amount of bytes read, -1 at the end of the stream.
+     * @param start when the read started, if the metrics are enabled.
+     */
+    private void count(int read, long start) {
+        if (read > 0) {
+            this.count += read;
+        }
+        if (this.metrics != null) {
+            this.metrics.addRead(Math.max(read, 0), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/* PathAutomaton imports */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.xml.sax.Attributes;
+
+/**
+ * The element path automaton, keeps track of the level of the tag that is being parsed.
+ * The paths of interest are compiled into a trie where each node is a state,
+ * so moving between levels only updates an int and never allocates.
+ */
+class PathAutomaton {
+    /**
+     * The value of the states that don't match any registered path.
+     */
+    public static final int NO_MATCH = -1;
+
+    /**
+     * The state of the levels outside of every registered path.
+     */
+    private static final int DEAD = 0;
+
+    /**
+     * The state of the level above the root element.
+     */
+    private static final int ROOT = 1;
+
+    /**
+     * Whether the paths may start at any level of the document,
+     * e.g. "molecule.atom" will also match "list.molecule.atom".
+     */
+    private final boolean floating;
+
+    /**
+     * The element names of the transitions of each state.
+     */
+    private String[][] names = new String[8][];
+
+    /**
+     * The attribute names of the predicates of the transitions of each state, null if they have none.
+     */
+    private String[][] attributes = new String[8][];
+
+    /**
+     * The attribute values of the predicates of the transitions of each state, null if any value matches.
+     */
+    private String[][] attributeValues = new String[8][];
+
+    /**
+     * The target states of the transitions of each state.
+     */
+    private int[][] targets = new int[8][];
+
+    /**
+     * The amount of transitions of each state.
+     */
+    private int[] transitions = new int[8];
+
+    /**
+     * The value of each state, NO_MATCH if it isn't a registered path.
+     */
+    private int[] values = new int[8];
+
+    /**
+     * The state taken by the children of each state that have no transition.
+     */
+    private int[] fallbacks = new int[8];
+
+    /**
+     * The amount of states.
+     */
+    private int states = 0;
+
+    /**
+     * The state of each level in ascending depth order, the first one being the root.
+     */
+    private int[] stack = new int[16];
+
+    /**
+     * The depth of the current level.
+     */
+    private int level = 0;
+
+    /**
+     * The constructor for an automaton whose paths start at the root element.
+     */
+    public PathAutomaton() {
+        this(false);
+    }
+
+    /**
+     * The constructor for an automaton.
+     *
+     * @param floating whether the paths may start at any level of the document,
+     *        the innermost match being the one that is kept.
+     */
+    public PathAutomaton(boolean floating) {
+        this.floating = floating;
+        this.newState(NO_MATCH, DEAD);
+        this.newState(NO_MATCH, DEAD);
+        this.stack[0] = ROOT;
+    }
+
+    /**
+     * Registers a path, e.g. "article.body.sec".
+     * Each element may have a predicate on one of its attributes,
+     * e.g. "article-id[@pub-id-type='doi']" or just "article-id[@pub-id-type]".
+     *
+     * @param path the element names of the path, separated by dots.
+     * @param value the value returned by getValue while at that path.
+     * @throws IllegalArgumentException if the path is invalid or already registered.
+     */
+    public void add(String path, int value) {
+        final int state = this.compile(path);
+        if (this.values[state] != NO_MATCH) {
+            throw new IllegalArgumentException("The path " + path + " is already registered");
+        }
+        this.values[state] = value;
+    }
+
+    /**
+     * Registers a path along with all of its descendants,
+     * e.g. "abstract" will also match "abstract.sec.p".
+     *
+     * @param path the element names of the path, separated by dots, see add.
+     * @param value the value returned by getValue while at that path or any of its descendants.
+     * @throws IllegalArgumentException if the path is invalid, already registered or contains registered paths.
+     */
+    public void addSubtree(String path, int value) {
+        final int state = this.compile(path);
+        if (this.transitions[state] > 0) {
+            throw new IllegalArgumentException("The path " + path + " contains registered paths");
+        }
+        this.add(path, value);
+        final int descendants = this.newState(value, DEAD);
+        this.fallbacks[descendants] = descendants;
+        this.fallbacks[state] = descendants;
+    }
+
+    /**
+     * Sets the new current level, only paths without predicates are matched.
+     *
+     * @param element the name of the tag.
+     */
+    public void push(String element) {
+        this.push(element, null);
+    }
+
+    /**
+     * Sets the new current level.
+     *
+     * @param element the name of the tag.
+     * @param atts the attributes of the tag, null to only match paths without predicates.
+     */
+    public void push(String element, Attributes atts) {
+        final int current = this.stack[this.level];
+        int next = this.transition(current, element, atts);
+        if (next < 0 && this.floating) {
+            next = this.transition(ROOT, element, atts);
+        }
+        if (next < 0) {
+            next = this.fallbacks[current];
+        }
+        if (++this.level == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.level * 2);
+        }
+        this.stack[this.level] = next;
+    }
+
+    /**
+     * Goes back one level.
+     */
+    public void pop() {
+        this.level--;
+    }
+
+    /**
+     * Goes back to the level above the root element.
+     */
+    public void reset() {
+        this.level = 0;
+    }
+
+    /**
+     * Returns the value of the path of the current level.
+     *
+     * @return the value of the current level, NO_MATCH if it isn't a registered path.
+     */
+    public int getValue() {
+        return this.values[this.stack[this.level]];
+    }
+
+    /**
+     * Returns the depth of the current level.
+     */
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Returns whether no registered path goes below the current level,
+     * so the descendants of the current level won't match anything.
+     *
+     * @return whether the current level is a leaf.
+     */
+    public Boolean isLeaf() {
+        final int current = this.stack[this.level];
+        return !this.floating && this.transitions[current] == 0 && this.fallbacks[current] == DEAD;
+    }
+
+    /**
+     * Returns the state reached from a given state through an element.
+     * A transition whose predicate matches is taken before one without predicate.
+     *
+     * @param state the state the transition starts from.
+     * @param element the name of the tag.
+     * @param atts the attributes of the tag, null to only take transitions without predicates.
+     * @return the target state, or -1 if there is no such transition.
+     */
+    private int transition(int state, String element, Attributes atts) {
+        final String[] stateNames = this.names[state];
+        int next = -1;
+        for (int i = 0; i < this.transitions[state]; i++) {
+            if (stateNames[i].equals(element)) {
+                final String attribute = this.attributes[state][i];
+                if (attribute == null) {
+                    next = this.targets[state][i];
+                } else if (atts != null && atts.getIndex(attribute) >= 0) {
+                    final String expected = this.attributeValues[state][i];
+                    if (expected == null || expected.equals(atts.getValue(attribute))) {
+                        return this.targets[state][i];
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Adds the states of a path that don't exist yet.
+     *
+     * @param path the element names of the path, separated by dots, see add.
+     * @return the state of the last element of the path.
+     * @throws IllegalArgumentException if the path is invalid or goes through a registered subtree.
+     */
+    private int compile(String path) {
+        int state = ROOT;
+        for (String step : steps(path)) {
+            if (this.fallbacks[state] != DEAD) {
+                throw new IllegalArgumentException("The path " + path + " is inside a registered subtree");
+            }
+
+            /* Split the step into its element and the attribute and value of its predicate */
+            String element = step;
+            String attribute = null;
+            String attributeValue = null;
+            final int predicate = step.indexOf('[');
+            if (predicate >= 0) {
+                final String condition = step.substring(predicate + 1, step.length() - 1).trim();
+                final int equals = condition.indexOf('=');
+                element = step.substring(0, predicate).trim();
+                attribute = (equals < 0 ? condition : condition.substring(0, equals)).trim();
+                if (equals >= 0) {
+                    attributeValue = condition.substring(equals + 1).trim();
+                    final char quote = attributeValue.isEmpty() ? ' ' : attributeValue.charAt(0);
+                    if (attributeValue.length() < 2 || quote != '\'' && quote != '"'
+                            || attributeValue.charAt(attributeValue.length() - 1) != quote) {
+                        throw new IllegalArgumentException("Unquoted value in " + step);
+                    }
+                    attributeValue = attributeValue.substring(1, attributeValue.length() - 1);
+                }
+                if (!step.endsWith("]") || !attribute.startsWith("@") || attribute.length() == 1) {
+                    throw new IllegalArgumentException("Invalid predicate in " + step + ", expected [@attribute='value']");
+                }
+                attribute = attribute.substring(1);
+            }
+            if (element.isEmpty()) {
+                throw new IllegalArgumentException("Empty element in " + path);
+            }
+
+            /* Reuse the transition of the same element and predicate, if any */
+            int next = -1;
+            for (int i = 0; i < this.transitions[state] && next < 0; i++) {
+                if (this.names[state][i].equals(element) && Objects.equals(this.attributes[state][i], attribute)
+                        && Objects.equals(this.attributeValues[state][i], attributeValue)) {
+                    next = this.targets[state][i];
+                }
+            }
+            if (next < 0) {
+                next = this.newState(NO_MATCH, DEAD);
+                final int count = this.transitions[state]++;
+                if (count == this.names[state].length) {
+                    this.names[state] = Arrays.copyOf(this.names[state], count * 2);
+                    this.attributes[state] = Arrays.copyOf(this.attributes[state], count * 2);
+                    this.attributeValues[state] = Arrays.copyOf(this.attributeValues[state], count * 2);
+                    this.targets[state] = Arrays.copyOf(this.targets[state], count * 2);
+                }
+                this.names[state][count] = element;
+                this.attributes[state][count] = attribute;
+                this.attributeValues[state][count] = attributeValue;
+                this.targets[state][count] = next;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * Splits a path into its steps, the dots inside predicates don't separate steps.
+     *
+     * @param path the element names of the path, separated by dots.
+     * @return the steps of the path.
+     */
+    private static List<String> steps(String path) {
+        final List<String> steps = new ArrayList<>();
+        char quote = 0;
+        Boolean predicate = false;
+        int start = 0;
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (predicate && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == '[' || c == ']') {
+                predicate = c == '[';
+            } else if (c == '.' && !predicate) {
+                steps.add(path.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        steps.add(path.substring(start).trim());
+        return steps;
+    }
+
+    /**
+     * Creates a new state without transitions.
+     *
+     * @param value the value of the state.
+     * @param fallback the state taken by its children.
+     * @return the new state.
+     */
+    private int newState(int value, int fallback) {
+        if (this.states == this.values.length) {
+            this.names = Arrays.copyOf(this.names, this.states * 2);
+            this.attributes = Arrays.copyOf(this.attributes, this.states * 2);
+            this.attributeValues = Arrays.copyOf(this.attributeValues, this.states * 2);
+            this.targets = Arrays.copyOf(this.targets, this.states * 2);
+            this.transitions = Arrays.copyOf(this.transitions, this.states * 2);
+            this.values = Arrays.copyOf(this.values, this.states * 2);
+            this.fallbacks = Arrays.copyOf(this.fallbacks, this.states * 2);
+        }
+        this.names[this.states] = new String[2];
+        this.attributes[this.states] = new String[2];
+        this.attributeValues[this.states] = new String[2];
+        this.targets[this.states] = new int[2];
+        this.values[this.states] = value;
+        this.fallbacks[this.states] = fallback;
+        return this.states++;
+    }
+}
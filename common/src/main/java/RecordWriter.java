@@ -0,0 +1,226 @@
+/* RecordWriter imports */
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The format of the results: the text report, JSON Lines or CSV.
+ */
+enum OutputFormat {
+    TEXT, JSONL, CSV;
+
+    /**
+     * Returns the format of a name, e.g. jsonl
+     *
+     * @param name the name of the format, in any case.
+     * @return the format.
+     * @throws IllegalArgumentException if there's no format with that name.
+     */
+    public static OutputFormat of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
+
+/**
+ * Writes machine readable records, one per line, as JSON Lines or CSV.
+ * The records are written through a large buffer, so the stream is written to in big chunks
+ * instead of once per line, and they are only flushed when asked to,
+ * unless each record is flushed as soon as it's written, so a reader may follow a streaming parse.
+ * The values may be strings, numbers, booleans, lists of strings or null.
+ * In CSV the header is written before the first record, and lists are joined with "; ".
+ */
+class RecordWriter {
+
+    /**
+     * The size of the buffer of the output.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The buffered output.
+     */
+    private final Writer out;
+
+    /**
+     * The format of the records, JSONL or CSV.
+     */
+    private final OutputFormat format;
+
+    /**
+     * Whether each record is flushed once written.
+     */
+    private final Boolean flushing;
+
+    /**
+     * Whether the CSV header has been written.
+     */
+    private Boolean header = false;
+
+    /**
+     * The constructor of a writer.
+     *
+     * @param out the stream the records are written to, as UTF-8.
+     * @param format the format of the records, JSONL or CSV.
+     */
+    public RecordWriter(OutputStream out, OutputFormat format) {
+        this(out, format, false);
+    }
+
+    /**
+     * The constructor of a writer that may flush each record, e.g. when streaming.
+     *
+     * @param out the stream the records are written to, as UTF-8.
+     * @param format the format of the records, JSONL or CSV.
+     * @param flushing flush each record as soon as it's written, a whole line at a time.
+     */
+    public RecordWriter(OutputStream out, OutputFormat format, Boolean flushing) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+        this.flushing = flushing;
+    }
+
+    /**
+     * Writes a record.
+     * In CSV every record must have the same columns, the ones of the header.
+     *
+     * @param columns the names of the values.
+     * @param values the values, in the order of the columns.
+     */
+    public void write(String[] columns, Object[] values) {
+        try {
+            if (this.format == OutputFormat.CSV) {
+                if (!this.header) {
+                    this.csvLine(columns);
+                    this.header = true;
+                }
+                this.csvLine(values);
+            } else {
+                this.out.write('{');
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        this.out.write(',');
+                    }
+                    this.json(columns[i]);
+                    this.out.write(':');
+                    this.json(values[i]);
+                }
+                this.out.write("}\n");
+            }
+            if (this.flushing) {
+                this.out.flush();
+            }
+        } catch (IOException ex) {
+            System.err.println("Error writing the results: " + ex.getMessage());
+            throw new RuntimeException("Error writing the results", ex);
+        }
+    }
+
+    /**
+     * Writes the buffered records to the stream.
+     */
+    public void flush() {
+        try {
+            this.out.flush();
+        } catch (IOException ex) {
+            System.err.println("Error writing the results: " + ex.getMessage());
+            throw new RuntimeException("Error writing the results", ex);
+        }
+    }
+
+    /**
+     * Writes a line of CSV, quoting the values that need it.
+     *
+     * @param values the values of the line.
+     */
+    private void csvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                this.out.write(',');
+            }
+            final Object value = values[i];
+            final String text = value == null ? ""
+                : value instanceof List ? ((List<?>) value).stream().map(String::valueOf).collect(Collectors.joining("; "))
+                : value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                this.out.write(text);
+            } else {
+                this.out.write('"');
+                this.out.write(text.replace("\"", "\"\""));
+                this.out.write('"');
+            }
+        }
+        this.out.write("\r\n");
+    }
+
+    /**
+     * Writes a JSON value.
+     *
+     * @param value the value.
+     */
+    private void json(Object value) throws IOException {
+        if (value == null) {
+            this.out.write("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            this.out.write(value.toString());
+        } else if (value instanceof List) {
+            this.out.write('[');
+            Boolean first = true;
+            for (Object element : (List<?>) value) {
+                if (!first) {
+                    this.out.write(',');
+                }
+                this.json(element);
+                first = false;
+            }
+            this.out.write(']');
+        } else {
+            this.jsonString(value.toString());
+        }
+    }
+
+    /**
+     * Writes a JSON string, escaping the quotes, backslashes and control characters,
+     * and the line and paragraph separators, which some JavaScript parsers take as line ends.
+     *
+     * @param string the string.
+     */
+    private void jsonString(String string) throws IOException {
+        this.out.write('"');
+        int start = 0;
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            this.out.write(string, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    this.out.write("\\\"");
+                    break;
+                case '\\':
+                    this.out.write("\\\\");
+                    break;
+                case '\n':
+                    this.out.write("\\n");
+                    break;
+                case '\r':
+                    this.out.write("\\r");
+                    break;
+                case '\t':
+                    this.out.write("\\t");
+                    break;
+                default:
+                    this.out.write(String.format("\\u%04x", (int) c));
+            }
+        }
+        this.out.write(string, start, string.length() - start);
+        this.out.write('"');
+    }
+}
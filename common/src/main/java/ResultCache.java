@@ -0,0 +1,439 @@
+/* ResultCache imports */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A persistent cache of the results of the files, so unchanged files aren't parsed again.
+ * The results are stored in a directory, one compact binary entry per content hash,
+ * so a file is a hit as long as its contents don't change, even if it's touched, renamed or copied.
+ * An index of the size, modification time and hash of each file avoids hashing the files
+ * that haven't changed since they were last seen.
+ * The least recently used entries are evicted once the entries exceed the size limit.
+ *
+ * @param <T> the type of the results.
+ */
+class ResultCache<T> implements AutoCloseable {
+
+    /**
+     * The magic number of the files of the cache.
+     */
+    private static final int MAGIC = 0x50524c43;
+
+    /**
+     * The version of the format of the files, entries of other versions are discarded.
+     */
+    private static final int FORMAT = 1;
+
+    /**
+     * The name of the index file in the directory.
+     */
+    private static final String INDEX_FILE = "index";
+
+    /**
+     * The extension of the entries in the directory.
+     */
+    private static final String ENTRY_EXTENSION = ".bin";
+
+    /**
+     * The size of the buffer used to hash the files.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The directory of the cache.
+     */
+    private final Path directory;
+
+    /**
+     * The maximum size of the entries, in bytes.
+     */
+    private final long limit;
+
+    /**
+     * The version of the results, e.g. the options they depend on, it's part of the hash of every entry.
+     */
+    private final String version;
+
+    /**
+     * The binary form of the results.
+     */
+    private final ResultCodec<T> codec;
+
+    /**
+     * The last size, modification time and hash of each file seen, by absolute path.
+     */
+    private final Map<Path, IndexEntry> index = new ConcurrentHashMap<>();
+
+    /**
+     * The size of each entry, by hash.
+     */
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+    /**
+     * The last time each entry was used, by hash.
+     */
+    private final Map<String, Long> uses = new ConcurrentHashMap<>();
+
+    /**
+     * The total size of the entries.
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * The constructor of a cache, loads the index and the entries of its directory.
+     *
+     * @param directory the directory of the cache, created if it doesn't exist.
+     * @param limit the maximum size of the entries, in bytes.
+     * @param version the version of the results, e.g. the options they depend on.
+     * @param codec the binary form of the results.
+     */
+    public ResultCache(String directory, long limit, String version, ResultCodec<T> codec) throws IOException {
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.limit = limit;
+        this.version = version;
+        this.codec = codec;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory, "*" + ENTRY_EXTENSION)) {
+            for (Path entry : entries) {
+                final String name = entry.getFileName().toString();
+                final String hash = name.substring(0, name.length() - ENTRY_EXTENSION.length());
+                final long entrySize = Files.size(entry);
+                this.sizes.put(hash, entrySize);
+                this.uses.put(hash, Files.getLastModifiedTime(entry).toMillis());
+                this.size.addAndGet(entrySize);
+            }
+        }
+        this.loadIndex();
+    }
+
+    /**
+     * Returns the results of a file, from the cache if its contents haven't changed,
+     * otherwise they are computed and stored.
+     *
+     * @param file the file.
+     * @param compute computes the results of the file if they aren't cached.
+     * @return the results of the file.
+     */
+    public T get(Path file, Supplier<T> compute) {
+        final Path key = file.toAbsolutePath().normalize();
+        final String hash;
+        try {
+            hash = this.hash(key);
+        } catch (IOException ex) {
+            /* Let the parser report it */
+            return compute.get();
+        }
+
+        final T cached = this.read(hash);
+        if (cached != null) {
+            return cached;
+        }
+        final T result = compute.get();
+        this.write(hash, result);
+        return result;
+    }
+
+    /**
+     * Writes a string that may be null or longer than writeUTF allows.
+     *
+     * @param out the stream the string is written to.
+     * @param string the string, or null.
+     */
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @param in the stream the string is read from.
+     * @return the string, or null.
+     */
+    static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Evicts the entries over the size limit and saves the index and the last use of the entries.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.evict();
+        for (Map.Entry<String, Long> use : this.uses.entrySet()) {
+            final Path entry = this.entry(use.getKey());
+            try {
+                if (Files.getLastModifiedTime(entry).toMillis() < use.getValue()) {
+                    Files.setLastModifiedTime(entry, FileTime.fromMillis(use.getValue()));
+                }
+            } catch (NoSuchFileException ex) {
+                this.forget(use.getKey());
+            }
+        }
+        this.saveIndex();
+    }
+
+    /**
+     * Returns the hash of the contents of a file and the version of the results,
+     * the one in the index if the file hasn't changed since it was last seen.
+     *
+     * @param file the absolute path of the file.
+     * @return the hash, in hexadecimal.
+     */
+    private String hash(Path file) throws IOException {
+        final long fileSize = Files.size(file);
+        final long modified = Files.getLastModifiedTime(file).toMillis();
+        final IndexEntry known = this.index.get(file);
+        if (known != null && known.size == fileSize && known.modified == modified) {
+            return known.hash;
+        }
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 isn't available", ex);
+        }
+        digest.update(this.version.getBytes(StandardCharsets.UTF_8));
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        this.index.put(file, new IndexEntry(fileSize, modified, hash.toString()));
+        return hash.toString();
+    }
+
+    /**
+     * Reads an entry, entries that can't be read are discarded.
+     *
+     * @param hash the hash of the entry.
+     * @return the results of the entry, or null if there's none.
+     */
+    private T read(String hash) {
+        if (!this.sizes.containsKey(hash)) {
+            return null;
+        }
+        final Path entry = this.entry(hash);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("Unknown format");
+            }
+            final T result = this.codec.read(in);
+            this.uses.put(hash, System.currentTimeMillis());
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            this.discard(hash);
+            return null;
+        }
+    }
+
+    /**
+     * Writes an entry, replacing it atomically, and evicts the entries over the size limit.
+     * Entries larger than the limit aren't stored.
+     *
+     * @param hash the hash of the entry.
+     * @param result the results of the entry.
+     */
+    private void write(String hash, T result) {
+        final Path entry = this.entry(hash);
+        try {
+            final Path temporary = Files.createTempFile(this.directory, hash, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                this.codec.write(out, result);
+            }
+            final long entrySize = Files.size(temporary);
+            if (entrySize > this.limit) {
+                /* It would evict every other entry without fitting anyway */
+                Files.delete(temporary);
+                return;
+            }
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final Long previous = this.sizes.put(hash, entrySize);
+            this.size.addAndGet(entrySize - (previous == null ? 0 : previous));
+            this.uses.put(hash, System.currentTimeMillis());
+        } catch (IOException ex) {
+            System.err.println("Error writing the cache: " + ex.getMessage());
+            return;
+        }
+        if (this.size.get() > this.limit) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until they don't exceed the size limit.
+     */
+    private synchronized void evict() {
+        if (this.size.get() <= this.limit) {
+            return;
+        }
+        final List<Map.Entry<String, Long>> entries = new ArrayList<>(this.uses.entrySet());
+        entries.sort(Comparator.comparingLong(Map.Entry::getValue));
+        for (int i = 0; i < entries.size() && this.size.get() > this.limit; i++) {
+            this.discard(entries.get(i).getKey());
+        }
+    }
+
+    /**
+     * Deletes an entry.
+     *
+     * @param hash the hash of the entry.
+     */
+    private void discard(String hash) {
+        try {
+            Files.deleteIfExists(this.entry(hash));
+        } catch (IOException ex) {
+            System.err.println("Error deleting from the cache: " + ex.getMessage());
+        }
+        this.forget(hash);
+    }
+
+    /**
+     * Forgets an entry that no longer exists.
+     *
+     * @param hash the hash of the entry.
+     */
+    private void forget(String hash) {
+        final Long entrySize = this.sizes.remove(hash);
+        if (entrySize != null) {
+            this.size.addAndGet(-entrySize);
+        }
+        this.uses.remove(hash);
+    }
+
+    /**
+     * Returns the path of an entry.
+     *
+     * @param hash the hash of the entry.
+     */
+    private Path entry(String hash) {
+        return this.directory.resolve(hash + ENTRY_EXTENSION);
+    }
+
+    /**
+     * Loads the index, it's ignored if it can't be read or it's of another version,
+     * as the files will just be hashed again.
+     */
+    private void loadIndex() {
+        final Path file = this.directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || !in.readUTF().equals(this.version)) {
+                return;
+            }
+            for (int entries = in.readInt(); entries > 0; entries--) {
+                final Path path = Paths.get(in.readUTF());
+                this.index.put(path, new IndexEntry(in.readLong(), in.readLong(), in.readUTF()));
+            }
+        } catch (IOException | RuntimeException ex) {
+            this.index.clear();
+        }
+    }
+
+    /**
+     * Saves the index atomically, without the files whose entry has been evicted.
+     */
+    private void saveIndex() throws IOException {
+        final List<Map.Entry<Path, IndexEntry>> entries = new ArrayList<>();
+        for (Map.Entry<Path, IndexEntry> entry : this.index.entrySet()) {
+            if (this.sizes.containsKey(entry.getValue().hash)) {
+                entries.add(entry);
+            }
+        }
+        final Path temporary = Files.createTempFile(this.directory, INDEX_FILE, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeUTF(this.version);
+            out.writeInt(entries.size());
+            for (Map.Entry<Path, IndexEntry> entry : entries) {
+                out.writeUTF(entry.getKey().toString());
+                out.writeLong(entry.getValue().size);
+                out.writeLong(entry.getValue().modified);
+                out.writeUTF(entry.getValue().hash);
+            }
+        }
+        Files.move(temporary, this.directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The size, modification time and hash of a file when it was last seen.
+     */
+    private static class IndexEntry {
+
+        final long size;
+        final long modified;
+        final String hash;
+
+        IndexEntry(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+}
+
+/**
+ * The compact binary form of the results stored in a ResultCache.
+ *
+ * @param <T> the type of the results.
+ */
+interface ResultCodec<T> {
+
+    /**
+     * Writes some results.
+     *
+     * @param out the stream the results are written to.
+     * @param result the results.
+     */
+    void write(DataOutputStream out, T result) throws IOException;
+
+    /**
+     * Reads some results.
+     *
+     * @param in the stream the results are read from.
+     * @return the results.
+     */
+    T read(DataInputStream in) throws IOException;
+}
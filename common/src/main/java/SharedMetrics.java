@@ -0,0 +1,22 @@
+/**
+ * The metrics the shared classes add to, implemented by the ParseMetrics of each program.
+ * They are passed to the shared classes, null if they aren't enabled.
+ */
+interface SharedMetrics {
+
+    /**
+     * Adds a read from a file.
+     *
+     * @param bytes the amount of bytes read.
+     * @param nanos the time spent reading them.
+     */
+    void addRead(long bytes, long nanos);
+
+    /**
+     * Adds the strings looked up in a symbol table.
+     *
+     * @param lookups the amount of strings looked up.
+     * @param hits the amount of them that were already in the table.
+     */
+    void addSymbols(long lookups, long hits);
+}
@@ -0,0 +1,171 @@
+/**
+ * A bounded table of the short strings found, so repeated values such as surnames, journals
+ * or element symbols share a single instance instead of each one being a new string.
+ * Strings are looked up straight from the characters of the parser, only allocating the ones not in the table.
+ * It's an open addressing table of a fixed capacity: once the slots of a string are taken,
+ * the string replaces the one of its first slot, so it keeps the most recent values without growing.
+ * It isn't thread safe, each handler keeping its own table for every file it parses.
+ */
+class SymbolTable {
+
+    /**
+     * The default amount of strings of a table.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /**
+     * The maximum length of the strings kept, longer ones being rarely repeated.
+     */
+    static final int MAX_LENGTH = 64;
+
+    /**
+     * The amount of slots where a string may be kept.
+     */
+    private static final int PROBES = 8;
+
+    /**
+     * The strings, null in the empty slots.
+     */
+    private final String[] symbols;
+
+    /**
+     * The hash codes of the strings of each slot.
+     */
+    private final int[] hashes;
+
+    /**
+     * The mask of the indexes of the slots.
+     */
+    private final int mask;
+
+    /**
+     * The amount of strings looked up, and the ones found in the table, since they were last reported.
+     */
+    private long lookups = 0;
+    private long hits = 0;
+
+    /**
+     * The default constructor, for a table of the default capacity.
+     */
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * The constructor of a table.
+     *
+     * @param capacity the maximum amount of strings, rounded up to a power of two.
+     */
+    public SymbolTable(int capacity) {
+        final int slots = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+        this.symbols = new String[slots];
+        this.hashes = new int[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Returns the string of some characters, the one in the table if it has already been found.
+     *
+     * @param ch the characters.
+     * @param start the start position in the array.
+     * @param length the number of characters of the string.
+     * @return the string.
+     */
+    public String intern(char[] ch, int start, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(ch, start, length);
+        }
+        /* The hash of the string, as String.hashCode so both methods find the same slots */
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + ch[i];
+        }
+        this.lookups++;
+        final int home = spread(hash) & this.mask;
+        int empty = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = (home + probe) & this.mask;
+            final String symbol = this.symbols[slot];
+            if (symbol == null) {
+                empty = empty < 0 ? slot : empty;
+            } else if (this.hashes[slot] == hash && equals(symbol, ch, start, length)) {
+                this.hits++;
+                return symbol;
+            }
+        }
+        final String symbol = new String(ch, start, length);
+        this.put(empty < 0 ? home : empty, symbol, hash);
+        return symbol;
+    }
+
+    /**
+     * Returns the instance of a string in the table, adding it if it hasn't been found yet.
+     *
+     * @param string the string, may be null.
+     * @return the instance of the string.
+     */
+    public String intern(String string) {
+        if (string == null || string.length() > MAX_LENGTH) {
+            return string;
+        }
+        final int hash = string.hashCode();
+        this.lookups++;
+        final int home = spread(hash) & this.mask;
+        int empty = -1;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = (home + probe) & this.mask;
+            final String symbol = this.symbols[slot];
+            if (symbol == null) {
+                empty = empty < 0 ? slot : empty;
+            } else if (this.hashes[slot] == hash && symbol.equals(string)) {
+                this.hits++;
+                return symbol;
+            }
+        }
+        this.put(empty < 0 ? home : empty, string, hash);
+        return string;
+    }
+
+    /**
+     * Adds the strings looked up to the metrics, if they are enabled, and starts counting them again.
+     *
+     * @param metrics the metrics, or null if they aren't enabled.
+     */
+    public void report(SharedMetrics metrics) {
+        if (metrics != null) {
+            metrics.addSymbols(this.lookups, this.hits);
+        }
+        this.lookups = 0;
+        this.hits = 0;
+    }
+
+    /**
+     * Keeps a string in a slot.
+     */
+    private void put(int slot, String symbol, int hash) {
+        this.symbols[slot] = symbol;
+        this.hashes[slot] = hash;
+    }
+
+    /**
+     * Spreads the high bits of a hash code to the low ones, which are the ones indexing the slots.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns whether a string has some characters.
+     */
+    private static boolean equals(String symbol, char[] ch, int start, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != ch[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+/* TopK imports */
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The K values with the highest scores among the ones added, kept online in a heap of at most K entries,
+ * so adding n values takes O(n log K) time and O(K) memory.
+ * Ties are broken by the order in which the values were added, the first one ranking higher,
+ * so the ranking doesn't depend on how the values are stored.
+ *
+ * @param <T> the type of the values.
+ */
+class TopK<T> {
+
+    /**
+     * The order of the entries, from the lowest ranked to the highest ranked.
+     */
+    private static final Comparator<Ranked<?>> ORDER = Comparator.<Ranked<?>>comparingLong(Ranked::getScore)
+        .thenComparing(Comparator.<Ranked<?>>comparingLong(ranked -> ranked.sequence).reversed());
+
+    /**
+     * The maximum amount of values.
+     */
+    private final int k;
+
+    /**
+     * The entries, the lowest ranked one at the head so it's the one replaced.
+     */
+    private final PriorityQueue<Ranked<T>> heap;
+
+    /**
+     * The amount of values added, the sequence of the next one.
+     */
+    private long added = 0;
+
+    /**
+     * The constructor of a ranking.
+     *
+     * @param k the maximum amount of values, at least 1.
+     */
+    public TopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("The size of a ranking must be at least 1, not " + k);
+        }
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024), ORDER);
+    }
+
+    /**
+     * Returns the maximum amount of values.
+     */
+    public int getK() {
+        return this.k;
+    }
+
+    /**
+     * Adds a value, kept if it's among the K highest scores so far.
+     *
+     * @param value the value.
+     * @param score the score of the value.
+     */
+    public void add(T value, long score) {
+        final Ranked<T> ranked = new Ranked<>(value, score, this.added++);
+        if (this.heap.size() < this.k) {
+            this.heap.add(ranked);
+        } else if (ORDER.compare(ranked, this.heap.peek()) > 0) {
+            this.heap.poll();
+            this.heap.add(ranked);
+        }
+    }
+
+    /**
+     * Adds the values of another ranking, as if they had been added after the ones of this one.
+     *
+     * @param other the other ranking.
+     */
+    public void addAll(TopK<T> other) {
+        for (Ranked<T> ranked : other.getEntries()) {
+            this.add(ranked.getValue(), ranked.getScore());
+        }
+    }
+
+    /**
+     * Returns the values of the ranking in the order they were added,
+     * so adding them to an empty ranking restores this one.
+     *
+     * @return the values with the highest scores, the first one added first.
+     */
+    public List<Ranked<T>> getEntries() {
+        final List<Ranked<T>> entries = new ArrayList<>(this.heap);
+        entries.sort(Comparator.comparingLong(ranked -> ranked.sequence));
+        return entries;
+    }
+
+    /**
+     * Returns the ranking.
+     *
+     * @return the values with the highest scores, the highest ranked first.
+     */
+    public List<Ranked<T>> getRanking() {
+        final List<Ranked<T>> ranking = new ArrayList<>(this.heap);
+        ranking.sort(ORDER.reversed());
+        return ranking;
+    }
+
+    /**
+     * Returns the values of the ranking.
+     *
+     * @return the values with the highest scores, the highest ranked first.
+     */
+    public List<T> getValues() {
+        final List<T> values = new ArrayList<>();
+        for (Ranked<T> ranked : this.getRanking()) {
+            values.add(ranked.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Returns the highest ranked value.
+     *
+     * @param none the value returned if the ranking is empty.
+     * @return the value with the highest score, the first one added if there are several.
+     */
+    public T getFirst(T none) {
+        Ranked<T> first = null;
+        for (Ranked<T> ranked : this.heap) {
+            if (first == null || ORDER.compare(ranked, first) > 0) {
+                first = ranked;
+            }
+        }
+        return first == null ? none : first.getValue();
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void clear() {
+        this.heap.clear();
+        this.added = 0;
+    }
+
+    /**
+     * A value of a ranking with its score.
+     *
+     * @param <T> the type of the value.
+     */
+    static class Ranked<T> {
+
+        private final T value;
+        private final long score;
+
+        /**
+         * The order in which the value was added.
+         */
+        private final long sequence;
+
+        Ranked(T value, long score, long sequence) {
+            this.value = value;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+
+        public long getScore() {
+            return this.score;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/* ResultCacheTest imports */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The results written to a ResultCache are read back as they were, by the same cache or a reopened one,
+ * until their file changes or they are evicted as the least recently used entries over the size limit.
+ */
+class ResultCacheTest {
+
+    /**
+     * A codec of lists of strings, some of them null.
+     */
+    private static final ResultCodec<List<String>> CODEC = new ResultCodec<List<String>>() {
+        public void write(DataOutputStream out, List<String> strings) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                ResultCache.writeString(out, string);
+            }
+        }
+
+        public List<String> read(DataInputStream in) throws IOException {
+            final List<String> strings = new ArrayList<>();
+            for (int count = in.readInt(); count > 0; count--) {
+                strings.add(ResultCache.readString(in));
+            }
+            return strings;
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void stringsRoundTrip() throws IOException {
+        final char[] accents = new char[70000];
+        Arrays.fill(accents, 'á');
+        final List<String> strings = Arrays.asList("", null, "García-Osorio", new String(accents));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (String string : strings) {
+                ResultCache.writeString(out, string);
+            }
+        }
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (String string : strings) {
+            assertEquals(string, ResultCache.readString(in));
+        }
+    }
+
+    @Test
+    void resultsRoundTrip() throws IOException {
+        final Path file = this.write("a.xml", "<a/>");
+        final List<String> results = Arrays.asList("first", null, "tercero");
+        final AtomicInteger computed = new AtomicInteger();
+
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(results, cache.get(file, () -> count(computed, results)));
+            assertEquals(results, cache.get(file, () -> count(computed, null)));
+        }
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(results, cache.get(file, () -> count(computed, null)));
+        }
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void changesMiss() throws IOException {
+        final Path file = this.write("a.xml", "<a/>");
+        final AtomicInteger computed = new AtomicInteger();
+
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            cache.get(file, () -> count(computed, Arrays.asList("before")));
+        }
+
+        /* Another version of the results */
+        try (ResultCache<List<String>> cache = this.open("2")) {
+            assertEquals(Arrays.asList("other"), cache.get(file, () -> count(computed, Arrays.asList("other"))));
+        }
+
+        /* The same contents in another file hit, other contents miss */
+        final Path copy = this.write("b.xml", "<a/>");
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(Arrays.asList("before"), cache.get(copy, () -> count(computed, null)));
+            this.write("a.xml", "<bb/>");
+            assertEquals(Arrays.asList("after"), cache.get(file, () -> count(computed, Arrays.asList("after"))));
+        }
+        assertEquals(3, computed.get());
+    }
+
+    @Test
+    void corruptEntriesMiss() throws IOException {
+        final Path file = this.write("a.xml", "<a/>");
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            cache.get(file, () -> Arrays.asList("results"));
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(this.directory.resolve("cache"), "*.bin")) {
+            for (Path entry : entries) {
+                Files.write(entry, new byte[] {1, 2, 3});
+            }
+        }
+        final AtomicInteger computed = new AtomicInteger();
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(Arrays.asList("again"), cache.get(file, () -> count(computed, Arrays.asList("again"))));
+        }
+
+        /* The entry was written again */
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(Arrays.asList("again"), cache.get(file, () -> count(computed, null)));
+        }
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void touchedFilesAreHashedAgain() throws IOException {
+        final Path file = this.write("a.xml", "<a/>");
+        final FileTime modified = Files.getLastModifiedTime(file);
+        final AtomicInteger computed = new AtomicInteger();
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            cache.get(file, () -> count(computed, Arrays.asList("a")));
+        }
+
+        /* Other contents of the same size, modified later */
+        this.write("a.xml", "<b/>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 60000));
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(Arrays.asList("b"), cache.get(file, () -> count(computed, Arrays.asList("b"))));
+        }
+
+        /* Other contents of another size, with the same modification time */
+        this.write("a.xml", "<cc/>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 60000));
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertEquals(Arrays.asList("cc"), cache.get(file, () -> count(computed, Arrays.asList("cc"))));
+        }
+        assertEquals(3, computed.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        final char[] padding = new char[1000];
+        Arrays.fill(padding, 'x');
+        final List<String> results = Arrays.asList(new String(padding));
+        final Path first = this.write("a.xml", "<a/>");
+        final Path second = this.write("b.xml", "<b/>");
+        final Path third = this.write("c.xml", "<c/>");
+
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            cache.get(first, () -> results);
+            cache.get(second, () -> results);
+        }
+        final List<Path> entries = this.entries();
+        assertEquals(2, entries.size());
+        final long entrySize = Files.size(entries.get(0));
+
+        /* The first file is used last, as told by the modification time of its entry */
+        final long now = System.currentTimeMillis();
+        for (Path entry : this.entries()) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(now - 60000));
+        }
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            cache.get(first, () -> null);
+        }
+
+        /* Room for two entries, so the third one evicts the second */
+        final AtomicInteger computed = new AtomicInteger();
+        try (ResultCache<List<String>> cache = this.open("1", entrySize * 2 + entrySize / 2)) {
+            cache.get(third, () -> count(computed, results));
+        }
+        assertEquals(2, this.entries().size());
+        try (ResultCache<List<String>> cache = this.open("1", entrySize * 2 + entrySize / 2)) {
+            assertEquals(results, cache.get(first, () -> count(computed, null)));
+            assertEquals(results, cache.get(third, () -> count(computed, null)));
+        }
+        assertEquals(1, computed.get());
+        try (ResultCache<List<String>> cache = this.open("1", entrySize * 2 + entrySize / 2)) {
+            assertEquals(Arrays.asList("again"), cache.get(second, () -> count(computed, Arrays.asList("again"))));
+        }
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    void entriesOverTheLimitAreNotStored() throws IOException {
+        final Path file = this.write("a.xml", "<a/>");
+        final AtomicInteger computed = new AtomicInteger();
+        for (int run = 0; run < 2; run++) {
+            try (ResultCache<List<String>> cache = this.open("1", 16)) {
+                assertEquals(Arrays.asList("too long for the cache"),
+                    cache.get(file, () -> count(computed, Arrays.asList("too long for the cache"))));
+            }
+        }
+        assertTrue(this.entries().isEmpty());
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    void missingFilesAreComputed() throws IOException {
+        try (ResultCache<List<String>> cache = this.open("1")) {
+            assertNull(cache.get(this.directory.resolve("missing.xml"), () -> null));
+        }
+    }
+
+    private ResultCache<List<String>> open(String version) throws IOException {
+        return this.open(version, 1 << 20);
+    }
+
+    private ResultCache<List<String>> open(String version, long limit) throws IOException {
+        return new ResultCache<>(this.directory.resolve("cache").toString(), limit, version, CODEC);
+    }
+
+    private List<Path> entries() throws IOException {
+        final List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory.resolve("cache"), "*.bin")) {
+            stream.forEach(entries::add);
+        }
+        return entries;
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        return Files.write(this.directory.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> T count(AtomicInteger computed, T result) {
+        computed.incrementAndGet();
+        return result;
+    }
+}